@@ -0,0 +1,38 @@
+plugins {
+    java
+    id("me.champeau.gradle.jmh")
+}
+
+group = "de.md5lukas.maven"
+version = "1.0.0-SNAPSHOT"
+
+repositories {
+    mavenLocal()
+    mavenCentral()
+
+    maven(url = "https://hub.spigotmc.org/nexus/content/repositories/snapshots/")
+}
+
+dependencies {
+    jmh(project(":resolver"))
+    jmh(project(":spigot"))
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+tasks.withType<JavaCompile> {
+    options.encoding = "UTF-8"
+}
+
+// Run with ./gradlew :benchmarks:jmh, a subset can be selected with -PjmhInclude=<regex>
+jmh {
+    jmhVersion = "1.26"
+    if (project.hasProperty("jmhInclude")) {
+        include = listOf(project.properties["jmhInclude"] as String)
+    }
+    resultFormat = "JSON"
+    resultsFile = project.file("${project.buildDir}/reports/jmh/results.json")
+}
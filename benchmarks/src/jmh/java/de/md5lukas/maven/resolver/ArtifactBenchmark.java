@@ -0,0 +1,81 @@
+package de.md5lukas.maven.resolver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the creation of the repository paths and ids of an artifact, which happens for every repository an artifact is looked up in
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArtifactBenchmark {
+
+    private final Artifact release = new Artifact("org.apache.commons", "commons-lang3", "3.11");
+    private final Artifact classified = new Artifact("io.netty", "netty-transport-native-epoll", "4.1.54.Final", "linux-x86_64");
+    private final Artifact snapshot = new Artifact("de.md5lukas.maven", "resolver", "1.0.0-SNAPSHOT");
+    private final StringBuilder builder = new StringBuilder(128);
+
+    @Benchmark
+    public String getPath() {
+        return release.getPath();
+    }
+
+    @Benchmark
+    public String getPathWithClassifier() {
+        return classified.getPath();
+    }
+
+    @Benchmark
+    public String getSnapshotPath() {
+        return snapshot.getPath("1.0.0-20201231.235959-42");
+    }
+
+    @Benchmark
+    public StringBuilder appendSnapshotPath() {
+        builder.setLength(0);
+        return snapshot.appendPath(builder, "1.0.0-20201231.235959-42");
+    }
+
+    @Benchmark
+    public Artifact parse() {
+        return Artifact.parse("io.netty:netty-transport-native-epoll:4.1.54.Final:linux-x86_64");
+    }
+
+    @Benchmark
+    public Artifact getChecksumArtifact() {
+        return release.getChecksumArtifact(MavenChecksum.SHA1);
+    }
+
+    @Benchmark
+    public String getSnapshotMetadataPath() {
+        return snapshot.getSnapshotMetadataPath();
+    }
+
+    @Benchmark
+    public String getFuzzyId() {
+        return snapshot.getFuzzyId();
+    }
+
+    @Benchmark
+    public String getFileName() {
+        return classified.getFileName();
+    }
+
+    @Benchmark
+    public int hashCodeOfArtifact() {
+        return classified.hashCode();
+    }
+}
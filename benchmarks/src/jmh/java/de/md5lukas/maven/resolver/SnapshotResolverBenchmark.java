@@ -0,0 +1,138 @@
+package de.md5lukas.maven.resolver;
+
+import com.sun.net.httpserver.HttpServer;
+import de.md5lukas.maven.resolver.cache.SimpleSnapshotCache;
+import de.md5lukas.maven.resolver.transport.InMemoryTransport;
+import de.md5lukas.maven.resolver.transport.PooledTransport;
+import de.md5lukas.maven.resolver.transport.Transport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the resolution of snapshot versions from <code>maven-metadata.xml</code> files, without the snapshot cache.
+ * <br><br>
+ * The <code>memory</code> transport only measures the parsing, the <code>http</code> transport also includes the requests to a local HTTP server.
+ * The resolver stops reading once it has found the snapshot element, so the metadata files are provided with the element before and after the list of
+ * snapshot versions, as different publishing tools write them in a different order.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotResolverBenchmark {
+
+    private static final Artifact ARTIFACT = new Artifact("de.md5lukas.maven", "resolver", "1.0.0-SNAPSHOT");
+
+    @Param({"memory", "http"})
+    public String transportType;
+
+    @Param({"snapshotFirst", "snapshotLast"})
+    public String layout;
+
+    @Param({"4", "200"})
+    public int snapshotVersions;
+
+    private HttpServer server;
+    private Transport transport;
+    private Repository repository;
+    private SnapshotResolver snapshotResolver;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        byte[] metadata = createMetadata("snapshotFirst".equals(layout), snapshotVersions);
+
+        if ("http".equals(transportType)) {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext("/", exchange -> {
+                exchange.sendResponseHeaders(200, metadata.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(metadata);
+                }
+            });
+            server.start();
+
+            repository = new Repository("local", "http://127.0.0.1:" + server.getAddress().getPort() + "/");
+            transport = new PooledTransport();
+        } else {
+            repository = new Repository("memory", "https://example.com/repository/");
+            InMemoryTransport inMemoryTransport = new InMemoryTransport();
+            inMemoryTransport.put(repository.createURL(ARTIFACT.getSnapshotMetadataPath()), metadata);
+            transport = inMemoryTransport;
+        }
+
+        // A ttl of zero disables the cache, so every invocation parses the metadata
+        snapshotResolver = new SnapshotResolver(new SimpleSnapshotCache(0), new MissCache(0), new ListenerSupport());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Benchmark
+    public String resolveSnapshotVersion() throws Exception {
+        return snapshotResolver.resolveSnapshotVersion(transport, repository, ARTIFACT);
+    }
+
+    private static byte[] createMetadata(boolean snapshotFirst, int snapshotVersions) {
+        String snapshot = "    <snapshot>\n"
+                + "      <timestamp>20201231.235959</timestamp>\n"
+                + "      <buildNumber>" + snapshotVersions + "</buildNumber>\n"
+                + "    </snapshot>\n";
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+                .append("<metadata modelVersion=\"1.1.0\">\n")
+                .append("  <groupId>").append(ARTIFACT.getGroupId()).append("</groupId>\n")
+                .append("  <artifactId>").append(ARTIFACT.getArtifactId()).append("</artifactId>\n")
+                .append("  <version>").append(ARTIFACT.getVersion()).append("</version>\n")
+                .append("  <versioning>\n");
+
+        if (snapshotFirst) {
+            sb.append(snapshot);
+        }
+
+        sb.append("    <lastUpdated>20201231235959</lastUpdated>\n")
+                .append("    <snapshotVersions>\n");
+        for (int i = 1; i <= snapshotVersions; i++) {
+            String[] extensions = {"jar", "pom"};
+            for (String extension : extensions) {
+                sb.append("      <snapshotVersion>\n")
+                        .append("        <extension>").append(extension).append("</extension>\n")
+                        .append("        <value>1.0.0-20201231.").append(String.format("%06d", i)).append('-').append(i).append("</value>\n")
+                        .append("        <updated>20201231235959</updated>\n")
+                        .append("      </snapshotVersion>\n");
+            }
+        }
+        sb.append("    </snapshotVersions>\n");
+
+        if (!snapshotFirst) {
+            sb.append(snapshot);
+        }
+
+        sb.append("  </versioning>\n")
+                .append("</metadata>\n");
+
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
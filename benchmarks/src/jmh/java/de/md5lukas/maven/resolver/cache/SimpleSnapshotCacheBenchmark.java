@@ -0,0 +1,82 @@
+package de.md5lukas.maven.resolver.cache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the snapshot cache while it is used by multiple threads. The amount of keys is larger than the maximum size of the cache, so entries are
+ * evicted continuously while the benchmark runs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimpleSnapshotCacheBenchmark {
+
+    @Param({"256", "1024"})
+    public int maxSize;
+
+    @Param({"2048"})
+    public int keyCount;
+
+    private SimpleSnapshotCache cache;
+    private String[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cache = new SimpleSnapshotCache(TimeUnit.HOURS.toMillis(1), maxSize);
+        keys = new String[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = "de.md5lukas.maven:artifact-" + i + ":1.0.0-SNAPSHOT";
+            cache.put(keys[i], "1.0.0-20201231.235959-" + i);
+        }
+    }
+
+    private String randomKey() {
+        return keys[ThreadLocalRandom.current().nextInt(keys.length)];
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String get() {
+        return cache.get(randomKey());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void put() {
+        cache.put(randomKey(), "1.0.0-20201231.235959-1");
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public String mixedGet() {
+        return cache.get(randomKey());
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void mixedPut() {
+        cache.put(randomKey(), "1.0.0-20201231.235959-1");
+    }
+}
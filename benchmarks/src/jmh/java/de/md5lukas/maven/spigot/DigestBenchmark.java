@@ -0,0 +1,61 @@
+package de.md5lukas.maven.spigot;
+
+import de.md5lukas.maven.resolver.MavenChecksum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures hashing the libraries, which happens for every library that has changed since it has been recorded in the integrity index
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DigestBenchmark {
+
+    @Param({"MD5", "SHA1", "SHA256", "SHA512"})
+    public MavenChecksum algorithm;
+
+    @Param({"65536", "1048576", "33554432"})
+    public int fileSize;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        byte[] content = new byte[fileSize];
+        new Random(42).nextBytes(content);
+
+        file = Files.createTempFile("maven-resolver-digest", ".jar");
+        Files.write(file, content);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public byte[] digestFile() throws IOException {
+        return Helpers.digestFile(file.toFile(), algorithm.getMessageDigest());
+    }
+}
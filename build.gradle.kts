@@ -1,3 +1,4 @@
 plugins {
     id("io.freefair.lombok") version "5.3.0" apply false
+    id("me.champeau.gradle.jmh") version "0.5.3" apply false
 }
\ No newline at end of file
@@ -31,6 +31,45 @@ tasks.withType<JavaCompile> {
     options.encoding = "UTF-8"
 }
 
+// Classes that replace their Java 8 counterparts on Java 11 and newer through the multi-release jar
+val java11: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+}
+
+tasks.named<JavaCompile>(java11.compileJavaTaskName) {
+    options.release.set(11)
+}
+
+// Tests of the Java 11 classes, which come before the Java 8 classes on the classpath like in the multi-release jar
+val java11Test: SourceSet by sourceSets.creating {
+    compileClasspath += java11.output + sourceSets.test.get().output + sourceSets.test.get().compileClasspath
+    runtimeClasspath = output + java11.output + sourceSets.test.get().runtimeClasspath
+}
+
+tasks.named<JavaCompile>(java11Test.compileJavaTaskName) {
+    options.release.set(11)
+}
+
+val testJava11 by tasks.registering(Test::class) {
+    description = "Runs the tests of the Java 11 classes."
+    group = "verification"
+    testClassesDirs = java11Test.output.classesDirs
+    classpath = java11Test.runtimeClasspath
+}
+
+tasks.check {
+    dependsOn(testJava11)
+}
+
+tasks.jar {
+    into("META-INF/versions/11") {
+        from(java11.output)
+    }
+    manifest {
+        attributes("Multi-Release" to "true")
+    }
+}
+
 tasks.withType<Javadoc> {
     with(options as StandardJavadocDocletOptions) {
         addStringOption("noqualifier", "all")
@@ -1,22 +1,81 @@
 package de.md5lukas.maven.resolver;
 
-import lombok.EqualsAndHashCode;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.ToString;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.lang.ref.WeakReference;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
 
 /**
  * An instance of this class describes a maven artifact in an undefined repository
+ * <br><br>
+ * Instances are immutable. The repository path, file name, "fuzzy id" and hash code are computed once when the artifact is created, so they can be
+ * used repeatedly while the artifact is looked up in multiple repositories.
  */
 @Getter
-@EqualsAndHashCode
-@ToString
+@ToString(of = {"groupId", "artifactId", "version", "classifier", "type"})
 public final class Artifact {
 
+    private static final Map<Artifact, WeakReference<Artifact>> INTERN_POOL = new WeakHashMap<>();
+    private static final Map<String, WeakReference<Artifact>> PARSED_COORDINATES = new WeakHashMap<>();
+
+    /**
+     * Parses the coordinates in the format <code>groupId:artifactId:version[:classifier][@type]</code> and returns the canonical instance for them.
+     * <br><br>
+     * If no type is given the default value <code>jar</code> is used
+     *
+     * @param coordinates The coordinates of the artifact
+     * @return The canonical artifact instance
+     * @throws IllegalArgumentException If the coordinates are malformed
+     * @see #intern()
+     */
+    @NotNull
+    public static Artifact parse(@NotNull @NonNull String coordinates) {
+        synchronized (INTERN_POOL) {
+            WeakReference<Artifact> reference = PARSED_COORDINATES.get(coordinates);
+            Artifact parsed = reference != null ? reference.get() : null;
+            if (parsed != null) {
+                return parsed;
+            }
+        }
+
+        Artifact parsed = parseCoordinates(coordinates).intern();
+        synchronized (INTERN_POOL) {
+            PARSED_COORDINATES.put(coordinates, new WeakReference<>(parsed));
+        }
+        return parsed;
+    }
+
+    @NotNull
+    private static Artifact parseCoordinates(@NotNull String coordinates) {
+        String type = "jar";
+        int typeSeparator = coordinates.lastIndexOf('@');
+        String gav = coordinates;
+        if (typeSeparator >= 0) {
+            type = coordinates.substring(typeSeparator + 1);
+            gav = coordinates.substring(0, typeSeparator);
+        }
+
+        String[] parts = gav.split(":", -1);
+        if (parts.length < 3 || parts.length > 4 || type.isEmpty()) {
+            throw new IllegalArgumentException("The coordinates " + coordinates + " are not in the format groupId:artifactId:version[:classifier][@type]");
+        }
+        for (int i = 0; i < 3; i++) {
+            if (parts[i].isEmpty()) {
+                throw new IllegalArgumentException("The coordinates " + coordinates + " contain an empty groupId, artifactId or version");
+            }
+        }
+
+        return new Artifact(parts[0], parts[1], parts[2], parts.length == 4 ? parts[3] : null, type);
+    }
+
     /**
      * The groupId that was provided at creation
      *
@@ -53,6 +112,44 @@ public final class Artifact {
     @NotNull
     private final String type;
 
+    private final boolean snapshot;
+
+    @Getter(AccessLevel.NONE)
+    @NotNull
+    private final String basePath;
+
+    @Getter(AccessLevel.NONE)
+    @Nullable
+    private final String path;
+
+    /**
+     * The filename of the artifact
+     *
+     * @return The filename of the artifact
+     */
+    @NotNull
+    private final String fileName;
+
+    /**
+     * A "fuzzy id" of the artifact only containing the <code>groupId</code>, <code>artifactId</code> and <code>version</code>.<br>
+     * This "fuzzy id" can be used for caching the repository of an artifact, tolerating changes to the <code>classifier</code> and/or <code>type</code>
+     *
+     * @return The "fuzzy id" of the artifact
+     */
+    @NotNull
+    private final String fuzzyId;
+
+    @Getter(AccessLevel.NONE)
+    private final int hashCode;
+
+    /**
+     * The checksum artifacts indexed by the ordinal of their algorithm, created when they are requested first. Racing threads may create the same
+     * checksum artifact twice, which is harmless because artifacts are immutable.
+     */
+    @Getter(AccessLevel.NONE)
+    @Nullable
+    private Artifact[] checksumArtifacts;
+
     /**
      * Creates a new maven artifact with the given properties describing its full location
      * <br><br>
@@ -76,6 +173,17 @@ public final class Artifact {
 
 
         this.type = type;
+
+        this.snapshot = version.toUpperCase(Locale.ROOT).endsWith("-SNAPSHOT");
+        this.basePath = groupId.replace('.', '/') + '/' + artifactId + '/' + version + '/';
+        this.fileName = appendFileName(new StringBuilder(), version).toString();
+        this.path = snapshot ? null : basePath + fileName;
+        this.fuzzyId = groupId + ':' + artifactId + ':' + version;
+        int hash = groupId.hashCode();
+        hash = 31 * hash + artifactId.hashCode();
+        hash = 31 * hash + version.hashCode();
+        hash = 31 * hash + (classifier != null ? classifier.hashCode() : 0);
+        this.hashCode = 31 * hash + type.hashCode();
     }
 
     /**
@@ -114,29 +222,71 @@ public final class Artifact {
      * @return If the artifact is a snapshot
      */
     public boolean isSnapshot() {
-        return version.toUpperCase(Locale.ROOT).endsWith("-SNAPSHOT");
+        return snapshot;
     }
 
     /**
-     * Creates a new artifact based on the coordinates of this artifact, appending the required suffix to the type to get the
-     * coordinates of the checksum artifact
+     * Gets an artifact based on the coordinates of this artifact, appending the required suffix to the type to get the
+     * coordinates of the checksum artifact. The artifact is created once per algorithm and reused afterwards.
      *
      * @param algorithm The hashing algorithm to get the artifact for
-     * @return A new artifact instance describing the coordinates to the artifact containing the checksum
+     * @return An artifact instance describing the coordinates to the artifact containing the checksum
      */
     public Artifact getChecksumArtifact(@NotNull @NonNull MavenChecksum algorithm) {
-        return new Artifact(groupId, artifactId, version, classifier, this.type + '.' + algorithm.getTypeSuffix());
+        Artifact[] artifacts = this.checksumArtifacts;
+        if (artifacts == null) {
+            artifacts = new Artifact[MavenChecksum.values().length];
+            this.checksumArtifacts = artifacts;
+        }
+
+        Artifact checksumArtifact = artifacts[algorithm.ordinal()];
+        if (checksumArtifact == null) {
+            checksumArtifact = new Artifact(groupId, artifactId, version, classifier, this.type + '.' + algorithm.getTypeSuffix());
+            artifacts[algorithm.ordinal()] = checksumArtifact;
+        }
+        return checksumArtifact;
     }
 
     /**
-     * Creates a "fuzzy id" of the artifact only containing the <code>groupId</code>, <code>artifactId</code> and <code>version</code>.<br>
-     * This "fuzzy id" can be used for caching the repository of an artifact, tolerating changes to the <code>classifier</code> and/or <code>type</code>
+     * Gets the canonical instance for the coordinates of this artifact. If no canonical instance exists yet, this instance becomes the canonical one.
+     * <br><br>
+     * Canonical instances are only held weakly, so they can be garbage collected once they are no longer used.
      *
-     * @return The "fuzzy id" of the artifact
+     * @return The canonical instance that is equal to this artifact
      */
     @NotNull
-    public String getFuzzyId() {
-        return groupId + ':' + artifactId + ':' + version;
+    public Artifact intern() {
+        synchronized (INTERN_POOL) {
+            WeakReference<Artifact> reference = INTERN_POOL.get(this);
+            Artifact canonical = reference != null ? reference.get() : null;
+            if (canonical == null) {
+                INTERN_POOL.put(this, new WeakReference<>(this));
+                canonical = this;
+            }
+            return canonical;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Artifact)) {
+            return false;
+        }
+        Artifact other = (Artifact) o;
+        return hashCode == other.hashCode
+                && groupId.equals(other.groupId)
+                && artifactId.equals(other.artifactId)
+                && version.equals(other.version)
+                && Objects.equals(classifier, other.classifier)
+                && type.equals(other.type);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
     }
 
     //<editor-fold desc="Path helpers">
@@ -150,15 +300,11 @@ public final class Artifact {
      */
     @NotNull
     public String getPath() {
-        if (isSnapshot()) {
+        if (path == null) {
             throw new IllegalStateException("This artifact is a snapshot artifact and doesn't have a normal path");
         }
-        StringBuilder path = new StringBuilder();
-
-        appendBasePath(path);
-        appendFileName(path, version);
 
-        return path.toString();
+        return path;
     }
 
     /**
@@ -174,12 +320,45 @@ public final class Artifact {
         if (!isSnapshot()) {
             throw new IllegalStateException("This artifact is not a snapshot artifact and doesn't have a snapshot path");
         }
-        StringBuilder path = new StringBuilder();
 
-        appendBasePath(path);
-        appendFileName(path, snapshotVersion);
+        return appendPath(new StringBuilder(basePath.length() + fileName.length() + 16), snapshotVersion).toString();
+    }
+
+    /**
+     * Appends the path for the artifact in a maven repository to the provided builder, expecting it to not have a snapshot version. No intermediate
+     * strings are created, so the same builder can be reused for multiple artifacts.
+     *
+     * @param stringBuilder The builder to append the path to
+     * @return The provided builder
+     * @throws IllegalStateException If this is a snapshot artifact
+     * @see #getPath()
+     */
+    @NotNull
+    public StringBuilder appendPath(@NotNull @NonNull StringBuilder stringBuilder) {
+        if (isSnapshot()) {
+            throw new IllegalStateException("This artifact is a snapshot artifact and doesn't have a normal path");
+        }
+
+        return stringBuilder.append(basePath).append(fileName);
+    }
+
+    /**
+     * Appends the path for the artifact in a maven repository to the provided builder, expecting it to have a snapshot version. No intermediate
+     * strings are created, so the same builder can be reused for multiple artifacts.
+     *
+     * @param stringBuilder   The builder to append the path to
+     * @param snapshotVersion The resolved <code>snapshotVersion</code> of the artifact
+     * @return The provided builder
+     * @throws IllegalStateException If this is not a snapshot artifact
+     * @see #getPath(String)
+     */
+    @NotNull
+    public StringBuilder appendPath(@NotNull @NonNull StringBuilder stringBuilder, @NotNull @NonNull String snapshotVersion) {
+        if (!isSnapshot()) {
+            throw new IllegalStateException("This artifact is not a snapshot artifact and doesn't have a snapshot path");
+        }
 
-        return path.toString();
+        return appendFileName(stringBuilder.append(basePath), snapshotVersion);
     }
 
     /**
@@ -193,32 +372,16 @@ public final class Artifact {
         if (!isSnapshot()) {
             throw new IllegalStateException("This artifact is not a snapshot artifact and doesn't have a snapshot metadata");
         }
-        StringBuilder path = new StringBuilder();
 
-        appendBasePath(path);
-
-        path.append("maven-metadata.xml");
-
-        return path.toString();
+        return basePath + "maven-metadata.xml";
     }
 
     /**
-     * Creates the filename for the artifact.
-     *
-     * @return The filename of the artifact
+     * Gets the path of the directory in the maven repository that contains all files of this artifact version
      */
     @NotNull
-    public String getFileName() {
-        return appendFileName(new StringBuilder(), version).toString();
-    }
-
-    private void appendBasePath(StringBuilder stringBuilder) {
-        for (String groupIdPart : groupId.split("\\.")) {
-            stringBuilder.append(groupIdPart).append('/');
-        }
-
-        stringBuilder.append(artifactId).append('/');
-        stringBuilder.append(version).append('/');
+    String getBasePath() {
+        return basePath;
     }
 
     private StringBuilder appendFileName(@NotNull StringBuilder stringBuilder, @NotNull String version) {
@@ -0,0 +1,57 @@
+package de.md5lukas.maven.resolver;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.jetbrains.annotations.NotNull;
+
+import java.net.URL;
+
+/**
+ * The location of an artifact that has been found in a repository, without its content
+ *
+ * @see ArtifactResolver#locateArtifactAsync(Artifact, java.util.concurrent.Executor)
+ */
+@Getter
+@ToString
+public final class ArtifactLocation {
+
+    /**
+     * The artifact that has been requested
+     *
+     * @return The artifact
+     */
+    @NotNull
+    private final Artifact artifact;
+
+    /**
+     * The repository the artifact has been found in
+     *
+     * @return The repository
+     */
+    @NotNull
+    private final Repository repository;
+
+    /**
+     * The version the artifact has been resolved to. For snapshot artifacts this is the concrete snapshot version, otherwise it is the same as the
+     * version of the artifact.
+     *
+     * @return The resolved version
+     */
+    @NotNull
+    private final String version;
+
+    /**
+     * The URL of the artifact
+     *
+     * @return The URL of the artifact
+     */
+    @NotNull
+    private final URL url;
+
+    ArtifactLocation(@NotNull Artifact artifact, @NotNull Repository repository, @NotNull String version, @NotNull URL url) {
+        this.artifact = artifact;
+        this.repository = repository;
+        this.version = version;
+        this.url = url;
+    }
+}
@@ -0,0 +1,23 @@
+package de.md5lukas.maven.resolver;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Reads the content of an artifact that has been opened as part of a batch
+ *
+ * @param <T> The type of the value the content is read into
+ * @see ArtifactResolver#readAllAsync(java.util.Collection, java.util.concurrent.Executor, ArtifactReader)
+ */
+@FunctionalInterface
+public interface ArtifactReader<T> {
+
+    /**
+     * Reads the content of the opened artifact. The artifact is closed by the resolver once this method returns.
+     *
+     * @param artifact The opened artifact
+     * @return The value read from the artifact, must not be <code>null</code>
+     * @throws Exception If the content could not be read
+     */
+    @NotNull
+    T read(@NotNull ResolvedArtifact artifact) throws Exception;
+}
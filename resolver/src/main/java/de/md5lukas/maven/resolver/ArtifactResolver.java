@@ -2,6 +2,13 @@ package de.md5lukas.maven.resolver;
 
 import de.md5lukas.maven.resolver.cache.SimpleSnapshotCache;
 import de.md5lukas.maven.resolver.cache.SnapshotCache;
+import de.md5lukas.maven.resolver.jfr.EventSpan;
+import de.md5lukas.maven.resolver.jfr.FlightRecorderEvents;
+import de.md5lukas.maven.resolver.listener.ResolutionListener;
+import de.md5lukas.maven.resolver.transport.Response;
+import de.md5lukas.maven.resolver.transport.Transport;
+import de.md5lukas.maven.resolver.transport.TransportFactory;
+import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
 import org.jetbrains.annotations.NotNull;
@@ -11,22 +18,83 @@ import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
 
 /**
  * Class that can resolve the URL of artifacts by searching for them in multiple repositories
+ * <br><br>
+ * Artifacts may be resolved from multiple threads at the same time, as long as no repositories are added while doing so
  */
 public final class ArtifactResolver {
 
+    /**
+     * The default time in milliseconds for which a repository is not asked again for an artifact it did not have
+     */
+    public static final long DEFAULT_NEGATIVE_CACHE_TTL = TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * The default amount of requests to a repository that have to fail in a row before the repository is skipped
+     */
+    public static final int DEFAULT_CIRCUIT_BREAKER_THRESHOLD = 3;
+
+    /**
+     * The default time in milliseconds for which a repository is skipped after too many requests to it have failed
+     */
+    public static final long DEFAULT_CIRCUIT_BREAKER_OPEN_TIME = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * The default maximum amount of requests that are sent to the same host at the same time by batch resolutions
+     */
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 4;
+
     @NotNull
     private final SnapshotResolver snapshotResolver;
 
     @NotNull
     private final Map<String, Repository> artifactToRepository;
 
+    @NotNull
+    private final MissCache missCache;
+
+    @NotNull
+    private final ListenerSupport listeners;
+
+    @NotNull
+    private final Map<Repository, CircuitBreaker> circuitBreakers;
+
+    @NotNull
+    private final Map<Artifact, CompletableFuture<URL>> inFlightResolutions;
+
+    private volatile int circuitBreakerThreshold = DEFAULT_CIRCUIT_BREAKER_THRESHOLD;
+
+    private volatile long circuitBreakerOpenNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_CIRCUIT_BREAKER_OPEN_TIME);
+
+    /**
+     * The maximum amount of requests that are sent to the same host at the same time by {@link #resolveAllAsync(Collection, Executor)} and
+     * {@link #readAllAsync(Collection, Executor, ArtifactReader)}. Values less than <code>1</code> are treated as <code>1</code>.
+     * <br><br>
+     * By default {@link #DEFAULT_MAX_CONNECTIONS_PER_HOST} is used
+     *
+     * @param maxConnectionsPerHost The maximum amount of concurrent requests per host
+     */
+    @Setter
+    private volatile int maxConnectionsPerHost = DEFAULT_MAX_CONNECTIONS_PER_HOST;
+
     /**
      * The artifact resolver checks the validity of URLs by sending a HTTP HEAD request and if that returns the status code 200 the url is deemed valid.
      * <br><br>
@@ -41,6 +109,51 @@ public final class ArtifactResolver {
     @NotNull
     private final List<Repository> repositories;
 
+    /**
+     * The statistics used to find artifacts faster. The outcome of every request to a repository is recorded in them.
+     * <br><br>
+     * They are only used where the repositories are asked one after another, which is the case for {@link #openArtifactAsync(Artifact, Executor)} and
+     * the batch resolutions. There the repository that most likely has the artifact is asked right away, together with the repositories that have
+     * been added before it, instead of waiting for all of them to miss first. The statistics never change which repository is chosen: if more than
+     * one repository has the artifact, the one that has been added first still wins.
+     * <br><br>
+     * By default no statistics are used and the repositories are asked strictly one after another
+     *
+     * @param repositoryStatistics The statistics to decide which repositories are asked first with or <code>null</code> to not use any
+     * @return The statistics that decide which repositories are asked first or <code>null</code>
+     * @see RepositoryStatistics
+     */
+    @Getter
+    @Setter
+    @Nullable
+    private volatile RepositoryStatistics repositoryStatistics;
+
+    /**
+     * The executor that is used by {@link #resolveArtifactURLAsync(Artifact)} and {@link #resolveArtifactURL(Artifact)} to check the repositories.
+     * <br><br>
+     * By default a shared pool of daemon threads is used
+     *
+     * @param executor The executor to check the repositories with
+     */
+    @Setter
+    @NotNull
+    @NonNull
+    private Executor executor = ResolverExecutor.getDefault();
+
+    /**
+     * The transport that is used for all requests to the repositories.
+     * <br><br>
+     * By default the transport created by {@link TransportFactory#createDefault()} is used
+     *
+     * @param transport The transport to send requests with
+     * @return The transport requests are sent with
+     */
+    @Getter
+    @Setter
+    @NotNull
+    @NonNull
+    private volatile Transport transport = TransportFactory.createDefault();
+
     /**
      * Creates a new artifact resolver instance using {@link SimpleSnapshotCache} as the cache with a TTL of 1 day
      */
@@ -63,8 +176,12 @@ public final class ArtifactResolver {
      * @param snapshotCache The snapshot cache implementation to use
      */
     public ArtifactResolver(@NotNull @NonNull SnapshotCache snapshotCache) {
-        this.snapshotResolver = new SnapshotResolver(snapshotCache);
-        this.artifactToRepository = new HashMap<>();
+        this.missCache = new MissCache(DEFAULT_NEGATIVE_CACHE_TTL);
+        this.listeners = new ListenerSupport();
+        this.snapshotResolver = new SnapshotResolver(snapshotCache, this.missCache, this.listeners);
+        this.artifactToRepository = new ConcurrentHashMap<>();
+        this.circuitBreakers = new ConcurrentHashMap<>();
+        this.inFlightResolutions = new ConcurrentHashMap<>();
         this.repositories = new ArrayList<>();
     }
 
@@ -77,12 +194,137 @@ public final class ArtifactResolver {
         this.repositories.add(repository);
     }
 
+    /**
+     * Adds a listener that is notified about the steps taken while resolving artifacts
+     *
+     * @param listener The listener to add
+     */
+    public void addListener(@NotNull @NonNull ResolutionListener listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener that has been added before
+     *
+     * @param listener The listener to remove
+     */
+    public void removeListener(@NotNull @NonNull ResolutionListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Gets a listener that forwards all events to the listeners that have been added to this resolver. This allows code that downloads and verifies the
+     * resolved artifacts to report its events to the same listeners.
+     *
+     * @return The forwarding listener
+     */
+    @NotNull
+    public ResolutionListener getListener() {
+        return this.listeners;
+    }
+
+    /**
+     * Sets the time for which a repository is not asked again for an artifact or snapshot metadata it answered with <code>404 Not Found</code>.
+     * <br><br>
+     * By default {@link #DEFAULT_NEGATIVE_CACHE_TTL} is used. A value of zero or less disables the negative cache and clears it.
+     *
+     * @param ttl The time in milliseconds
+     */
+    public void setNegativeCacheTTL(long ttl) {
+        this.missCache.setTTL(ttl);
+    }
+
+    /**
+     * Sets the amount of requests to a repository that have to fail in a row before the repository is skipped by all resolutions. Requests count as
+     * failed if no response has been received or the repository answered with a server error.
+     * <br><br>
+     * By default {@link #DEFAULT_CIRCUIT_BREAKER_THRESHOLD} is used. A value of zero or less disables the circuit breaker, so every repository is always
+     * asked.
+     *
+     * @param threshold The amount of failed requests
+     * @see RepositoryHealth
+     */
+    public void setCircuitBreakerThreshold(int threshold) {
+        this.circuitBreakerThreshold = threshold;
+    }
+
+    /**
+     * Sets the time for which a repository is skipped after too many requests to it have failed. Once the time has passed, a single request is sent to
+     * check whether the repository is available again.
+     * <br><br>
+     * By default {@link #DEFAULT_CIRCUIT_BREAKER_OPEN_TIME} is used
+     *
+     * @param openTime The time in milliseconds
+     */
+    public void setCircuitBreakerOpenTime(long openTime) {
+        this.circuitBreakerOpenNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, openTime));
+    }
+
+    /**
+     * Gets the health of the provided repository
+     *
+     * @param repository The repository to get the health of
+     * @return The current health of the repository
+     */
+    @NotNull
+    public RepositoryHealth getRepositoryHealth(@NotNull @NonNull Repository repository) {
+        return getCircuitBreaker(repository).getHealth(this.circuitBreakerOpenNanos);
+    }
+
+    /**
+     * Gets the health of all repositories in the order they have been added, for example to show which repositories are currently skipped
+     *
+     * @return The current health of all repositories
+     */
+    @NotNull
+    public List<RepositoryHealth> getRepositoryHealth() {
+        List<RepositoryHealth> health = new ArrayList<>(repositories.size());
+        for (Repository repository : repositories) {
+            health.add(getRepositoryHealth(repository));
+        }
+        return health;
+    }
+
+    /**
+     * Closes the circuit of the provided repository, so it is asked again on the next resolution regardless of its previous failures
+     *
+     * @param repository The repository to reset the health of
+     */
+    public void resetRepositoryHealth(@NotNull @NonNull Repository repository) {
+        CircuitBreaker circuitBreaker = circuitBreakers.get(repository);
+        if (circuitBreaker != null) {
+            circuitBreaker.reset();
+        }
+    }
+
+    /**
+     * Forgets all artifacts that repositories did not have, so they are asked again on the next resolution
+     */
+    public void invalidateNegativeCache() {
+        this.missCache.invalidate();
+    }
+
+    /**
+     * Forgets in which repositories the provided artifact could not be found, so they are asked again on the next resolution. This affects all files of
+     * the artifact version, regardless of their classifier and type.
+     *
+     * @param artifact The artifact to forget the misses of
+     */
+    public void invalidateNegativeCache(@NotNull @NonNull Artifact artifact) {
+        String basePath = artifact.getBasePath();
+        for (Repository repository : repositories) {
+            this.missCache.invalidate(repository, basePath);
+        }
+    }
+
     /**
      * Checks every repository for the artifact and returns a URL if it found one. If none of the repositories have the artifact then <code>null</code> is
      * returned.
      * <br><br>
      * If none of the repositories have the artifact, but while trying to access a repository and exception occurred, a new exception is created and all
      * other exception are added to that
+     * <br><br>
+     * This method blocks until {@link #resolveArtifactURLAsync(Artifact)} has completed
      *
      * @param artifact The artifact to try to resolve
      * @return The resolved URL or <code>null</code> if it could not be found
@@ -90,87 +332,598 @@ public final class ArtifactResolver {
      */
     @Nullable
     public URL resolveArtifactURL(@NotNull Artifact artifact) throws Exception {
-        if (repositories.isEmpty()) {
-            return null;
+        try {
+            return resolveArtifactURLAsync(artifact).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
         }
+    }
 
-        List<Exception> exceptions = new ArrayList<>();
+    /**
+     * Same as {@link #resolveArtifactURLAsync(Artifact, Executor)} using the executor that has been {@link #setExecutor(Executor) set} on this resolver
+     *
+     * @param artifact The artifact to try to resolve
+     * @return A future completing with the resolved URL or <code>null</code> if it could not be found
+     */
+    @NotNull
+    public CompletableFuture<URL> resolveArtifactURLAsync(@NotNull Artifact artifact) {
+        return resolveArtifactURLAsync(artifact, this.executor);
+    }
 
-        Repository lastRepository = artifactToRepository.get(artifact.getFuzzyId());
+    /**
+     * Checks every repository for the artifact at the same time using the provided executor.
+     * <br><br>
+     * The returned future completes with the URL of the first repository in priority order that has the artifact, which means that the repository that
+     * last contained the artifact is preferred and after that the repositories in the order they have been added, regardless of the
+     * {@link #setRepositoryStatistics(RepositoryStatistics) repository statistics}. Once a result has been determined all remaining checks are
+     * cancelled. If none of the repositories have the artifact the future completes with <code>null</code>.
+     * <br><br>
+     * If none of the repositories have the artifact, but while trying to access a repository and exception occurred, the future completes exceptionally
+     * with a new exception to which all other exceptions are added
+     * <br><br>
+     * If the same artifact is already being resolved by another caller, no new requests are sent and the returned future completes with the result of
+     * the resolution that is already in progress
+     *
+     * @param artifact The artifact to try to resolve
+     * @param executor The executor to run the repository checks on, if no resolution of the artifact is in progress
+     * @return A future completing with the resolved URL or <code>null</code> if it could not be found
+     */
+    @NotNull
+    public CompletableFuture<URL> resolveArtifactURLAsync(@NotNull @NonNull Artifact artifact, @NotNull @NonNull Executor executor) {
+        CompletableFuture<URL> pending = new CompletableFuture<>();
+        CompletableFuture<URL> inFlight = inFlightResolutions.putIfAbsent(artifact, pending);
+        if (inFlight != null) {
+            return share(inFlight);
+        }
 
-        if (lastRepository != null) {
-            try {
-                URL result = resolveArtifactURL(lastRepository, artifact);
-                if (result != null) {
-                    return result;
-                }
-            } catch (Exception e) {
-                exceptions.add(e);
+        // The entry is removed before the callers are notified, so a resolution started after completion is not answered with the old result
+        probeRepositories(artifact, executor, (repository, status) -> resolveArtifactURL(repository, artifact, status)).whenComplete((url, throwable) -> {
+            inFlightResolutions.remove(artifact, pending);
+            if (throwable != null) {
+                pending.completeExceptionally(throwable);
+            } else {
+                pending.complete(url);
+            }
+        });
+        return share(pending);
+    }
+
+    /**
+     * Creates a future that completes in the same way as the shared future, so one caller cancelling its future does not affect the other callers
+     */
+    @NotNull
+    private static <T> CompletableFuture<T> share(@NotNull CompletableFuture<T> shared) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        shared.whenComplete((value, throwable) -> {
+            if (throwable != null) {
+                future.completeExceptionally(throwable);
+            } else {
+                future.complete(value);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Same as {@link #openArtifactAsync(Artifact, Executor)} but blocks until the artifact has been opened, using the executor that has been
+     * {@link #setExecutor(Executor) set} on this resolver
+     *
+     * @param artifact The artifact to open
+     * @return The opened artifact or <code>null</code> if it could not be found
+     * @throws Exception If an exception occurred while trying to access the artifact
+     */
+    @Nullable
+    public ResolvedArtifact openArtifact(@NotNull Artifact artifact) throws Exception {
+        try {
+            return openArtifactAsync(artifact, this.executor).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Resolves the artifact and opens it for reading in one step, by sending a single HTTP GET request to a repository instead of checking the URL
+     * first and downloading it afterwards.
+     * <br><br>
+     * The repositories are asked in the same priority as in {@link #resolveArtifactURLAsync(Artifact, Executor)}. They are asked one after another,
+     * because every repository that has the artifact would start to send it in response to the request. The next repository is only asked once the
+     * previous one did not have the artifact or failed, so the artifact is usually only sent by the chosen repository. If
+     * {@link #setRepositoryStatistics(RepositoryStatistics) repository statistics} are set, the repository that most likely has the artifact is asked
+     * right away together with the repositories before it, which still win if they have the artifact too, and the responses that are not used are
+     * closed. The caller is responsible for closing the returned artifact.
+     * <br><br>
+     * Unlike resolved URLs, opened artifacts are never shared between concurrent callers, because their content can only be read once. The snapshot
+     * metadata needed to open them is still fetched only once.
+     *
+     * @param artifact The artifact to open
+     * @param executor The executor to send the requests on
+     * @return A future completing with the opened artifact or <code>null</code> if it could not be found
+     */
+    @NotNull
+    public CompletableFuture<ResolvedArtifact> openArtifactAsync(@NotNull @NonNull Artifact artifact, @NotNull @NonNull Executor executor) {
+        return probeRepositoriesInOrder(artifact, executor, (repository, status) -> openArtifact(repository, artifact, status), ResolvedArtifact::close);
+    }
+
+    /**
+     * Same as {@link #locateArtifactAsync(Artifact, Executor)} but blocks until the artifact has been located, using the executor that has been
+     * {@link #setExecutor(Executor) set} on this resolver
+     *
+     * @param artifact The artifact to locate
+     * @return The location of the artifact or <code>null</code> if it could not be found
+     * @throws Exception If an exception occurred while trying to access the artifact
+     */
+    @Nullable
+    public ArtifactLocation locateArtifact(@NotNull Artifact artifact) throws Exception {
+        try {
+            return locateArtifactAsync(artifact, this.executor).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
             }
+            throw e;
+        }
+    }
+
+    /**
+     * Finds the repository that has the artifact and the version it resolves to, without downloading it. The repositories are asked in the same way
+     * and priority as in {@link #resolveArtifactURLAsync(Artifact, Executor)}, using HTTP HEAD requests.
+     * <br><br>
+     * This should be used instead of {@link #openArtifactAsync(Artifact, Executor)} if the content of the artifact is already present and only its
+     * origin is needed.
+     *
+     * @param artifact The artifact to locate
+     * @param executor The executor to send the requests on
+     * @return A future completing with the location of the artifact or <code>null</code> if it could not be found
+     */
+    @NotNull
+    public CompletableFuture<ArtifactLocation> locateArtifactAsync(@NotNull @NonNull Artifact artifact, @NotNull @NonNull Executor executor) {
+        return probeRepositories(artifact, executor, (repository, status) -> locateArtifact(repository, artifact, status));
+    }
+
+    /**
+     * Same as {@link #resolveAllAsync(Collection, Executor)} but blocks until all artifacts have been resolved, using the executor that has been
+     * {@link #setExecutor(Executor) set} on this resolver
+     *
+     * @param artifacts The artifacts to resolve
+     * @return The results by artifact, in the order the artifacts have been provided in
+     * @throws InterruptedException If the thread has been interrupted while waiting for the results
+     */
+    @NotNull
+    public Map<Artifact, ArtifactResult<URL>> resolveAll(@NotNull Collection<Artifact> artifacts) throws InterruptedException {
+        try {
+            return resolveAllAsync(artifacts, this.executor).get();
+        } catch (ExecutionException e) {
+            // Failures are reported per artifact, even if the executor rejected the requests, so the batch itself does not fail
+            throw new IllegalStateException(e.getCause());
         }
+    }
+
+    /**
+     * Resolves the URLs of many artifacts at once, for example all dependencies of a plugin together with their checksum artifacts.
+     * <br><br>
+     * Duplicate artifacts are only resolved once. Every artifact asks the repositories one after another in the same way as
+     * {@link #openArtifactAsync(Artifact, Executor)} and stops at the first repository that has it, so repositories after that one are never asked.
+     * Different artifacts are resolved at the same time. The requests are queued by the host of the repository, so at most
+     * {@link #setMaxConnectionsPerHost(int) a limited amount} of requests are sent to the same host at the same time, which lets the transport reuse its
+     * pooled connections. Snapshot metadata is only fetched once for all artifacts of the same snapshot version.
+     * <br><br>
+     * The returned future never completes exceptionally because of a single artifact. Instead every result contains either the URL or the exception
+     * that occurred while resolving that artifact.
+     *
+     * @param artifacts The artifacts to resolve
+     * @param executor  The executor to send the requests on
+     * @return A future completing with the results by artifact, in the order the artifacts have been provided in
+     */
+    @NotNull
+    public CompletableFuture<Map<Artifact, ArtifactResult<URL>>> resolveAllAsync(@NotNull @NonNull Collection<Artifact> artifacts,
+                                                                                @NotNull @NonNull Executor executor) {
+        return probeAll(artifacts, executor, artifact -> (repository, status) -> resolveArtifactURL(repository, artifact, status));
+    }
+
+    /**
+     * Opens and reads many artifacts at once, asking the repositories in the same way as {@link #resolveAllAsync(Collection, Executor)}. Because every
+     * artifact stops at the first repository that has it, only a single HTTP GET request is sent per artifact and repository.
+     * <br><br>
+     * Every artifact is read by the reader as soon as it has been opened and closed right afterwards, so the connections to the repositories are
+     * released while the batch is still in progress. This is meant for small artifacts like checksums and POMs. If the reader fails, the failure is
+     * treated like a failure of the repository and the next repository is asked.
+     *
+     * @param artifacts The artifacts to read
+     * @param executor  The executor to send the requests on
+     * @param reader    The reader to read the content of every artifact with
+     * @param <T>       The type of the value the artifacts are read into
+     * @return A future completing with the results by artifact, in the order the artifacts have been provided in
+     */
+    @NotNull
+    public <T> CompletableFuture<Map<Artifact, ArtifactResult<T>>> readAllAsync(@NotNull @NonNull Collection<Artifact> artifacts,
+                                                                                @NotNull @NonNull Executor executor, @NotNull @NonNull ArtifactReader<T> reader) {
+        return probeAll(artifacts, executor, artifact -> (repository, status) -> {
+            ResolvedArtifact resolved = openArtifact(repository, artifact, status);
+            if (resolved == null) {
+                return null;
+            }
+            try (ResolvedArtifact closing = resolved) {
+                return reader.read(closing);
+            }
+        });
+    }
 
+    @NotNull
+    private <T> CompletableFuture<Map<Artifact, ArtifactResult<T>>> probeAll(@NotNull Collection<Artifact> artifacts, @NotNull Executor executor,
+                                                                             @NotNull Function<Artifact, RepositoryProbe<T>> probes) {
+        Set<Artifact> unique = new LinkedHashSet<>(artifacts);
+        Map<String, HostQueue> hostQueues = new HashMap<>();
         for (Repository repository : repositories) {
-            if (repository == lastRepository)
+            hostQueues.computeIfAbsent(getHostKey(repository), ignored -> new HostQueue(executor, this.maxConnectionsPerHost));
+        }
+
+        RepositoryStatistics statistics = this.repositoryStatistics;
+        List<CompletableFuture<ArtifactResult<T>>> results = new ArrayList<>(unique.size());
+        for (Artifact artifact : unique) {
+            if (repositories.isEmpty()) {
+                results.add(CompletableFuture.completedFuture(new ArtifactResult<>(artifact, null, null)));
                 continue;
+            }
+
+            RepositoryProbe<T> probe = probes.apply(artifact);
+            List<Repository> candidates = getCandidates(artifact);
+            CompletableFuture<T> result = probeCandidates(artifact, candidates, getProbedTogether(artifact, candidates, statistics), ignored -> {
+            }, (repository, done) -> {
+                CompletableFuture<T> value = new CompletableFuture<>();
+                try {
+                    hostQueues.get(getHostKey(repository)).submit(() -> {
+                        try {
+                            value.complete(done.isDone() ? null : runProbe(artifact, repository, probe, statistics));
+                        } catch (RuntimeException e) {
+                            value.completeExceptionally(e);
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    value.completeExceptionally(e);
+                }
+                return value;
+            });
+            // The result only fails with the exception that collects the failures of all candidates
+            results.add(result.handle((value, throwable) -> new ArtifactResult<>(artifact, value, (Exception) throwable)));
+        }
+
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            Map<Artifact, ArtifactResult<T>> map = new LinkedHashMap<>();
+            for (CompletableFuture<ArtifactResult<T>> result : results) {
+                ArtifactResult<T> artifactResult = result.join();
+                map.put(artifactResult.getArtifact(), artifactResult);
+            }
+            return map;
+        });
+    }
+
+    @NotNull
+    private static String getHostKey(@NotNull Repository repository) {
+        URL url = repository.getUrl();
+        return url.getHost() + ':' + (url.getPort() == -1 ? url.getDefaultPort() : url.getPort());
+    }
+
+    @NotNull
+    private static Exception createResolutionException(@NotNull List<Exception> exceptions) {
+        Exception e = new Exception("An error occurred while trying to resolve an URL for a maven artifact");
+        exceptions.forEach(e::addSuppressed);
+        return e;
+    }
+
+    /**
+     * Asks all candidates at the same time. The results of all probes are kept until the probes before them have completed, so this must only be
+     * used for probes whose results do not hold any resources.
+     */
+    @NotNull
+    private <T> CompletableFuture<T> probeRepositories(@NotNull Artifact artifact, @NotNull Executor executor, @NotNull RepositoryProbe<T> probe) {
+        if (repositories.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        List<Repository> candidates = getCandidates(artifact);
+        return probeCandidates(artifact, candidates, candidates.size(), ignored -> {
+        }, startProbe(artifact, executor, probe));
+    }
+
+    /**
+     * Asks the candidates one after another in priority order, so usually only the repository that is chosen sends a response body. If
+     * {@link #setRepositoryStatistics(RepositoryStatistics) repository statistics} are set, the candidates up to the one that most likely has the
+     * artifact are asked at the same time instead, and the results of the ones that are not chosen are passed to the discard action.
+     */
+    @NotNull
+    private <T> CompletableFuture<T> probeRepositoriesInOrder(@NotNull Artifact artifact, @NotNull Executor executor,
+                                                              @NotNull RepositoryProbe<T> probe, @NotNull Consumer<T> discard) {
+        if (repositories.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        List<Repository> candidates = getCandidates(artifact);
+        return probeCandidates(artifact, candidates, getProbedTogether(artifact, candidates, this.repositoryStatistics), discard,
+                startProbe(artifact, executor, probe));
+    }
+
+    @NotNull
+    private <T> ProbeStarter<T> startProbe(@NotNull Artifact artifact, @NotNull Executor executor, @NotNull RepositoryProbe<T> probe) {
+        RepositoryStatistics statistics = this.repositoryStatistics;
+        // Probes that have not started yet once a result has been determined are skipped
+        return (repository, result) -> CompletableFuture.supplyAsync(() -> result.isDone() ? null : runProbe(artifact, repository, probe, statistics),
+                executor);
+    }
+
+    /**
+     * Gets how many of the candidates are asked at the same time before the remaining ones are asked one after another. Without statistics only the
+     * first candidate is asked. Otherwise all candidates up to the one the statistics consider the most likely to have the artifact are asked, so that
+     * one does not have to wait for the candidates before it to miss, while the candidates before it still win if they have the artifact too.
+     */
+    private static int getProbedTogether(@NotNull Artifact artifact, @NotNull List<Repository> candidates, @Nullable RepositoryStatistics statistics) {
+        if (statistics == null) {
+            return 1;
+        }
+        return candidates.indexOf(statistics.order(candidates, artifact).get(0)) + 1;
+    }
+
+    /**
+     * Asks the candidates for the artifact and completes with the result of the first candidate in their order that has it
+     *
+     * @param together The amount of candidates that are asked right away, the remaining ones are only asked once all candidates before them missed
+     * @param discard  The action to release the results of candidates that have been asked right away but have not been chosen with
+     * @param starter  Starts the probe of a single candidate
+     */
+    @NotNull
+    private <T> CompletableFuture<T> probeCandidates(@NotNull Artifact artifact, @NotNull List<Repository> candidates, int together,
+                                                     @NotNull Consumer<T> discard, @NotNull ProbeStarter<T> starter) {
+        EventSpan resolution = FlightRecorderEvents.beginResolution(artifact);
+        CompletableFuture<T> result = new CompletableFuture<>();
+
+        List<CompletableFuture<T>> started = new ArrayList<>(together);
+        for (int i = 0; i < together; i++) {
+            started.add(starter.start(candidates.get(i), result));
+        }
+        IntFunction<CompletableFuture<T>> probes = index -> index < together ? started.get(index) : starter.start(candidates.get(index), result);
 
-            try {
-                URL result = resolveArtifactURL(repository, artifact);
+        result.whenComplete((winner, throwable) -> {
+            resolution.setOutcome(throwable != null ? EventSpan.OUTCOME_FAILED : winner != null ? EventSpan.OUTCOME_FOUND : EventSpan.OUTCOME_NOT_FOUND);
+            resolution.end();
+        });
 
-                if (result != null) {
-                    artifactToRepository.put(artifact.getFuzzyId(), repository);
-                    return result;
+        awaitProbe(artifact, candidates, probes, together, discard, 0, new ArrayList<>(), result, resolution);
+
+        return result;
+    }
+
+    @Nullable
+    private <T> T runProbe(@NotNull Artifact artifact, @NotNull Repository repository, @NotNull RepositoryProbe<T> probe,
+                           @Nullable RepositoryStatistics statistics) {
+        int threshold = this.circuitBreakerThreshold;
+        CircuitBreaker circuitBreaker = threshold > 0 ? getCircuitBreaker(repository) : null;
+        if (circuitBreaker != null && !circuitBreaker.tryAcquire(this.circuitBreakerOpenNanos)) {
+            listeners.onProbeRejected(artifact, repository);
+            throw new CompletionException(new RepositoryUnavailableException(repository,
+                    circuitBreaker.getHealth(this.circuitBreakerOpenNanos).getRetryInMillis()));
+        }
+
+        ProbeStatus status = new ProbeStatus();
+        EventSpan span = FlightRecorderEvents.beginProbe(artifact, repository);
+        long start = System.nanoTime();
+        listeners.onProbeStart(artifact, repository);
+        try {
+            T value = probe.probe(repository, status);
+            long duration = System.nanoTime() - start;
+            listeners.onProbeEnd(artifact, repository, status.statusCode, duration);
+
+            if (status.statusCode != ResolutionListener.NO_STATUS_CODE) {
+                if (statistics != null) {
+                    statistics.record(repository, artifact, value != null, duration);
                 }
-            } catch (Exception e) {
-                exceptions.add(e);
+                if (circuitBreaker != null) {
+                    if (status.statusCode >= HttpURLConnection.HTTP_INTERNAL_ERROR) {
+                        circuitBreaker.onFailure(threshold);
+                    } else {
+                        circuitBreaker.onSuccess();
+                    }
+                }
+            } else if (circuitBreaker != null) {
+                // Probes answered from the caches did not ask the repository
+                circuitBreaker.release();
+            }
+
+            span.setStatusCode(status.statusCode);
+            span.setOutcome(value != null ? EventSpan.OUTCOME_FOUND : EventSpan.OUTCOME_NOT_FOUND);
+            return value;
+        } catch (Exception e) {
+            long duration = System.nanoTime() - start;
+            listeners.onProbeFailed(artifact, repository, e, duration);
+            if (statistics != null) {
+                statistics.record(repository, artifact, false, duration);
+            }
+            if (circuitBreaker != null) {
+                circuitBreaker.onFailure(threshold);
             }
+
+            span.setStatusCode(status.statusCode);
+            span.setOutcome(EventSpan.OUTCOME_FAILED);
+            throw new CompletionException(e);
+        } finally {
+            span.end();
+        }
+    }
+
+    @NotNull
+    private CircuitBreaker getCircuitBreaker(@NotNull Repository repository) {
+        return circuitBreakers.computeIfAbsent(repository, CircuitBreaker::new);
+    }
+
+    @NotNull
+    private List<Repository> getCandidates(@NotNull Artifact artifact) {
+        Repository lastRepository = artifactToRepository.get(artifact.getFuzzyId());
+
+        if (lastRepository == null || !repositories.contains(lastRepository)) {
+            listeners.onRepositoryCacheMiss(artifact);
+            return new ArrayList<>(repositories);
         }
 
-        if (exceptions.isEmpty()) {
-            return null;
-        } else {
-            Exception e = new Exception("An error occurred while trying to resolve an URL for a maven artifact");
-            exceptions.forEach(e::addSuppressed);
-            throw e;
+        listeners.onRepositoryCacheHit(artifact, lastRepository);
+
+        List<Repository> candidates = new ArrayList<>(repositories.size());
+        candidates.add(lastRepository);
+        for (Repository repository : repositories) {
+            if (repository != lastRepository) {
+                candidates.add(repository);
+            }
         }
+        return candidates;
+    }
+
+    private <T> void awaitProbe(@NotNull Artifact artifact, @NotNull List<Repository> candidates, @NotNull IntFunction<CompletableFuture<T>> probes,
+                                int together, @NotNull Consumer<T> discard, int index, @NotNull List<Exception> exceptions,
+                                @NotNull CompletableFuture<T> result, @NotNull EventSpan resolution) {
+        if (index == candidates.size()) {
+            if (exceptions.isEmpty()) {
+                result.complete(null);
+            } else {
+                result.completeExceptionally(createResolutionException(exceptions));
+            }
+            return;
+        }
+
+        probes.apply(index).whenComplete((value, throwable) -> {
+            if (throwable != null) {
+                if (throwable instanceof CompletionException && throwable.getCause() instanceof Exception) {
+                    exceptions.add((Exception) throwable.getCause());
+                } else if (throwable instanceof Exception) {
+                    exceptions.add((Exception) throwable);
+                }
+            } else if (value != null) {
+                artifactToRepository.put(artifact.getFuzzyId(), candidates.get(index));
+                resolution.setRepository(candidates.get(index).getName());
+                result.complete(value);
+                // The candidates after the chosen one that have already been asked are not used
+                for (int i = index + 1; i < together; i++) {
+                    probes.apply(i).thenAccept(unused -> {
+                        if (unused != null) {
+                            discard.accept(unused);
+                        }
+                    });
+                }
+                return;
+            }
+
+            awaitProbe(artifact, candidates, probes, together, discard, index + 1, exceptions, result, resolution);
+        });
     }
 
     @Nullable
-    private URL resolveArtifactURL(@NotNull Repository repository, @NotNull Artifact artifact) throws Exception {
-        URL url;
+    private String resolveVersion(@NotNull Repository repository, @NotNull Artifact artifact, @NotNull ProbeStatus status) throws Exception {
         if (artifact.isSnapshot()) {
-            String snapshotVersion = snapshotResolver.resolveSnapshotVersion(repository, artifact);
-            if (snapshotVersion == null) {
+            return snapshotResolver.resolveSnapshotVersion(transport, repository, artifact, status);
+        } else {
+            return artifact.getVersion();
+        }
+    }
+
+    @NotNull
+    private URL createArtifactURL(@NotNull Repository repository, @NotNull Artifact artifact, @NotNull String version) {
+        return repository.createURL(artifact.isSnapshot() ? artifact.getPath(version) : artifact.getPath());
+    }
+
+    @Nullable
+    private ResolvedArtifact openArtifact(@NotNull Repository repository, @NotNull Artifact artifact, @NotNull ProbeStatus status) throws Exception {
+        String version = resolveVersion(repository, artifact, status);
+        if (version == null) {
+            return null;
+        }
+
+        URL url = createArtifactURL(repository, artifact, version);
+        if (missCache.isMiss(url)) {
+            return null;
+        }
+
+        Response response = transport.get(url);
+        boolean opened = false;
+        try {
+            int responseCode = response.getStatusCode();
+            status.statusCode = responseCode;
+
+            if (responseCode == HttpURLConnection.HTTP_NOT_FOUND) {
+                missCache.recordMiss(url);
+            }
+            if (responseCode != HttpURLConnection.HTTP_OK) {
                 return null;
             }
 
-            url = repository.createURL(artifact.getPath(snapshotVersion));
-        } else {
-            url = repository.createURL(artifact.getPath());
+            opened = true;
+            return new ResolvedArtifact(artifact, repository, version, url, response);
+        } finally {
+            if (!opened) {
+                response.close();
+            }
+        }
+    }
+
+    @Nullable
+    private URL resolveArtifactURL(@NotNull Repository repository, @NotNull Artifact artifact, @NotNull ProbeStatus status) throws Exception {
+        ArtifactLocation location = locateArtifact(repository, artifact, status);
+        return location != null ? location.getUrl() : null;
+    }
+
+    @Nullable
+    private ArtifactLocation locateArtifact(@NotNull Repository repository, @NotNull Artifact artifact, @NotNull ProbeStatus status) throws Exception {
+        String version = resolveVersion(repository, artifact, status);
+        if (version == null) {
+            return null;
         }
 
+        URL url = createArtifactURL(repository, artifact, version);
         if (checkURLValidity) {
-            boolean urlCheck = checkURL(url);
+            if (missCache.isMiss(url)) {
+                return null;
+            }
+
+            int responseCode = checkURL(url);
+            status.statusCode = responseCode;
 
-            if (!urlCheck) {
+            if (responseCode == HttpURLConnection.HTTP_NOT_FOUND) {
+                missCache.recordMiss(url);
+            }
+            if (responseCode != HttpURLConnection.HTTP_OK) {
                 return null;
             }
         }
 
-        return url;
+        return new ArtifactLocation(artifact, repository, version, url);
     }
 
-    private boolean checkURL(@NotNull URL url) throws IOException {
-        HttpURLConnection connection = null;
-        try {
-            connection = (HttpURLConnection) url.openConnection();
+    private int checkURL(@NotNull URL url) throws IOException {
+        try (Response response = transport.head(url)) {
+            return response.getStatusCode();
+        }
+    }
 
-            connection.setRequestMethod("HEAD");
+    @FunctionalInterface
+    private interface RepositoryProbe<T> {
+        @Nullable
+        T probe(@NotNull Repository repository, @NotNull ProbeStatus status) throws Exception;
+    }
 
-            return connection.getResponseCode() == HttpURLConnection.HTTP_OK;
-        } finally {
-            if (connection != null) {
-                connection.disconnect();
-            }
-        }
+    @FunctionalInterface
+    private interface ProbeStarter<T> {
+        /**
+         * Starts to ask the repository for the artifact
+         *
+         * @param repository The repository to ask
+         * @param result     The result of the whole resolution, which is already done if the probe is no longer needed
+         * @return A future completing with the result of the probe
+         */
+        @NotNull
+        CompletableFuture<T> start(@NotNull Repository repository, @NotNull CompletableFuture<T> result);
     }
 }
@@ -0,0 +1,56 @@
+package de.md5lukas.maven.resolver;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The result of a single artifact of a batch resolution
+ *
+ * @param <T> The type of the value the artifact has been resolved to
+ * @see ArtifactResolver#resolveAllAsync(java.util.Collection, java.util.concurrent.Executor)
+ */
+@Getter
+@ToString
+public final class ArtifactResult<T> {
+
+    /**
+     * The artifact that has been resolved
+     *
+     * @return The artifact
+     */
+    @NotNull
+    private final Artifact artifact;
+
+    /**
+     * The value the artifact has been resolved to
+     *
+     * @return The value or <code>null</code> if no repository has the artifact
+     */
+    @Nullable
+    private final T value;
+
+    /**
+     * The exception that occurred while resolving the artifact. All exceptions that occurred while asking the repositories are added to it.
+     *
+     * @return The exception or <code>null</code> if the artifact has been found or all repositories answered
+     */
+    @Nullable
+    private final Exception error;
+
+    ArtifactResult(@NotNull Artifact artifact, @Nullable T value, @Nullable Exception error) {
+        this.artifact = artifact;
+        this.value = value;
+        this.error = error;
+    }
+
+    /**
+     * Checks whether the artifact has been found in a repository
+     *
+     * @return <code>true</code> if the value is present
+     */
+    public boolean isFound() {
+        return value != null;
+    }
+}
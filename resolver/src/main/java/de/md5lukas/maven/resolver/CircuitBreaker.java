@@ -0,0 +1,99 @@
+package de.md5lukas.maven.resolver;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the failed requests to a single repository and decides whether the next request may be sent to it
+ *
+ * @see RepositoryHealth
+ */
+final class CircuitBreaker {
+
+    @NotNull
+    private final Repository repository;
+
+    @NotNull
+    private RepositoryHealth.State state = RepositoryHealth.State.CLOSED;
+
+    private int consecutiveFailures;
+    private long totalFailures;
+    private long rejectedRequests;
+    private long openedAt;
+
+    CircuitBreaker(@NotNull Repository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Checks whether a request may be sent. If the open time has passed, the circuit is half opened and only the caller of this method may send a
+     * request until its outcome has been reported.
+     *
+     * @return <code>true</code> if the request may be sent
+     */
+    synchronized boolean tryAcquire(long openNanos) {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAt >= openNanos) {
+                    state = RepositoryHealth.State.HALF_OPEN;
+                    return true;
+                }
+                break;
+            case HALF_OPEN:
+                break;
+        }
+        rejectedRequests++;
+        return false;
+    }
+
+    /**
+     * Reports that the repository has answered a request
+     */
+    synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        state = RepositoryHealth.State.CLOSED;
+    }
+
+    /**
+     * Reports that a request failed without an answer or with a server error
+     */
+    synchronized void onFailure(int threshold) {
+        consecutiveFailures++;
+        totalFailures++;
+
+        if (state == RepositoryHealth.State.HALF_OPEN || (state == RepositoryHealth.State.CLOSED && consecutiveFailures >= threshold)) {
+            state = RepositoryHealth.State.OPEN;
+            openedAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * Reports that an acquired request has not been sent, because the answer was already known from a cache
+     */
+    synchronized void release() {
+        if (state == RepositoryHealth.State.HALF_OPEN) {
+            // The open time has already passed, so the next request is the trial request
+            state = RepositoryHealth.State.OPEN;
+        }
+    }
+
+    /**
+     * Closes the circuit and forgets the consecutive failures
+     */
+    synchronized void reset() {
+        consecutiveFailures = 0;
+        state = RepositoryHealth.State.CLOSED;
+    }
+
+    @NotNull
+    synchronized RepositoryHealth getHealth(long openNanos) {
+        long retryIn = 0;
+        if (state == RepositoryHealth.State.OPEN) {
+            retryIn = Math.max(0, TimeUnit.NANOSECONDS.toMillis(openNanos - (System.nanoTime() - openedAt)));
+        }
+        return new RepositoryHealth(repository, state, consecutiveFailures, totalFailures, rejectedRequests, retryIn);
+    }
+}
@@ -0,0 +1,66 @@
+package de.md5lukas.maven.resolver;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the requests to a single host on an executor, with at most a fixed amount of them running at the same time. Requests that exceed the limit are
+ * queued and run in the order they have been submitted.
+ */
+final class HostQueue {
+
+    @NotNull
+    private final Executor executor;
+
+    private final int limit;
+
+    @NotNull
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+
+    @NotNull
+    private final AtomicInteger workers = new AtomicInteger();
+
+    HostQueue(@NotNull Executor executor, int limit) {
+        this.executor = executor;
+        this.limit = Math.max(1, limit);
+    }
+
+    void submit(@NotNull Runnable task) {
+        queue.add(task);
+        startWorkers();
+    }
+
+    private void startWorkers() {
+        while (!queue.isEmpty()) {
+            int current = workers.get();
+            if (current >= limit) {
+                return;
+            }
+            if (workers.compareAndSet(current, current + 1)) {
+                try {
+                    executor.execute(this::work);
+                } catch (RuntimeException e) {
+                    workers.decrementAndGet();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void work() {
+        try {
+            Runnable task;
+            while ((task = queue.poll()) != null) {
+                task.run();
+            }
+        } finally {
+            workers.decrementAndGet();
+            // A task may have been added after the queue has been found empty, but before this worker stopped
+            startWorkers();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package de.md5lukas.maven.resolver;
+
+import de.md5lukas.maven.resolver.listener.ResolutionListener;
+import org.jetbrains.annotations.NotNull;
+
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Listener that forwards all events to the registered listeners, ignoring exceptions thrown by them
+ */
+final class ListenerSupport implements ResolutionListener {
+
+    @NotNull
+    private final List<ResolutionListener> listeners = new CopyOnWriteArrayList<>();
+
+    void add(@NotNull ResolutionListener listener) {
+        listeners.add(listener);
+    }
+
+    void remove(@NotNull ResolutionListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void fire(@NotNull Consumer<ResolutionListener> event) {
+        for (ResolutionListener listener : listeners) {
+            try {
+                event.accept(listener);
+            } catch (RuntimeException ignored) {
+                // A broken listener must not break the resolution
+            }
+        }
+    }
+
+    @Override
+    public void onProbeStart(@NotNull Artifact artifact, @NotNull Repository repository) {
+        fire(listener -> listener.onProbeStart(artifact, repository));
+    }
+
+    @Override
+    public void onProbeEnd(@NotNull Artifact artifact, @NotNull Repository repository, int statusCode, long durationNanos) {
+        fire(listener -> listener.onProbeEnd(artifact, repository, statusCode, durationNanos));
+    }
+
+    @Override
+    public void onProbeFailed(@NotNull Artifact artifact, @NotNull Repository repository, @NotNull Exception exception, long durationNanos) {
+        fire(listener -> listener.onProbeFailed(artifact, repository, exception, durationNanos));
+    }
+
+    @Override
+    public void onProbeRejected(@NotNull Artifact artifact, @NotNull Repository repository) {
+        fire(listener -> listener.onProbeRejected(artifact, repository));
+    }
+
+    @Override
+    public void onRepositoryCacheHit(@NotNull Artifact artifact, @NotNull Repository repository) {
+        fire(listener -> listener.onRepositoryCacheHit(artifact, repository));
+    }
+
+    @Override
+    public void onRepositoryCacheMiss(@NotNull Artifact artifact) {
+        fire(listener -> listener.onRepositoryCacheMiss(artifact));
+    }
+
+    @Override
+    public void onSnapshotCacheHit(@NotNull Artifact artifact, @NotNull String snapshotVersion) {
+        fire(listener -> listener.onSnapshotCacheHit(artifact, snapshotVersion));
+    }
+
+    @Override
+    public void onSnapshotCacheMiss(@NotNull Artifact artifact, @NotNull Repository repository) {
+        fire(listener -> listener.onSnapshotCacheMiss(artifact, repository));
+    }
+
+    @Override
+    public void onDownloadComplete(@NotNull Artifact artifact, @NotNull URL url, long bytes, long durationNanos) {
+        fire(listener -> listener.onDownloadComplete(artifact, url, bytes, durationNanos));
+    }
+
+    @Override
+    public void onDownloadFailed(@NotNull Artifact artifact, @NotNull URL url, @NotNull Exception exception, long durationNanos) {
+        fire(listener -> listener.onDownloadFailed(artifact, url, exception, durationNanos));
+    }
+
+    @Override
+    public void onChecksumVerified(@NotNull Artifact artifact, @NotNull MavenChecksum algorithm, boolean valid, long durationNanos) {
+        fire(listener -> listener.onChecksumVerified(artifact, algorithm, valid, durationNanos));
+    }
+}
@@ -0,0 +1,61 @@
+package de.md5lukas.maven.resolver;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers URLs that a repository answered with a <code>404 Not Found</code> for a limited amount of time, so they don't get requested again
+ */
+final class MissCache {
+
+    @NotNull
+    private final Map<String, Long> misses = new ConcurrentHashMap<>();
+
+    private volatile long ttl;
+
+    MissCache(long ttl) {
+        this.ttl = ttl;
+    }
+
+    void setTTL(long ttl) {
+        this.ttl = ttl;
+        if (ttl <= 0) {
+            misses.clear();
+        }
+    }
+
+    boolean isMiss(@NotNull URL url) {
+        String key = url.toString();
+        Long validUntil = misses.get(key);
+
+        if (validUntil == null) {
+            return false;
+        }
+
+        if (System.currentTimeMillis() > validUntil) {
+            misses.remove(key, validUntil);
+            return false;
+        }
+
+        return true;
+    }
+
+    void recordMiss(@NotNull URL url) {
+        long ttl = this.ttl;
+        if (ttl > 0) {
+            misses.put(url.toString(), System.currentTimeMillis() + ttl);
+        }
+    }
+
+    void invalidate() {
+        misses.clear();
+    }
+
+    void invalidate(@NotNull Repository repository, @NotNull String basePath) {
+        String prefix = repository.createURL(basePath).toString();
+        misses.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+}
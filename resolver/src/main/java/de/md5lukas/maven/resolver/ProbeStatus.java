@@ -0,0 +1,11 @@
+package de.md5lukas.maven.resolver;
+
+import de.md5lukas.maven.resolver.listener.ResolutionListener;
+
+/**
+ * Holds the status code of the last request that has been sent while a repository is probed for an artifact
+ */
+final class ProbeStatus {
+
+    int statusCode = ResolutionListener.NO_STATUS_CODE;
+}
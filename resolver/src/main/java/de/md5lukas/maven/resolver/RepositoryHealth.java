@@ -0,0 +1,100 @@
+package de.md5lukas.maven.resolver;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The health of a repository as seen by the circuit breaker of an {@link ArtifactResolver} at the time it has been requested.
+ * <br><br>
+ * After too many requests to a repository have failed in a row, the circuit of the repository is opened and it is skipped by all resolutions without
+ * sending any request. Once the open time has passed, a single request is allowed through again. If it succeeds the circuit is closed, otherwise it is
+ * opened again.
+ *
+ * @see ArtifactResolver#setCircuitBreakerThreshold(int)
+ */
+@Getter
+@ToString
+public final class RepositoryHealth {
+
+    /**
+     * The repository this health belongs to
+     *
+     * @return The repository
+     */
+    @NotNull
+    private final Repository repository;
+
+    /**
+     * The state of the circuit of the repository
+     *
+     * @return The state of the circuit
+     */
+    @NotNull
+    private final State state;
+
+    /**
+     * The amount of requests that have failed in a row since the last successful request
+     *
+     * @return The amount of consecutive failures
+     */
+    private final int consecutiveFailures;
+
+    /**
+     * The amount of requests that have failed since the resolver has been created
+     *
+     * @return The amount of failures
+     */
+    private final long totalFailures;
+
+    /**
+     * The amount of requests that have been skipped because the circuit was open
+     *
+     * @return The amount of rejected requests
+     */
+    private final long rejectedRequests;
+
+    /**
+     * The time in milliseconds until a request is allowed through again, if the circuit is open
+     *
+     * @return The time until the next request is allowed or <code>0</code> if the circuit is not open
+     */
+    private final long retryInMillis;
+
+    RepositoryHealth(@NotNull Repository repository, @NotNull State state, int consecutiveFailures, long totalFailures, long rejectedRequests,
+                     long retryInMillis) {
+        this.repository = repository;
+        this.state = state;
+        this.consecutiveFailures = consecutiveFailures;
+        this.totalFailures = totalFailures;
+        this.rejectedRequests = rejectedRequests;
+        this.retryInMillis = retryInMillis;
+    }
+
+    /**
+     * Checks whether requests are currently sent to the repository
+     *
+     * @return <code>true</code> if the circuit is closed
+     */
+    public boolean isAvailable() {
+        return state == State.CLOSED;
+    }
+
+    /**
+     * The states of the circuit of a repository
+     */
+    public enum State {
+        /**
+         * Requests are sent to the repository as usual
+         */
+        CLOSED,
+        /**
+         * The repository is skipped without sending any request
+         */
+        OPEN,
+        /**
+         * A single request is sent to check whether the repository is available again, while all other requests are skipped
+         */
+        HALF_OPEN
+    }
+}
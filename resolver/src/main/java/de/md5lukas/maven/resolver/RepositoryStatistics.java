@@ -0,0 +1,255 @@
+package de.md5lukas.maven.resolver;
+
+import lombok.NonNull;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Learned latency and hit rate of the repositories, used by the {@link ArtifactResolver} to decide which repository to ask first, so artifacts are
+ * found faster.
+ * <br><br>
+ * For every repository an exponentially weighted moving average of the latency and the hit rate is kept, both for all artifacts of the repository and
+ * for each groupId prefix, which consists of the first two parts of the groupId. The statistics of the prefix are used once enough requests have been
+ * made for it, otherwise the statistics of the whole repository are used.
+ * <br><br>
+ * Repositories that have no statistics yet or usually have the requested artifacts keep the order they have been added in. Only repositories that
+ * rarely have the requested artifacts are moved behind them, ordered by their expected time to find the artifact. The first repository in that order
+ * is asked right away, together with the repositories that have been added before it. The statistics never change which repository is used if more
+ * than one has the artifact, see {@link ArtifactResolver#setRepositoryStatistics(RepositoryStatistics)}.
+ * <br><br>
+ * The statistics can be stored in a file, so they are still available after the application restarts. They are safe to be used by multiple threads at
+ * the same time.
+ */
+public final class RepositoryStatistics {
+
+    private static final String SEPARATOR = "\t";
+    private static final int RECORD_FIELDS = 5;
+    private static final String REPOSITORY_PREFIX = "";
+
+    private static final double SMOOTHING = 0.2;
+    private static final int MIN_SAMPLES = 3;
+    private static final double UNLIKELY_HIT_RATE = 0.1;
+    private static final double MIN_HIT_RATE = 0.01;
+
+    @NotNull
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * Creates new empty statistics
+     */
+    public RepositoryStatistics() {
+    }
+
+    /**
+     * Loads the statistics from the file if it exists. Malformed lines are skipped.
+     *
+     * @param file The file the statistics have been saved to
+     * @throws IOException If the file exists but could not be read
+     */
+    public void load(@NotNull @NonNull File file) throws IOException {
+        Path path = file.toPath();
+        if (!Files.exists(path)) {
+            return;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(SEPARATOR, -1);
+                if (fields.length != RECORD_FIELDS) {
+                    continue;
+                }
+
+                try {
+                    stats.put(createKey(fields[0], fields[1]), new Stats(
+                            Integer.parseInt(fields[2]),
+                            Double.parseDouble(fields[3]),
+                            Double.parseDouble(fields[4])
+                    ));
+                } catch (NumberFormatException ignored) {
+                    // The statistics are learned again
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the statistics into a temporary file first and then replaces the existing file with it
+     *
+     * @param file The file to save the statistics to
+     * @throws IOException If the file could not be written
+     */
+    public void save(@NotNull @NonNull File file) throws IOException {
+        Path path = file.toPath();
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+                Stats value = entry.getValue();
+                int samples;
+                double latency, hitRate;
+                synchronized (value) {
+                    samples = value.samples;
+                    latency = value.latencyNanos;
+                    hitRate = value.hitRate;
+                }
+
+                writer.write(String.join(SEPARATOR,
+                        entry.getKey(),
+                        Integer.toString(samples),
+                        Double.toString(latency),
+                        Double.toString(hitRate)
+                ));
+                writer.write('\n');
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Forgets all statistics
+     */
+    public void clear() {
+        stats.clear();
+    }
+
+    /**
+     * Records the outcome of a request to a repository
+     *
+     * @param repository    The repository that has been asked
+     * @param artifact      The artifact the repository has been asked for
+     * @param hit           Whether the repository had the artifact
+     * @param durationNanos How long the request took
+     */
+    void record(@NotNull Repository repository, @NotNull Artifact artifact, boolean hit, long durationNanos) {
+        String url = repository.getUrl().toString();
+        update(createKey(url, REPOSITORY_PREFIX), hit, durationNanos);
+        update(createKey(url, getPrefix(artifact.getGroupId())), hit, durationNanos);
+    }
+
+    /**
+     * Orders the repositories in the order they should be asked for the artifact
+     *
+     * @param repositories The repositories in the order they have been added
+     * @param artifact     The artifact to look for
+     * @return A new list with the repositories in the order they should be asked
+     */
+    @NotNull
+    List<Repository> order(@NotNull List<Repository> repositories, @NotNull Artifact artifact) {
+        String prefix = getPrefix(artifact.getGroupId());
+
+        List<Repository> ordered = new ArrayList<>(repositories.size());
+        List<Repository> unlikely = new ArrayList<>();
+        Map<Repository, Double> expectedCost = new HashMap<>();
+
+        for (Repository repository : repositories) {
+            Stats stats = getStats(repository, prefix);
+            if (stats == null || stats.getHitRate() >= UNLIKELY_HIT_RATE) {
+                ordered.add(repository);
+            } else {
+                unlikely.add(repository);
+                expectedCost.put(repository, stats.getLatencyNanos() / Math.max(stats.getHitRate(), MIN_HIT_RATE));
+            }
+        }
+
+        // The sort is stable, so repositories with the same expected cost keep their declared order
+        unlikely.sort(Comparator.comparingDouble(expectedCost::get));
+        ordered.addAll(unlikely);
+        return ordered;
+    }
+
+    /**
+     * Gets the statistics used to order the repository for artifacts with the provided groupId
+     *
+     * @return The statistics or <code>null</code> if not enough requests have been made yet
+     */
+    @Nullable
+    Stats getStats(@NotNull Repository repository, @NotNull String prefix) {
+        String url = repository.getUrl().toString();
+
+        Stats stats = this.stats.get(createKey(url, prefix));
+        if (stats != null && stats.getSamples() >= MIN_SAMPLES) {
+            return stats;
+        }
+
+        stats = this.stats.get(createKey(url, REPOSITORY_PREFIX));
+        if (stats != null && stats.getSamples() >= MIN_SAMPLES) {
+            return stats;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the first two parts of the groupId, for example <code>org.bukkit</code> for <code>org.bukkit.plugin</code>
+     */
+    @NotNull
+    static String getPrefix(@NotNull String groupId) {
+        int first = groupId.indexOf('.');
+        if (first == -1) {
+            return groupId;
+        }
+        int second = groupId.indexOf('.', first + 1);
+        return second == -1 ? groupId : groupId.substring(0, second);
+    }
+
+    private void update(@NotNull String key, boolean hit, long durationNanos) {
+        Stats stats = this.stats.computeIfAbsent(key, ignored -> new Stats(0, 0, 0));
+        synchronized (stats) {
+            if (stats.samples == 0) {
+                stats.latencyNanos = durationNanos;
+                stats.hitRate = hit ? 1 : 0;
+            } else {
+                stats.latencyNanos += SMOOTHING * (durationNanos - stats.latencyNanos);
+                stats.hitRate += SMOOTHING * ((hit ? 1 : 0) - stats.hitRate);
+            }
+            if (stats.samples < Integer.MAX_VALUE) {
+                stats.samples++;
+            }
+        }
+    }
+
+    @NotNull
+    private static String createKey(@NotNull String url, @NotNull String prefix) {
+        return url + SEPARATOR + prefix;
+    }
+
+    static final class Stats {
+
+        private int samples;
+        private double latencyNanos;
+        private double hitRate;
+
+        private Stats(int samples, double latencyNanos, double hitRate) {
+            this.samples = samples;
+            this.latencyNanos = latencyNanos;
+            this.hitRate = hitRate;
+        }
+
+        synchronized int getSamples() {
+            return samples;
+        }
+
+        synchronized double getLatencyNanos() {
+            return latencyNanos;
+        }
+
+        synchronized double getHitRate() {
+            return hitRate;
+        }
+    }
+}
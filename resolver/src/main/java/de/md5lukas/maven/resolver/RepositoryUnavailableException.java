@@ -0,0 +1,28 @@
+package de.md5lukas.maven.resolver;
+
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Thrown instead of sending a request to a repository whose circuit is open, because too many requests to it have failed in a row
+ *
+ * @see RepositoryHealth
+ */
+public class RepositoryUnavailableException extends IOException {
+
+    /**
+     * The repository that has been skipped
+     *
+     * @return The repository
+     */
+    @Getter
+    @NotNull
+    private final transient Repository repository;
+
+    RepositoryUnavailableException(@NotNull Repository repository, long retryInMillis) {
+        super("The repository " + repository.getName() + " is unavailable after too many failed requests, retrying in " + retryInMillis + "ms");
+        this.repository = repository;
+    }
+}
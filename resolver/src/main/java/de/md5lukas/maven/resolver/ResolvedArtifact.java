@@ -0,0 +1,108 @@
+package de.md5lukas.maven.resolver;
+
+import de.md5lukas.maven.resolver.transport.Response;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.ToString;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+
+/**
+ * An artifact that has been found in a repository and whose content is ready to be read.
+ * <br><br>
+ * The instance must be closed after it has been used to release the connection to the repository
+ */
+@Getter
+@ToString(exclude = "response")
+public final class ResolvedArtifact implements Closeable {
+
+    /**
+     * The artifact that has been requested
+     *
+     * @return The artifact
+     */
+    @NotNull
+    private final Artifact artifact;
+
+    /**
+     * The repository the artifact has been found in
+     *
+     * @return The repository
+     */
+    @NotNull
+    private final Repository repository;
+
+    /**
+     * The version the artifact has been resolved to. For snapshot artifacts this is the concrete snapshot version, otherwise it is the same as the
+     * version of the artifact.
+     *
+     * @return The resolved version
+     */
+    @NotNull
+    private final String version;
+
+    /**
+     * The URL the artifact is read from
+     *
+     * @return The URL of the artifact
+     */
+    @NotNull
+    private final URL url;
+
+    @Getter(AccessLevel.NONE)
+    @NotNull
+    private final Response response;
+
+    ResolvedArtifact(@NotNull Artifact artifact, @NotNull Repository repository, @NotNull String version, @NotNull URL url,
+                     @NotNull Response response) {
+        this.artifact = artifact;
+        this.repository = repository;
+        this.version = version;
+        this.url = url;
+        this.response = response;
+    }
+
+    /**
+     * Gets the content of the artifact. The stream can only be read once.
+     *
+     * @return The stream containing the content of the artifact
+     * @throws IOException If the stream could not be opened
+     */
+    @NotNull
+    public InputStream getInputStream() throws IOException {
+        return response.getBody();
+    }
+
+    /**
+     * Gets the size of the artifact as reported by the repository
+     *
+     * @return The size in bytes or <code>-1</code> if it is not known
+     */
+    public long getContentLength() {
+        return response.getContentLength();
+    }
+
+    /**
+     * Gets a header of the response of the repository, ignoring the case of its name
+     *
+     * @param name The name of the header
+     * @return The value of the header or <code>null</code> if it is not present
+     */
+    @Nullable
+    public String getHeader(@NotNull String name) {
+        return response.getHeader(name);
+    }
+
+    /**
+     * Closes the connection to the repository. Any content that has not been read yet is discarded.
+     */
+    @Override
+    public void close() {
+        response.close();
+    }
+}
@@ -0,0 +1,37 @@
+package de.md5lukas.maven.resolver;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class ResolverExecutor {
+
+    @Nullable
+    private static ExecutorService defaultExecutor = null;
+
+    /**
+     * Gets the shared executor that is used by artifact resolvers if none has been provided.
+     * <br><br>
+     * The executor uses daemon threads which are discarded after being idle for a minute, so it does not prevent the JVM from shutting down
+     *
+     * @return The shared default executor
+     */
+    @NotNull
+    static synchronized ExecutorService getDefault() {
+        if (defaultExecutor == null) {
+            AtomicInteger counter = new AtomicInteger();
+            defaultExecutor = Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "maven-resolver-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return defaultExecutor;
+    }
+}
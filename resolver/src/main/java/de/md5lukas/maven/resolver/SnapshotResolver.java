@@ -1,6 +1,11 @@
 package de.md5lukas.maven.resolver;
 
 import de.md5lukas.maven.resolver.cache.SnapshotCache;
+import de.md5lukas.maven.resolver.jfr.EventSpan;
+import de.md5lukas.maven.resolver.jfr.FlightRecorderEvents;
+import de.md5lukas.maven.resolver.listener.ResolutionListener;
+import de.md5lukas.maven.resolver.transport.Response;
+import de.md5lukas.maven.resolver.transport.Transport;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -10,6 +15,11 @@ import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.events.StartElement;
 import javax.xml.stream.events.XMLEvent;
 import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 
 final class SnapshotResolver {
 
@@ -19,7 +29,7 @@ final class SnapshotResolver {
     private static final int SNAPSHOT_SUFFIX_LENGTH = "-SNAPSHOT".length();
 
     @NotNull
-    private static XMLInputFactory getXMLInputFactory() {
+    private static synchronized XMLInputFactory getXMLInputFactory() {
         if (xmlInputFactory == null) {
             xmlInputFactory = XMLInputFactory.newInstance();
         }
@@ -33,31 +43,103 @@ final class SnapshotResolver {
     @NotNull
     private final SnapshotCache snapshotCache;
 
-    public SnapshotResolver(@NotNull SnapshotCache snapshotCache) {
+    @NotNull
+    private final MissCache missCache;
+
+    @NotNull
+    private final ResolutionListener listener;
+
+    /**
+     * The metadata fetches that are in progress by their URL, so concurrent resolutions of the same snapshot share one request
+     */
+    @NotNull
+    private final Map<String, CompletableFuture<String>> inFlightFetches;
+
+    public SnapshotResolver(@NotNull SnapshotCache snapshotCache, @NotNull MissCache missCache, @NotNull ResolutionListener listener) {
         this.snapshotCache = snapshotCache;
+        this.missCache = missCache;
+        this.listener = listener;
+        this.inFlightFetches = new ConcurrentHashMap<>();
+    }
+
+    @Nullable
+    public String resolveSnapshotVersion(@NotNull Transport transport, @NotNull Repository repository, @NotNull Artifact artifact) throws Exception {
+        return resolveSnapshotVersion(transport, repository, artifact, null);
     }
 
     @Nullable
-    public String resolveSnapshotVersion(@NotNull Repository repository, @NotNull Artifact artifact) throws Exception {
+    String resolveSnapshotVersion(@NotNull Transport transport, @NotNull Repository repository, @NotNull Artifact artifact, @Nullable ProbeStatus status)
+            throws Exception {
         String id = artifact.getFuzzyId();
 
         String snapshotVersion = snapshotCache.get(id);
         if (snapshotVersion != null) {
+            listener.onSnapshotCacheHit(artifact, snapshotVersion);
             return snapshotVersion;
         }
 
-        XMLEventReader reader = null;
+        URL metadataURL = repository.createURL(artifact.getSnapshotMetadataPath());
+        if (missCache.isMiss(metadataURL)) {
+            return null;
+        }
+
+        String key = metadataURL.toString();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> inFlight = inFlightFetches.putIfAbsent(key, pending);
+        if (inFlight != null) {
+            // Another caller is already fetching the same metadata and reports the request
+            return await(inFlight);
+        }
+
+        listener.onSnapshotCacheMiss(artifact, repository);
+
         try {
-            HttpURLConnection connection = (HttpURLConnection) repository.createURL(artifact.getSnapshotMetadataPath()).openConnection();
+            String version = fetchSnapshotVersion(transport, repository, artifact, metadataURL, status);
+            inFlightFetches.remove(key, pending);
+            pending.complete(version);
+            return version;
+        } catch (Throwable t) {
+            inFlightFetches.remove(key, pending);
+            pending.completeExceptionally(t);
+            throw t;
+        }
+    }
 
-            connection.connect();
+    @Nullable
+    private static String await(@NotNull CompletableFuture<String> inFlight) throws Exception {
+        try {
+            return inFlight.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
 
-            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
-                connection.disconnect();
+    @Nullable
+    private String fetchSnapshotVersion(@NotNull Transport transport, @NotNull Repository repository, @NotNull Artifact artifact, @NotNull URL metadataURL,
+                                        @Nullable ProbeStatus status) throws Exception {
+        String id = artifact.getFuzzyId();
+        XMLEventReader reader = null;
+        EventSpan span = FlightRecorderEvents.beginSnapshotMetadata(artifact, repository);
+        // Replaced once the metadata has been read, so errors while reading it are recorded as well
+        span.setOutcome(EventSpan.OUTCOME_FAILED);
+        try (Response response = transport.get(metadataURL)) {
+            if (status != null) {
+                status.statusCode = response.getStatusCode();
+            }
+            span.setStatusCode(response.getStatusCode());
+            if (response.getStatusCode() != HttpURLConnection.HTTP_OK) {
+                if (response.getStatusCode() == HttpURLConnection.HTTP_NOT_FOUND) {
+                    missCache.recordMiss(metadataURL);
+                }
+                span.setOutcome(EventSpan.OUTCOME_NOT_FOUND);
                 return null;
             }
 
-            reader = getXMLInputFactory().createXMLEventReader(connection.getInputStream());
+            reader = getXMLInputFactory().createXMLEventReader(response.getBody());
 
             String timestamp = null, buildNumber = null;
 
@@ -83,11 +165,13 @@ final class SnapshotResolver {
                 }
             }
 
-            snapshotVersion = removeSnapshotSuffix(artifact.getVersion()) + '-' + timestamp + '-' + buildNumber;
+            String snapshotVersion = removeSnapshotSuffix(artifact.getVersion()) + '-' + timestamp + '-' + buildNumber;
             snapshotCache.put(id, snapshotVersion);
+            span.setOutcome(EventSpan.OUTCOME_FOUND);
 
             return snapshotVersion;
         } finally {
+            span.end();
             if (reader != null) {
                 try {
                     reader.close();
@@ -0,0 +1,173 @@
+package de.md5lukas.maven.resolver.cache;
+
+import lombok.NonNull;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Implementation of the SnapshotCache interface that persists the cache entries in a file, so they survive restarts of the application.
+ * <br><br>
+ * Every new entry is appended to the file as a single line and the file is loaded completely when the cache is created. Once the file contains a lot
+ * more lines than valid entries, because entries have been replaced or expired, it is compacted by rewriting only the valid entries to a new file
+ * that replaces the old one.
+ * <br><br>
+ * If the file cannot be written to, the entries are still cached in memory. All operations are synchronized on the cache instance.
+ */
+public class FileSnapshotCache implements SnapshotCache {
+
+    private static final char SEPARATOR = '\t';
+    private static final int COMPACTION_MIN_LINES = 32;
+
+    private final long ttl;
+
+    @NotNull
+    private final Path file;
+
+    @NotNull
+    private final Map<String, CacheEntry> map;
+
+    private int lines;
+
+    /**
+     * Creates a new instance of the file snapshot cache using the provided file and ttl and loads the entries that are still valid from it
+     *
+     * @param file The file the cache entries are stored in
+     * @param ttl  The ttl of the cache entries in milliseconds
+     * @throws IOException If the file exists but could not be read
+     */
+    public FileSnapshotCache(@NotNull @NonNull File file, long ttl) throws IOException {
+        this.ttl = ttl;
+        this.file = file.toPath();
+        this.map = new HashMap<>();
+
+        if (Files.exists(this.file)) {
+            load();
+        }
+    }
+
+    @Override
+    public synchronized void put(@NotNull String fuzzyId, @NotNull String snapshotVersion) {
+        if (ttl <= 0)
+            return;
+        CacheEntry entry = new CacheEntry(snapshotVersion, System.currentTimeMillis() + ttl);
+        map.put(fuzzyId, entry);
+
+        try {
+            if (lines >= COMPACTION_MIN_LINES && lines >= map.size() * 2) {
+                compact();
+            } else {
+                try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    writeEntry(writer, fuzzyId, entry);
+                }
+                lines++;
+            }
+        } catch (IOException ignored) {
+            // The entry is still available in memory
+        }
+    }
+
+    @Override
+    @Nullable
+    public synchronized String get(String fuzzyId) {
+        CacheEntry cacheEntry = map.get(fuzzyId);
+
+        if (cacheEntry == null) {
+            return null;
+        }
+
+        if (System.currentTimeMillis() > cacheEntry.validUntil) {
+            map.remove(fuzzyId);
+            return null;
+        }
+
+        return cacheEntry.snapshotVersion;
+    }
+
+    private void load() throws IOException {
+        long now = System.currentTimeMillis();
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines++;
+
+                int first = line.indexOf(SEPARATOR);
+                int second = line.indexOf(SEPARATOR, first + 1);
+                if (first <= 0 || second <= first + 1 || second == line.length() - 1) {
+                    continue;
+                }
+
+                long validUntil;
+                try {
+                    validUntil = Long.parseLong(line.substring(0, first));
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+
+                String fuzzyId = line.substring(first + 1, second);
+                if (now > validUntil) {
+                    map.remove(fuzzyId);
+                } else {
+                    map.put(fuzzyId, new CacheEntry(line.substring(second + 1), validUntil));
+                }
+            }
+        }
+
+        if (lines >= COMPACTION_MIN_LINES && lines >= map.size() * 2) {
+            try {
+                compact();
+            } catch (IOException ignored) {
+                // Compaction is retried on the next put
+            }
+        }
+    }
+
+    private void compact() throws IOException {
+        long now = System.currentTimeMillis();
+        map.values().removeIf(entry -> now > entry.validUntil);
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, CacheEntry> entry : map.entrySet()) {
+                writeEntry(writer, entry.getKey(), entry.getValue());
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        lines = map.size();
+    }
+
+    private static void writeEntry(@NotNull Writer writer, @NotNull String fuzzyId, @NotNull CacheEntry entry) throws IOException {
+        writer.write(Long.toString(entry.validUntil));
+        writer.write(SEPARATOR);
+        writer.write(fuzzyId);
+        writer.write(SEPARATOR);
+        writer.write(entry.snapshotVersion);
+        writer.write('\n');
+    }
+
+    private static final class CacheEntry {
+
+        @NotNull
+        private final String snapshotVersion;
+        private final long validUntil;
+
+        private CacheEntry(@NotNull String snapshotVersion, long validUntil) {
+            this.snapshotVersion = snapshotVersion;
+            this.validUntil = validUntil;
+        }
+    }
+}
@@ -3,37 +3,89 @@ package de.md5lukas.maven.resolver.cache;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Very basic implementation of the SnapshotCache interface allowing this library to work without any external dependencies
+ * <br><br>
+ * The cache is safe to be used by multiple threads at the same time and holds at most a fixed amount of entries. If that amount is exceeded, the least
+ * recently used entries are evicted, based on a sample of the entries. Instead of looking through all entries on every insertion, every insertion checks
+ * only a small batch of entries for their expiry, continuing where the previous insertion stopped.
  */
 public class SimpleSnapshotCache implements SnapshotCache {
 
+    /**
+     * The maximum amount of entries used if none has been provided
+     */
+    public static final int DEFAULT_MAX_SIZE = 1024;
+
+    private static final int SWEEP_BATCH_SIZE = 8;
+    private static final int EVICTION_SAMPLE_SIZE = 8;
+
     private final long ttl;
 
+    private final int maxSize;
+
     @NotNull
     private final Map<String, CacheEntry> map;
 
+    @NotNull
+    private final ReentrantLock cursorLock;
+
+    @Nullable
+    private Iterator<Map.Entry<String, CacheEntry>> cursor;
+
     /**
-     * Creates a new instance of the simple snapshot cache using the provided ttl
+     * Creates a new instance of the simple snapshot cache using the provided ttl and {@link #DEFAULT_MAX_SIZE} as the maximum amount of entries
      *
      * @param ttl The ttl of the cache entries in milliseconds
      */
     public SimpleSnapshotCache(long ttl) {
+        this(ttl, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a new instance of the simple snapshot cache using the provided ttl and maximum amount of entries
+     *
+     * @param ttl     The ttl of the cache entries in milliseconds
+     * @param maxSize The maximum amount of entries in the cache
+     * @throws IllegalArgumentException If the maximum size is less than one
+     */
+    public SimpleSnapshotCache(long ttl, int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("The maximum size of the cache must be at least one");
+        }
         this.ttl = ttl;
-        map = new HashMap<>();
+        this.maxSize = maxSize;
+        this.map = new ConcurrentHashMap<>();
+        this.cursorLock = new ReentrantLock();
     }
 
     @Override
     public void put(@NotNull String fuzzyId, @NotNull String snapshotVersion) {
-        sweep();
         if (ttl <= 0)
             return;
         map.put(fuzzyId, new CacheEntry(snapshotVersion));
+
+        if (map.size() > maxSize) {
+            cursorLock.lock();
+            try {
+                while (map.size() > maxSize) {
+                    evict();
+                }
+            } finally {
+                cursorLock.unlock();
+            }
+        } else if (cursorLock.tryLock()) {
+            try {
+                sweep();
+            } finally {
+                cursorLock.unlock();
+            }
+        }
     }
 
     @Override
@@ -45,28 +97,80 @@ public class SimpleSnapshotCache implements SnapshotCache {
             return null;
         }
 
-        if (System.currentTimeMillis() > cacheEntry.validUntil) {
-            map.remove(fuzzyId);
+        long now = System.currentTimeMillis();
+        if (now > cacheEntry.validUntil) {
+            map.remove(fuzzyId, cacheEntry);
             return null;
         }
 
+        cacheEntry.lastAccess = System.nanoTime();
         return cacheEntry.snapshotVersion;
     }
 
+    /**
+     * Gets the amount of entries in the cache, including entries that have expired but have not been removed yet
+     *
+     * @return The amount of entries
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * Checks the next batch of entries for their expiry. Must be called while holding the cursor lock
+     */
     private void sweep() {
-        List<String> remove = new ArrayList<>();
+        long now = System.currentTimeMillis();
+
+        for (int i = 0; i < SWEEP_BATCH_SIZE; i++) {
+            Map.Entry<String, CacheEntry> entry = nextEntry();
+            if (entry == null) {
+                return;
+            }
+            if (now > entry.getValue().validUntil) {
+                map.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
 
+    /**
+     * Removes an expired entry or the least recently used one from a sample of the entries. Must be called while holding the cursor lock
+     */
+    private void evict() {
         long now = System.currentTimeMillis();
+        Map.Entry<String, CacheEntry> candidate = null;
 
-        for (Map.Entry<String, CacheEntry> entry : map.entrySet()) {
+        for (int i = 0; i < EVICTION_SAMPLE_SIZE; i++) {
+            Map.Entry<String, CacheEntry> entry = nextEntry();
+            if (entry == null) {
+                break;
+            }
             if (now > entry.getValue().validUntil) {
-                remove.add(entry.getKey());
+                candidate = entry;
+                break;
+            }
+            if (candidate == null || entry.getValue().lastAccess - candidate.getValue().lastAccess < 0) {
+                candidate = entry;
             }
         }
 
-        for (String k : remove) {
-            map.remove(k);
+        if (candidate != null) {
+            map.remove(candidate.getKey(), candidate.getValue());
+        }
+    }
+
+    /**
+     * Gets the next entry from the cursor, starting again at the beginning of the map once the end has been reached
+     */
+    @Nullable
+    private Map.Entry<String, CacheEntry> nextEntry() {
+        if (cursor == null || !cursor.hasNext()) {
+            cursor = map.entrySet().iterator();
+            if (!cursor.hasNext()) {
+                return null;
+            }
         }
+        return cursor.next();
     }
 
     private class CacheEntry {
@@ -74,10 +178,12 @@ public class SimpleSnapshotCache implements SnapshotCache {
         @NotNull
         private final String snapshotVersion;
         private final long validUntil;
+        private volatile long lastAccess;
 
         private CacheEntry(@NotNull String snapshotVersion) {
             this.snapshotVersion = snapshotVersion;
             this.validUntil = System.currentTimeMillis() + ttl;
+            this.lastAccess = System.nanoTime();
         }
     }
 }
@@ -0,0 +1,466 @@
+package de.md5lukas.maven.resolver.graph;
+
+import de.md5lukas.maven.resolver.Artifact;
+import de.md5lukas.maven.resolver.ArtifactReader;
+import de.md5lukas.maven.resolver.ArtifactResolver;
+import de.md5lukas.maven.resolver.ArtifactResult;
+import de.md5lukas.maven.resolver.ResolvedArtifact;
+import lombok.NonNull;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves the transitive runtime dependencies of artifacts by reading their POM files from the repositories of an {@link ArtifactResolver}.
+ * <br><br>
+ * The resolution follows the rules of Maven as close as reasonably possible:
+ * <ul>
+ *     <li>Parent POMs are inherited, including their properties, dependencies and <code>dependencyManagement</code></li>
+ *     <li>Managed dependencies provide missing versions and scopes, BOMs are imported using the <code>import</code> scope</li>
+ *     <li>Only dependencies in the <code>compile</code> and <code>runtime</code> scope are followed, optional dependencies are skipped</li>
+ *     <li>Exclusions apply to the whole subtree of the dependency they are declared on</li>
+ *     <li>If an artifact is reachable with multiple versions, the version nearest to the root wins, and on the same depth the first one declared</li>
+ * </ul>
+ * All POMs on the same depth of the graph are fetched in a single batch using {@link ArtifactResolver#readAllAsync(Collection, Executor, ArtifactReader)}, and parsed
+ * POMs are cached by this instance, so shared subtrees are only resolved once. Version ranges are not supported.
+ */
+public final class DependencyGraphResolver {
+
+    private static final Pattern PROPERTY_PATTERN = Pattern.compile("\\$\\{([^}]+)}");
+    private static final int MAX_INTERPOLATION_DEPTH = 10;
+
+    @NotNull
+    private final ArtifactResolver artifactResolver;
+
+    @NotNull
+    private final Executor executor;
+
+    @NotNull
+    private final Map<String, CompletableFuture<Pom>> rawPoms = new ConcurrentHashMap<>();
+
+    @NotNull
+    private final Map<String, CompletableFuture<Pom>> inheritedPoms = new ConcurrentHashMap<>();
+
+    @NotNull
+    private final Map<String, CompletableFuture<Pom>> effectivePoms = new ConcurrentHashMap<>();
+
+    @NotNull
+    private final Map<String, CompletableFuture<Pom>> prefetchedPoms = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new graph resolver that looks for POMs using the provided artifact resolver and executor
+     *
+     * @param artifactResolver The artifact resolver to find the POMs with
+     * @param executor         The executor to download and parse the POMs on
+     */
+    public DependencyGraphResolver(@NotNull @NonNull ArtifactResolver artifactResolver, @NotNull @NonNull Executor executor) {
+        this.artifactResolver = artifactResolver;
+        this.executor = executor;
+    }
+
+    /**
+     * Resolves the provided artifacts and all of their transitive runtime dependencies, blocking until the whole graph is known.
+     *
+     * @param roots The artifacts to resolve the dependencies of
+     * @return The roots followed by their transitive dependencies, ordered by their depth in the graph
+     * @throws Exception If a POM could not be downloaded or parsed
+     * @see #resolveAsync(Collection)
+     */
+    @NotNull
+    public List<Artifact> resolve(@NotNull Collection<Artifact> roots) throws Exception {
+        try {
+            return resolveAsync(roots).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Resolves the provided artifacts and all of their transitive runtime dependencies.
+     * <br><br>
+     * Artifacts without a POM in any repository are treated as if they had no dependencies. Artifacts of type <code>pom</code> are followed but not
+     * included in the result.
+     *
+     * @param roots The artifacts to resolve the dependencies of
+     * @return A future completing with the roots followed by their transitive dependencies, ordered by their depth in the graph
+     */
+    @NotNull
+    public CompletableFuture<List<Artifact>> resolveAsync(@NotNull @NonNull Collection<Artifact> roots) {
+        Map<String, Artifact> selected = new LinkedHashMap<>();
+        List<Node> level = new ArrayList<>(roots.size());
+
+        for (Artifact root : roots) {
+            if (selected.putIfAbsent(getConflictKey(root), root) == null) {
+                level.add(new Node(root, Collections.emptyList()));
+            }
+        }
+
+        return resolveLevel(selected, level).thenApply(ignored -> {
+            List<Artifact> result = new ArrayList<>(selected.size());
+            for (Artifact artifact : selected.values()) {
+                if (!"pom".equals(artifact.getType())) {
+                    result.add(artifact);
+                }
+            }
+            return result;
+        });
+    }
+
+    @NotNull
+    private CompletableFuture<Void> resolveLevel(@NotNull Map<String, Artifact> selected, @NotNull List<Node> level) {
+        if (level.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return prefetchPoms(level).thenCompose(prefetched -> {
+            List<CompletableFuture<Pom>> poms = new ArrayList<>(level.size());
+            for (Node node : level) {
+                poms.add(getEffectivePom(node.artifact.getGroupId(), node.artifact.getArtifactId(), node.artifact.getVersion()));
+            }
+            return CompletableFuture.allOf(poms.toArray(new CompletableFuture[0])).thenApply(ignored -> poms);
+        }).thenCompose(poms -> {
+            List<Node> nextLevel = new ArrayList<>();
+
+            for (int i = 0; i < level.size(); i++) {
+                Node node = level.get(i);
+                Pom pom = poms.get(i).join();
+
+                if (pom == null) {
+                    continue;
+                }
+
+                for (PomDependency dependency : pom.dependencies) {
+                    if (dependency.isOptional() || !isRuntimeScope(dependency.getScope()) || node.isExcluded(dependency)) {
+                        continue;
+                    }
+
+                    Artifact artifact = dependency.toArtifact();
+                    if (selected.putIfAbsent(getConflictKey(artifact), artifact) == null) {
+                        List<Exclusion> exclusions = node.exclusions;
+                        if (!dependency.exclusions.isEmpty()) {
+                            exclusions = new ArrayList<>(exclusions);
+                            exclusions.addAll(dependency.exclusions);
+                        }
+                        nextLevel.add(new Node(artifact, exclusions));
+                    }
+                }
+            }
+
+            return resolveLevel(selected, nextLevel);
+        });
+    }
+
+    /**
+     * Gets the POM with the parents applied, the properties interpolated, the BOMs imported and the managed versions applied to the dependencies
+     */
+    @NotNull
+    private CompletableFuture<Pom> getEffectivePom(@NotNull String groupId, @NotNull String artifactId, @NotNull String version) {
+        return cached(effectivePoms, groupId + ':' + artifactId + ':' + version, () -> getInheritedPom(groupId, artifactId, version).thenCompose(inherited -> {
+            if (inherited == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+
+            Map<String, String> properties = getInterpolationProperties(inherited);
+
+            Pom effective = new Pom();
+            effective.groupId = inherited.groupId;
+            effective.artifactId = inherited.artifactId;
+            effective.version = inherited.version;
+            effective.properties.putAll(properties);
+
+            List<CompletableFuture<Pom>> imports = new ArrayList<>();
+            for (PomDependency managed : inherited.dependencyManagement) {
+                PomDependency interpolated = managed.copy(value -> interpolate(value, properties));
+                if ("import".equals(interpolated.scope) && "pom".equals(interpolated.type)
+                        && interpolated.groupId != null && interpolated.artifactId != null && interpolated.version != null) {
+                    imports.add(getEffectivePom(interpolated.groupId, interpolated.artifactId, interpolated.version));
+                } else {
+                    effective.dependencyManagement.add(interpolated);
+                }
+            }
+
+            return CompletableFuture.allOf(imports.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+                Map<String, PomDependency> managed = new HashMap<>();
+                for (PomDependency dependency : effective.dependencyManagement) {
+                    managed.putIfAbsent(dependency.getManagementKey(), dependency);
+                }
+                for (CompletableFuture<Pom> imported : imports) {
+                    Pom bom = imported.join();
+                    if (bom != null) {
+                        for (PomDependency dependency : bom.dependencyManagement) {
+                            managed.putIfAbsent(dependency.getManagementKey(), dependency);
+                        }
+                    }
+                }
+
+                for (PomDependency dependency : inherited.dependencies) {
+                    PomDependency interpolated = dependency.copy(value -> interpolate(value, properties));
+                    PomDependency managedDependency = managed.get(interpolated.getManagementKey());
+                    if (managedDependency != null) {
+                        interpolated.applyManagement(managedDependency);
+                    }
+                    effective.dependencies.add(interpolated);
+                }
+
+                effective.dependencyManagement.clear();
+                effective.dependencyManagement.addAll(managed.values());
+
+                return effective;
+            });
+        }));
+    }
+
+    /**
+     * Gets the POM merged with all of its parents, without interpolating any values
+     */
+    @NotNull
+    private CompletableFuture<Pom> getInheritedPom(@NotNull String groupId, @NotNull String artifactId, @NotNull String version) {
+        return cached(inheritedPoms, groupId + ':' + artifactId + ':' + version, () -> getLineage(groupId, artifactId, version, new ArrayList<>(),
+                new ArrayList<>()).thenApply(lineage -> {
+            if (lineage.isEmpty()) {
+                return null;
+            }
+
+            Pom inherited = lineage.get(lineage.size() - 1);
+            for (int i = lineage.size() - 2; i >= 0; i--) {
+                inherited = inherit(lineage.get(i), inherited);
+            }
+            return inherited;
+        }));
+    }
+
+    /**
+     * Gets the POM and its parents up to the first one that has no parent or could not be found, starting with the POM itself.
+     * <br><br>
+     * Only the POMs themselves are cached, not the merged parents, so the parents of a POM never wait for the POM and a cycle in the parents is reported
+     * instead of waiting forever
+     */
+    @NotNull
+    private CompletableFuture<List<Pom>> getLineage(@NotNull String groupId, @NotNull String artifactId, @NotNull String version,
+                                                    @NotNull List<String> keys, @NotNull List<Pom> lineage) {
+        String key = groupId + ':' + artifactId + ':' + version;
+        boolean cycle = keys.contains(key);
+        keys.add(key);
+        if (cycle) {
+            CompletableFuture<List<Pom>> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new Exception("The parents of the POM " + keys.get(0) + " form a cycle: " + String.join(" -> ", keys)));
+            return failed;
+        }
+
+        return cached(rawPoms, key, () -> downloadPom(new Artifact(groupId, artifactId, version, null, "pom"))).thenCompose(pom -> {
+            if (pom == null) {
+                return CompletableFuture.completedFuture(lineage);
+            }
+
+            lineage.add(pom);
+            if (!pom.hasParent()) {
+                return CompletableFuture.completedFuture(lineage);
+            }
+            return getLineage(pom.parentGroupId, pom.parentArtifactId, pom.parentVersion, keys, lineage);
+        });
+    }
+
+    @NotNull
+    private static Pom inherit(@NotNull Pom pom, @NotNull Pom parent) {
+        Pom inherited = new Pom();
+        inherited.groupId = pom.groupId != null ? pom.groupId : parent.groupId;
+        inherited.artifactId = pom.artifactId;
+        inherited.version = pom.version != null ? pom.version : parent.version;
+        inherited.parentGroupId = pom.parentGroupId;
+        inherited.parentArtifactId = pom.parentArtifactId;
+        inherited.parentVersion = pom.parentVersion;
+
+        inherited.properties.putAll(parent.properties);
+        inherited.properties.putAll(pom.properties);
+
+        inherited.dependencyManagement.addAll(pom.dependencyManagement);
+        inherited.dependencyManagement.addAll(parent.dependencyManagement);
+
+        inherited.dependencies.addAll(pom.dependencies);
+        inherited.dependencies.addAll(parent.dependencies);
+
+        return inherited;
+    }
+
+    /**
+     * Opens the POMs of all artifacts of the level that have not been downloaded yet in a single batch, so the requests are planned together and only
+     * sent to the repositories until the POM has been found
+     */
+    @NotNull
+    private CompletableFuture<Void> prefetchPoms(@NotNull List<Node> level) {
+        List<Artifact> pomArtifacts = new ArrayList<>(level.size());
+        for (Node node : level) {
+            Artifact pomArtifact = new Artifact(node.artifact.getGroupId(), node.artifact.getArtifactId(), node.artifact.getVersion(), null, "pom");
+            if (!rawPoms.containsKey(pomArtifact.getFuzzyId()) && !prefetchedPoms.containsKey(pomArtifact.getFuzzyId())) {
+                pomArtifacts.add(pomArtifact);
+            }
+        }
+
+        if (pomArtifacts.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // The POMs are parsed while they are downloaded, so no connection is held until the whole level has been opened
+        return artifactResolver.readAllAsync(pomArtifacts, executor, this::readPom).thenAccept(results -> {
+            for (ArtifactResult<Pom> result : results.values()) {
+                CompletableFuture<Pom> pom = new CompletableFuture<>();
+                if (result.getError() != null) {
+                    pom.completeExceptionally(result.getError());
+                } else {
+                    pom.complete(result.getValue());
+                }
+                prefetchedPoms.put(result.getArtifact().getFuzzyId(), pom);
+            }
+        });
+    }
+
+    @NotNull
+    private CompletableFuture<Pom> downloadPom(@NotNull Artifact pomArtifact) {
+        CompletableFuture<Pom> prefetched = prefetchedPoms.remove(pomArtifact.getFuzzyId());
+        if (prefetched != null) {
+            return prefetched;
+        }
+        // Parsed on the thread that opened the POM, so the connection is released without waiting for another task of the executor
+        return artifactResolver.openArtifactAsync(pomArtifact, executor).thenApply(resolved -> {
+            if (resolved == null) {
+                return null;
+            }
+            try (ResolvedArtifact closing = resolved) {
+                return readPom(closing);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    @NotNull
+    private Pom readPom(@NotNull ResolvedArtifact resolved) throws Exception {
+        try (InputStream inputStream = resolved.getInputStream()) {
+            return PomParser.parse(inputStream);
+        } catch (Exception e) {
+            throw new Exception("Could not read the POM " + resolved.getUrl(), e);
+        }
+    }
+
+    @NotNull
+    private static Map<String, String> getInterpolationProperties(@NotNull Pom pom) {
+        Map<String, String> properties = new HashMap<>(pom.properties);
+        putProjectProperty(properties, "groupId", pom.groupId);
+        putProjectProperty(properties, "artifactId", pom.artifactId);
+        putProjectProperty(properties, "version", pom.version);
+        putProjectProperty(properties, "parent.groupId", pom.parentGroupId);
+        putProjectProperty(properties, "parent.artifactId", pom.parentArtifactId);
+        putProjectProperty(properties, "parent.version", pom.parentVersion);
+        return properties;
+    }
+
+    private static void putProjectProperty(@NotNull Map<String, String> properties, @NotNull String name, @Nullable String value) {
+        if (value != null) {
+            properties.put("project." + name, value);
+            properties.put("pom." + name, value);
+        }
+    }
+
+    @Nullable
+    private static String interpolate(@Nullable String value, @NotNull Map<String, String> properties) {
+        for (int depth = 0; value != null && depth < MAX_INTERPOLATION_DEPTH && value.contains("${"); depth++) {
+            Matcher matcher = PROPERTY_PATTERN.matcher(value);
+            StringBuffer result = new StringBuffer(value.length());
+            boolean changed = false;
+
+            while (matcher.find()) {
+                String replacement = properties.get(matcher.group(1));
+                if (replacement == null) {
+                    replacement = matcher.group();
+                } else {
+                    changed = true;
+                }
+                matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
+            }
+            matcher.appendTail(result);
+
+            value = result.toString();
+            if (!changed) {
+                break;
+            }
+        }
+        return value;
+    }
+
+    private static boolean isRuntimeScope(@NotNull String scope) {
+        return "compile".equals(scope) || "runtime".equals(scope);
+    }
+
+    @NotNull
+    private static String getConflictKey(@NotNull Artifact artifact) {
+        return artifact.getGroupId() + ':' + artifact.getArtifactId() + ':' + artifact.getType() + ':'
+                + (artifact.getClassifier() == null ? "" : artifact.getClassifier());
+    }
+
+    @NotNull
+    private static <T> CompletableFuture<T> cached(@NotNull Map<String, CompletableFuture<T>> cache, @NotNull String key,
+                                                   @NotNull Supplier<CompletableFuture<T>> loader) {
+        CompletableFuture<T> existing = cache.get(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        CompletableFuture<T> created = new CompletableFuture<>();
+        existing = cache.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+
+        loader.get().whenComplete((value, throwable) -> {
+            if (throwable != null) {
+                cache.remove(key, created);
+                created.completeExceptionally(throwable);
+            } else {
+                created.complete(value);
+            }
+        });
+        return created;
+    }
+
+    private static final class Node {
+
+        @NotNull
+        private final Artifact artifact;
+        @NotNull
+        private final List<Exclusion> exclusions;
+
+        private Node(@NotNull Artifact artifact, @NotNull List<Exclusion> exclusions) {
+            this.artifact = artifact;
+            this.exclusions = exclusions;
+        }
+
+        private boolean isExcluded(@NotNull PomDependency dependency) {
+            for (Exclusion exclusion : exclusions) {
+                if (exclusion.matches(String.valueOf(dependency.groupId), String.valueOf(dependency.artifactId))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package de.md5lukas.maven.resolver.graph;
+
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An exclusion declared on a dependency in a POM. Both the groupId and artifactId may be the wildcard <code>*</code>
+ */
+@RequiredArgsConstructor
+@EqualsAndHashCode
+@ToString
+final class Exclusion {
+
+    private static final String WILDCARD = "*";
+
+    @NotNull
+    private final String groupId;
+    @NotNull
+    private final String artifactId;
+
+    boolean matches(@NotNull String groupId, @NotNull String artifactId) {
+        return (WILDCARD.equals(this.groupId) || this.groupId.equals(groupId))
+                && (WILDCARD.equals(this.artifactId) || this.artifactId.equals(artifactId));
+    }
+}
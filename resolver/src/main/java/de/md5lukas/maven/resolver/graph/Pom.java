@@ -0,0 +1,40 @@
+package de.md5lukas.maven.resolver.graph;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The parts of a POM that are relevant to resolve the dependencies of an artifact
+ */
+final class Pom {
+
+    @Nullable
+    String groupId;
+    @Nullable
+    String artifactId;
+    @Nullable
+    String version;
+
+    @Nullable
+    String parentGroupId;
+    @Nullable
+    String parentArtifactId;
+    @Nullable
+    String parentVersion;
+
+    @NotNull
+    final Map<String, String> properties = new LinkedHashMap<>();
+    @NotNull
+    final List<PomDependency> dependencyManagement = new ArrayList<>();
+    @NotNull
+    final List<PomDependency> dependencies = new ArrayList<>();
+
+    boolean hasParent() {
+        return parentGroupId != null && parentArtifactId != null && parentVersion != null;
+    }
+}
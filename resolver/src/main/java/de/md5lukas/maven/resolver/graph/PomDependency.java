@@ -0,0 +1,109 @@
+package de.md5lukas.maven.resolver.graph;
+
+import de.md5lukas.maven.resolver.Artifact;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * A single <code>dependency</code> element of a POM, either from the <code>dependencies</code> or the <code>dependencyManagement</code> section
+ */
+final class PomDependency {
+
+    @Nullable
+    String groupId;
+    @Nullable
+    String artifactId;
+    @Nullable
+    String version;
+    @Nullable
+    String classifier;
+    @Nullable
+    String type;
+    @Nullable
+    String scope;
+    @Nullable
+    String optional;
+    @NotNull
+    final List<Exclusion> exclusions = new ArrayList<>();
+
+    @NotNull
+    String getType() {
+        return type == null ? "jar" : type;
+    }
+
+    @NotNull
+    String getScope() {
+        return scope == null ? "compile" : scope;
+    }
+
+    boolean isOptional() {
+        return "true".equals(optional);
+    }
+
+    /**
+     * The key used by Maven to identify a dependency in the <code>dependencyManagement</code> section and during conflict resolution
+     *
+     * @return The management key of this dependency
+     */
+    @NotNull
+    String getManagementKey() {
+        return groupId + ':' + artifactId + ':' + getType() + ':' + (classifier == null ? "" : classifier);
+    }
+
+    @NotNull
+    PomDependency copy(@NotNull UnaryOperator<String> interpolator) {
+        PomDependency copy = new PomDependency();
+        copy.groupId = interpolator.apply(groupId);
+        copy.artifactId = interpolator.apply(artifactId);
+        copy.version = interpolator.apply(version);
+        copy.classifier = interpolator.apply(classifier);
+        copy.type = interpolator.apply(type);
+        copy.scope = interpolator.apply(scope);
+        copy.optional = interpolator.apply(optional);
+        copy.exclusions.addAll(exclusions);
+        return copy;
+    }
+
+    /**
+     * Fills in the version, scope and exclusions of this dependency from the managed dependency, if they are not declared on this dependency
+     *
+     * @param managed The managed dependency with the same management key
+     */
+    void applyManagement(@NotNull PomDependency managed) {
+        if (version == null) {
+            version = managed.version;
+        }
+        if (scope == null) {
+            scope = managed.scope;
+        }
+        if (exclusions.isEmpty()) {
+            exclusions.addAll(managed.exclusions);
+        }
+    }
+
+    @NotNull
+    Artifact toArtifact() {
+        if (groupId == null || artifactId == null || version == null) {
+            throw new IllegalStateException("The dependency " + groupId + ':' + artifactId + ':' + version + " has no complete coordinates");
+        }
+
+        String type = getType();
+        String classifier = this.classifier;
+        switch (type) {
+            case "test-jar":
+                classifier = classifier == null ? "tests" : classifier;
+                // fall through
+            case "bundle":
+            case "maven-plugin":
+            case "ejb":
+                type = "jar";
+                break;
+        }
+
+        return new Artifact(groupId, artifactId, version, classifier, type).intern();
+    }
+}
@@ -0,0 +1,170 @@
+package de.md5lukas.maven.resolver.graph;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming parser for POM files that only keeps the elements required to build the dependency graph
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class PomParser {
+
+    @Nullable
+    private static XMLInputFactory xmlInputFactory = null;
+
+    @NotNull
+    private static synchronized XMLInputFactory getXMLInputFactory() {
+        if (xmlInputFactory == null) {
+            xmlInputFactory = XMLInputFactory.newInstance();
+            xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        }
+        return xmlInputFactory;
+    }
+
+    @NotNull
+    static Pom parse(@NotNull InputStream inputStream) throws XMLStreamException {
+        Pom pom = new Pom();
+
+        XMLEventReader reader = getXMLInputFactory().createXMLEventReader(inputStream);
+        try {
+            List<String> path = new ArrayList<>();
+            StringBuilder text = new StringBuilder();
+
+            PomDependency dependency = null;
+            String exclusionGroupId = null, exclusionArtifactId = null;
+
+            while (reader.hasNext()) {
+                XMLEvent event = reader.nextEvent();
+
+                if (event.isStartElement()) {
+                    String name = event.asStartElement().getName().getLocalPart();
+                    path.add(name);
+                    text.setLength(0);
+
+                    if ("dependency".equals(name) && (isAt(path, "project", "dependencies", "dependency")
+                            || isAt(path, "project", "dependencyManagement", "dependencies", "dependency"))) {
+                        dependency = new PomDependency();
+                    } else if (dependency != null && "exclusion".equals(name)) {
+                        exclusionGroupId = null;
+                        exclusionArtifactId = null;
+                    }
+                } else if (event.isCharacters()) {
+                    text.append(event.asCharacters().getData());
+                } else if (event.isEndElement()) {
+                    String name = path.get(path.size() - 1);
+                    String value = text.toString().trim();
+                    text.setLength(0);
+
+                    if (dependency != null) {
+                        if (isAt(path, "project", "dependencies", "dependency")) {
+                            pom.dependencies.add(dependency);
+                            dependency = null;
+                        } else if (isAt(path, "project", "dependencyManagement", "dependencies", "dependency")) {
+                            pom.dependencyManagement.add(dependency);
+                            dependency = null;
+                        } else if ("exclusion".equals(name)) {
+                            if (exclusionGroupId != null && exclusionArtifactId != null) {
+                                dependency.exclusions.add(new Exclusion(exclusionGroupId, exclusionArtifactId));
+                            }
+                        } else if (isBelow(path, "exclusion")) {
+                            if ("groupId".equals(name)) {
+                                exclusionGroupId = value;
+                            } else if ("artifactId".equals(name)) {
+                                exclusionArtifactId = value;
+                            }
+                        } else if (isBelow(path, "dependency")) {
+                            setDependencyValue(dependency, name, value);
+                        }
+                    } else if (path.size() == 2) {
+                        switch (name) {
+                            case "groupId":
+                                pom.groupId = value;
+                                break;
+                            case "artifactId":
+                                pom.artifactId = value;
+                                break;
+                            case "version":
+                                pom.version = value;
+                                break;
+                        }
+                    } else if (isAt(path, "project", "parent", name)) {
+                        switch (name) {
+                            case "groupId":
+                                pom.parentGroupId = value;
+                                break;
+                            case "artifactId":
+                                pom.parentArtifactId = value;
+                                break;
+                            case "version":
+                                pom.parentVersion = value;
+                                break;
+                        }
+                    } else if (isAt(path, "project", "properties", name)) {
+                        pom.properties.put(name, value);
+                    }
+
+                    path.remove(path.size() - 1);
+                }
+            }
+        } finally {
+            try {
+                reader.close();
+            } catch (XMLStreamException ignored) {
+            }
+        }
+
+        return pom;
+    }
+
+    private static void setDependencyValue(@NotNull PomDependency dependency, @NotNull String name, @NotNull String value) {
+        switch (name) {
+            case "groupId":
+                dependency.groupId = value;
+                break;
+            case "artifactId":
+                dependency.artifactId = value;
+                break;
+            case "version":
+                dependency.version = value;
+                break;
+            case "classifier":
+                dependency.classifier = value.isEmpty() ? null : value;
+                break;
+            case "type":
+                dependency.type = value;
+                break;
+            case "scope":
+                dependency.scope = value;
+                break;
+            case "optional":
+                dependency.optional = value;
+                break;
+        }
+    }
+
+    private static boolean isAt(@NotNull List<String> path, @NotNull String... expected) {
+        if (path.size() != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (!expected[i].equals(path.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isBelow(@NotNull List<String> path, @NotNull String parent) {
+        return path.size() >= 2 && parent.equals(path.get(path.size() - 2));
+    }
+}
@@ -0,0 +1,97 @@
+package de.md5lukas.maven.resolver.jfr;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A unit of work that is recorded as a JDK Flight Recorder event once it has ended.
+ * <br><br>
+ * Values that do not apply to the type of the event are ignored. If the Flight Recorder is not available or the event is disabled, all methods do
+ * nothing.
+ *
+ * @see FlightRecorderEvents
+ */
+public interface EventSpan {
+
+    /**
+     * Outcome of work that has found what it has been looking for
+     */
+    String OUTCOME_FOUND = "found";
+
+    /**
+     * Outcome of work that has completed without finding what it has been looking for
+     */
+    String OUTCOME_NOT_FOUND = "not found";
+
+    /**
+     * Outcome of work that has been aborted by an error
+     */
+    String OUTCOME_FAILED = "failed";
+
+    /**
+     * Outcome of a checksum verification that has matched the expected checksum
+     */
+    String OUTCOME_VALID = "valid";
+
+    /**
+     * Outcome of a checksum verification that has not matched the expected checksum
+     */
+    String OUTCOME_INVALID = "invalid";
+
+    /**
+     * Span that does not record anything
+     */
+    EventSpan NOOP = new EventSpan() {
+        @Override
+        public void setRepository(@NotNull String repository) {
+        }
+
+        @Override
+        public void setStatusCode(int statusCode) {
+        }
+
+        @Override
+        public void setBytes(long bytes) {
+        }
+
+        @Override
+        public void setOutcome(@NotNull String outcome) {
+        }
+
+        @Override
+        public void end() {
+        }
+    };
+
+    /**
+     * Sets the name of the repository the work has been done with
+     *
+     * @param repository The name of the repository
+     */
+    void setRepository(@NotNull String repository);
+
+    /**
+     * Sets the HTTP status code of the response
+     *
+     * @param statusCode The status code
+     */
+    void setStatusCode(int statusCode);
+
+    /**
+     * Sets the amount of bytes that have been transferred or hashed
+     *
+     * @param bytes The amount of bytes
+     */
+    void setBytes(long bytes);
+
+    /**
+     * Sets the outcome of the work, for example <code>found</code> or <code>failed</code>
+     *
+     * @param outcome The outcome
+     */
+    void setOutcome(@NotNull String outcome);
+
+    /**
+     * Ends the span and commits the event. Must be called exactly once.
+     */
+    void end();
+}
@@ -0,0 +1,89 @@
+package de.md5lukas.maven.resolver.jfr;
+
+import de.md5lukas.maven.resolver.Artifact;
+import de.md5lukas.maven.resolver.MavenChecksum;
+import de.md5lukas.maven.resolver.Repository;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+
+import java.net.URL;
+
+/**
+ * Factory for the JDK Flight Recorder events of the resolver, so a recording shows where the time is spent while artifacts are resolved, downloaded
+ * and verified.
+ * <br><br>
+ * On Java 8 all spans do nothing. On Java 11 and newer this class is replaced with a version that records the events, if the Flight Recorder is
+ * present in the running Java installation.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class FlightRecorderEvents {
+
+    /**
+     * Checks whether events are recorded on the running Java version
+     *
+     * @return <code>false</code>
+     */
+    public static boolean isAvailable() {
+        return false;
+    }
+
+    /**
+     * Begins the resolution of an artifact across all repositories
+     *
+     * @param artifact The artifact that is resolved
+     * @return The started span
+     */
+    @NotNull
+    public static EventSpan beginResolution(@NotNull Artifact artifact) {
+        return EventSpan.NOOP;
+    }
+
+    /**
+     * Begins asking a single repository for an artifact
+     *
+     * @param artifact   The artifact that is looked up
+     * @param repository The repository that is asked
+     * @return The started span
+     */
+    @NotNull
+    public static EventSpan beginProbe(@NotNull Artifact artifact, @NotNull Repository repository) {
+        return EventSpan.NOOP;
+    }
+
+    /**
+     * Begins fetching the snapshot metadata of an artifact from a repository
+     *
+     * @param artifact   The snapshot artifact
+     * @param repository The repository the metadata is fetched from
+     * @return The started span
+     */
+    @NotNull
+    public static EventSpan beginSnapshotMetadata(@NotNull Artifact artifact, @NotNull Repository repository) {
+        return EventSpan.NOOP;
+    }
+
+    /**
+     * Begins downloading an artifact
+     *
+     * @param artifact The artifact that is downloaded
+     * @param url      The URL the artifact is downloaded from
+     * @return The started span
+     */
+    @NotNull
+    public static EventSpan beginDownload(@NotNull Artifact artifact, @NotNull URL url) {
+        return EventSpan.NOOP;
+    }
+
+    /**
+     * Begins verifying the checksum of a local file
+     *
+     * @param artifact  The artifact whose file is verified
+     * @param algorithm The algorithm of the checksum
+     * @return The started span
+     */
+    @NotNull
+    public static EventSpan beginChecksumVerification(@NotNull Artifact artifact, @NotNull MavenChecksum algorithm) {
+        return EventSpan.NOOP;
+    }
+}
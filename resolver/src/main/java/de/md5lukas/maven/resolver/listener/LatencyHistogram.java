@@ -0,0 +1,166 @@
+package de.md5lukas.maven.resolver.listener;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of latencies with exponentially growing buckets, from one microsecond up to about 17 seconds.
+ * <br><br>
+ * Recording a latency is lock-free and the histogram can be read while latencies are recorded, in which case the values may not include all latencies
+ * that are being recorded at that time. Percentiles are reported as the upper bound of the bucket they fall into, so they are accurate within a factor
+ * of two.
+ */
+public final class LatencyHistogram {
+
+    private static final int BUCKETS = 26;
+
+    private final LongAdder[] buckets;
+    private final LongAdder count;
+    private final LongAdder totalNanos;
+    private final AtomicLong maxNanos;
+
+    LatencyHistogram() {
+        this.buckets = new LongAdder[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            this.buckets[i] = new LongAdder();
+        }
+        this.count = new LongAdder();
+        this.totalNanos = new LongAdder();
+        this.maxNanos = new AtomicLong();
+    }
+
+    /**
+     * Records a latency
+     *
+     * @param nanos The latency in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets[bucketOf(nanos)].increment();
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Gets the amount of recorded latencies
+     *
+     * @return The amount of latencies
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the sum of all recorded latencies
+     *
+     * @return The sum in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * Gets the highest recorded latency
+     *
+     * @return The highest latency in nanoseconds or <code>0</code> if none have been recorded
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Gets the average of the recorded latencies
+     *
+     * @return The average latency in nanoseconds or <code>0</code> if none have been recorded
+     */
+    public long getMeanNanos() {
+        long count = getCount();
+        return count == 0 ? 0 : getTotalNanos() / count;
+    }
+
+    /**
+     * Gets an estimate of the latency below which the given percentage of the recorded latencies fall
+     *
+     * @param percentile The percentile between <code>0</code> and <code>100</code>
+     * @return The upper bound of the bucket containing the percentile in nanoseconds, at most the highest recorded latency
+     * @throws IllegalArgumentException If the percentile is out of range
+     */
+    public long getPercentileNanos(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("The percentile must be between 0 and 100");
+        }
+
+        long[] counts = getBucketCounts();
+        long total = 0;
+        for (long bucketCount : counts) {
+            total += bucketCount;
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long threshold = (long) Math.ceil(total * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= threshold && seen > 0) {
+                return Math.min(getBucketUpperBoundNanos(i), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    /**
+     * Gets the amount of latencies recorded in each bucket
+     *
+     * @return The counts of the buckets
+     * @see #getBucketUpperBoundNanos(int)
+     */
+    public long[] getBucketCounts() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    /**
+     * Gets the highest latency that is counted in the bucket. The last bucket contains all latencies that do not fit into any other bucket.
+     *
+     * @param bucket The index of the bucket
+     * @return The upper bound in nanoseconds
+     */
+    public static long getBucketUpperBoundNanos(int bucket) {
+        if (bucket >= BUCKETS - 1) {
+            return Long.MAX_VALUE;
+        }
+        return TimeUnit.MICROSECONDS.toNanos(1L << bucket);
+    }
+
+    private static int bucketOf(long nanos) {
+        long micros = (nanos + 999) / 1000;
+        if (micros <= 1) {
+            return 0;
+        }
+        // The smallest power of two that is at least the latency
+        int bucket = 64 - Long.numberOfLeadingZeros(micros - 1);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + getCount()
+                + ", mean=" + formatMillis(getMeanNanos())
+                + ", p50=" + formatMillis(getPercentileNanos(50))
+                + ", p99=" + formatMillis(getPercentileNanos(99))
+                + ", max=" + formatMillis(getMaxNanos());
+    }
+
+    static String formatMillis(long nanos) {
+        return String.format("%.1fms", nanos / 1_000_000.0);
+    }
+}
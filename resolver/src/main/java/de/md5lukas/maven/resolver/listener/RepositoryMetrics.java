@@ -0,0 +1,138 @@
+package de.md5lukas.maven.resolver.listener;
+
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import java.net.HttpURLConnection;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latencies of the probes sent to a single repository
+ *
+ * @see ResolutionMetrics#getRepositoryMetrics()
+ */
+public final class RepositoryMetrics {
+
+    /**
+     * The name of the repository
+     *
+     * @return The name of the repository
+     */
+    @Getter
+    @NotNull
+    private final String repositoryName;
+
+    /**
+     * The latencies of all probes that have been answered by the repository or failed
+     *
+     * @return The latency histogram of the probes
+     */
+    @Getter
+    @NotNull
+    private final LatencyHistogram latency;
+
+    private final LongAdder found;
+    private final LongAdder notFound;
+    private final LongAdder otherStatus;
+    private final LongAdder skipped;
+    private final LongAdder failed;
+    private final LongAdder rejected;
+
+    RepositoryMetrics(@NotNull String repositoryName) {
+        this.repositoryName = repositoryName;
+        this.latency = new LatencyHistogram();
+        this.found = new LongAdder();
+        this.notFound = new LongAdder();
+        this.otherStatus = new LongAdder();
+        this.skipped = new LongAdder();
+        this.failed = new LongAdder();
+        this.rejected = new LongAdder();
+    }
+
+    void recordProbe(int statusCode, long durationNanos) {
+        switch (statusCode) {
+            case HttpURLConnection.HTTP_OK:
+                found.increment();
+                break;
+            case HttpURLConnection.HTTP_NOT_FOUND:
+                notFound.increment();
+                break;
+            case ResolutionListener.NO_STATUS_CODE:
+                skipped.increment();
+                return;
+            default:
+                otherStatus.increment();
+                break;
+        }
+        latency.record(durationNanos);
+    }
+
+    void recordFailure(long durationNanos) {
+        failed.increment();
+        latency.record(durationNanos);
+    }
+
+    void recordRejection() {
+        rejected.increment();
+    }
+
+    /**
+     * Gets the amount of probes the repository answered with <code>200 OK</code>
+     *
+     * @return The amount of found artifacts
+     */
+    public long getFound() {
+        return found.sum();
+    }
+
+    /**
+     * Gets the amount of probes the repository answered with <code>404 Not Found</code>
+     *
+     * @return The amount of missing artifacts
+     */
+    public long getNotFound() {
+        return notFound.sum();
+    }
+
+    /**
+     * Gets the amount of probes the repository answered with any other status code
+     *
+     * @return The amount of unexpected answers
+     */
+    public long getOtherStatus() {
+        return otherStatus.sum();
+    }
+
+    /**
+     * Gets the amount of probes that finished without sending a request, because the repository was already known to not have the artifact
+     *
+     * @return The amount of skipped probes
+     */
+    public long getSkipped() {
+        return skipped.sum();
+    }
+
+    /**
+     * Gets the amount of probes that failed with an exception
+     *
+     * @return The amount of failed probes
+     */
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * Gets the amount of probes that have been skipped without sending a request, because the circuit of the repository was open
+     *
+     * @return The amount of rejected probes
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    @Override
+    public String toString() {
+        return repositoryName + ": found=" + getFound() + ", notFound=" + getNotFound() + ", other=" + getOtherStatus() + ", skipped=" + getSkipped()
+                + ", failed=" + getFailed() + ", rejected=" + getRejected() + ", latency(" + latency + ')';
+    }
+}
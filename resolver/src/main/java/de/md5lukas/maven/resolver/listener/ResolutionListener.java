@@ -0,0 +1,137 @@
+package de.md5lukas.maven.resolver.listener;
+
+import de.md5lukas.maven.resolver.Artifact;
+import de.md5lukas.maven.resolver.MavenChecksum;
+import de.md5lukas.maven.resolver.Repository;
+import org.jetbrains.annotations.NotNull;
+
+import java.net.URL;
+
+/**
+ * Listener that is notified about the steps taken while artifacts are resolved and downloaded, for example to collect metrics about them.
+ * <br><br>
+ * All methods have an empty default implementation, so only the relevant events have to be implemented. The methods are called from the threads the
+ * work is done on, so implementations must be thread-safe and should return quickly. Exceptions thrown by listeners are ignored.
+ *
+ * @see ResolutionMetrics
+ */
+public interface ResolutionListener {
+
+    /**
+     * The status code that is reported if a probe has finished without sending a request to the repository, for example because the repository is
+     * known to not have the artifact
+     */
+    int NO_STATUS_CODE = -1;
+
+    /**
+     * Called before a repository is asked for an artifact
+     *
+     * @param artifact   The artifact that is looked up
+     * @param repository The repository that is asked
+     */
+    default void onProbeStart(@NotNull Artifact artifact, @NotNull Repository repository) {
+    }
+
+    /**
+     * Called after a repository has answered whether it has an artifact
+     *
+     * @param artifact      The artifact that has been looked up
+     * @param repository    The repository that has been asked
+     * @param statusCode    The HTTP status code of the last request sent for the artifact or {@link #NO_STATUS_CODE} if no request has been sent
+     * @param durationNanos The time the probe took in nanoseconds, including the resolution of the snapshot version
+     */
+    default void onProbeEnd(@NotNull Artifact artifact, @NotNull Repository repository, int statusCode, long durationNanos) {
+    }
+
+    /**
+     * Called if an exception occurred while a repository has been asked for an artifact
+     *
+     * @param artifact      The artifact that has been looked up
+     * @param repository    The repository that has been asked
+     * @param exception     The exception that occurred
+     * @param durationNanos The time until the exception occurred in nanoseconds
+     */
+    default void onProbeFailed(@NotNull Artifact artifact, @NotNull Repository repository, @NotNull Exception exception, long durationNanos) {
+    }
+
+    /**
+     * Called instead of asking a repository for an artifact, because the circuit of the repository is open after too many failed requests
+     *
+     * @param artifact   The artifact that has been looked up
+     * @param repository The repository that has been skipped
+     * @see de.md5lukas.maven.resolver.RepositoryHealth
+     */
+    default void onProbeRejected(@NotNull Artifact artifact, @NotNull Repository repository) {
+    }
+
+    /**
+     * Called if the repository that contained the same artifact version last time is known, so it is asked first
+     *
+     * @param artifact   The artifact that is looked up
+     * @param repository The repository that contained the artifact version last time
+     */
+    default void onRepositoryCacheHit(@NotNull Artifact artifact, @NotNull Repository repository) {
+    }
+
+    /**
+     * Called if it is not known which repository contains the artifact version, so the repositories are asked in the order they have been added
+     *
+     * @param artifact The artifact that is looked up
+     */
+    default void onRepositoryCacheMiss(@NotNull Artifact artifact) {
+    }
+
+    /**
+     * Called if the snapshot version of an artifact has been found in the snapshot cache
+     *
+     * @param artifact        The snapshot artifact
+     * @param snapshotVersion The cached snapshot version
+     */
+    default void onSnapshotCacheHit(@NotNull Artifact artifact, @NotNull String snapshotVersion) {
+    }
+
+    /**
+     * Called if the snapshot version of an artifact has to be looked up in a repository
+     *
+     * @param artifact   The snapshot artifact
+     * @param repository The repository the snapshot metadata is requested from
+     */
+    default void onSnapshotCacheMiss(@NotNull Artifact artifact, @NotNull Repository repository) {
+    }
+
+    /**
+     * Called after an artifact has been downloaded. The throughput of the download is <code>bytes / durationNanos</code>.
+     *
+     * @param artifact      The artifact that has been downloaded
+     * @param url           The URL the artifact has been downloaded from
+     * @param bytes         The size of the artifact in bytes
+     * @param durationNanos The time the download took in nanoseconds, including all retries
+     */
+    default void onDownloadComplete(@NotNull Artifact artifact, @NotNull URL url, long bytes, long durationNanos) {
+    }
+
+    /**
+     * Called if an artifact could not be downloaded
+     *
+     * @param artifact      The artifact that should have been downloaded
+     * @param url           The URL the artifact should have been downloaded from
+     * @param exception     The exception that caused the download to fail
+     * @param durationNanos The time until the download failed in nanoseconds
+     */
+    default void onDownloadFailed(@NotNull Artifact artifact, @NotNull URL url, @NotNull Exception exception, long durationNanos) {
+    }
+
+    /**
+     * Called after the checksum of an artifact has been compared with the expected checksum.
+     * <br><br>
+     * For downloaded artifacts the checksum is computed while the artifact is downloaded, so the duration is zero in that case. For files that are
+     * already present the duration includes hashing the file.
+     *
+     * @param artifact      The artifact whose checksum has been verified
+     * @param algorithm     The algorithm of the checksum
+     * @param valid         Whether the checksum matched
+     * @param durationNanos The time the verification took in nanoseconds
+     */
+    default void onChecksumVerified(@NotNull Artifact artifact, @NotNull MavenChecksum algorithm, boolean valid, long durationNanos) {
+    }
+}
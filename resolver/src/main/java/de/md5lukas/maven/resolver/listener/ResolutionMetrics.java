@@ -0,0 +1,236 @@
+package de.md5lukas.maven.resolver.listener;
+
+import de.md5lukas.maven.resolver.Artifact;
+import de.md5lukas.maven.resolver.MavenChecksum;
+import de.md5lukas.maven.resolver.Repository;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Listener that aggregates the events of the resolution into counters and latency histograms, which can be read at any time.
+ * <br><br>
+ * Probes are aggregated per repository, identified by the name of the repository
+ */
+public final class ResolutionMetrics implements ResolutionListener {
+
+    @NotNull
+    private final Map<String, RepositoryMetrics> repositories;
+
+    private final LongAdder repositoryCacheHits;
+    private final LongAdder repositoryCacheMisses;
+    private final LongAdder snapshotCacheHits;
+    private final LongAdder snapshotCacheMisses;
+
+    private final LongAdder downloadFailures;
+    private final LongAdder bytesDownloaded;
+
+    private final LongAdder checksumFailures;
+
+    /**
+     * The durations of all completed downloads
+     *
+     * @return The latency histogram of the downloads
+     */
+    @Getter
+    @NotNull
+    private final LatencyHistogram downloadLatency;
+
+    /**
+     * The durations of all checksum verifications
+     *
+     * @return The latency histogram of the checksum verifications
+     */
+    @Getter
+    @NotNull
+    private final LatencyHistogram checksumLatency;
+
+    /**
+     * Creates a new instance without any recorded events
+     */
+    public ResolutionMetrics() {
+        this.repositories = new ConcurrentHashMap<>();
+        this.repositoryCacheHits = new LongAdder();
+        this.repositoryCacheMisses = new LongAdder();
+        this.snapshotCacheHits = new LongAdder();
+        this.snapshotCacheMisses = new LongAdder();
+        this.downloadFailures = new LongAdder();
+        this.bytesDownloaded = new LongAdder();
+        this.checksumFailures = new LongAdder();
+        this.downloadLatency = new LatencyHistogram();
+        this.checksumLatency = new LatencyHistogram();
+    }
+
+    @Override
+    public void onProbeEnd(@NotNull Artifact artifact, @NotNull Repository repository, int statusCode, long durationNanos) {
+        getRepositoryMetrics(repository).recordProbe(statusCode, durationNanos);
+    }
+
+    @Override
+    public void onProbeFailed(@NotNull Artifact artifact, @NotNull Repository repository, @NotNull Exception exception, long durationNanos) {
+        getRepositoryMetrics(repository).recordFailure(durationNanos);
+    }
+
+    @Override
+    public void onProbeRejected(@NotNull Artifact artifact, @NotNull Repository repository) {
+        getRepositoryMetrics(repository).recordRejection();
+    }
+
+    @Override
+    public void onRepositoryCacheHit(@NotNull Artifact artifact, @NotNull Repository repository) {
+        repositoryCacheHits.increment();
+    }
+
+    @Override
+    public void onRepositoryCacheMiss(@NotNull Artifact artifact) {
+        repositoryCacheMisses.increment();
+    }
+
+    @Override
+    public void onSnapshotCacheHit(@NotNull Artifact artifact, @NotNull String snapshotVersion) {
+        snapshotCacheHits.increment();
+    }
+
+    @Override
+    public void onSnapshotCacheMiss(@NotNull Artifact artifact, @NotNull Repository repository) {
+        snapshotCacheMisses.increment();
+    }
+
+    @Override
+    public void onDownloadComplete(@NotNull Artifact artifact, @NotNull URL url, long bytes, long durationNanos) {
+        bytesDownloaded.add(bytes);
+        downloadLatency.record(durationNanos);
+    }
+
+    @Override
+    public void onDownloadFailed(@NotNull Artifact artifact, @NotNull URL url, @NotNull Exception exception, long durationNanos) {
+        downloadFailures.increment();
+    }
+
+    @Override
+    public void onChecksumVerified(@NotNull Artifact artifact, @NotNull MavenChecksum algorithm, boolean valid, long durationNanos) {
+        if (!valid) {
+            checksumFailures.increment();
+        }
+        checksumLatency.record(durationNanos);
+    }
+
+    /**
+     * Gets the metrics of all repositories that have been asked for artifacts
+     *
+     * @return An unmodifiable snapshot of the metrics by repository name
+     */
+    @NotNull
+    public Map<String, RepositoryMetrics> getRepositoryMetrics() {
+        return Collections.unmodifiableMap(new HashMap<>(repositories));
+    }
+
+    /**
+     * Gets how often the repository that had an artifact version last time was known
+     *
+     * @return The amount of hits
+     */
+    public long getRepositoryCacheHits() {
+        return repositoryCacheHits.sum();
+    }
+
+    /**
+     * Gets how often all repositories had to be asked in their declared order
+     *
+     * @return The amount of misses
+     */
+    public long getRepositoryCacheMisses() {
+        return repositoryCacheMisses.sum();
+    }
+
+    /**
+     * Gets how often a snapshot version has been found in the snapshot cache
+     *
+     * @return The amount of hits
+     */
+    public long getSnapshotCacheHits() {
+        return snapshotCacheHits.sum();
+    }
+
+    /**
+     * Gets how often snapshot metadata had to be requested from a repository
+     *
+     * @return The amount of misses
+     */
+    public long getSnapshotCacheMisses() {
+        return snapshotCacheMisses.sum();
+    }
+
+    /**
+     * Gets the amount of artifacts that have been downloaded
+     *
+     * @return The amount of downloads
+     */
+    public long getDownloads() {
+        return downloadLatency.getCount();
+    }
+
+    /**
+     * Gets the amount of downloads that failed
+     *
+     * @return The amount of failed downloads
+     */
+    public long getDownloadFailures() {
+        return downloadFailures.sum();
+    }
+
+    /**
+     * Gets the total size of all downloaded artifacts
+     *
+     * @return The size in bytes
+     */
+    public long getBytesDownloaded() {
+        return bytesDownloaded.sum();
+    }
+
+    /**
+     * Gets the average throughput of the downloads, based on the time spent in each download. Concurrent downloads are not combined, so the total
+     * throughput may be higher.
+     *
+     * @return The throughput in bytes per second or <code>0</code> if nothing has been downloaded
+     */
+    public double getDownloadThroughput() {
+        long nanos = downloadLatency.getTotalNanos();
+        return nanos == 0 ? 0 : getBytesDownloaded() / (nanos / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * Gets the amount of checksums that did not match
+     *
+     * @return The amount of failed verifications
+     */
+    public long getChecksumFailures() {
+        return checksumFailures.sum();
+    }
+
+    @NotNull
+    private RepositoryMetrics getRepositoryMetrics(@NotNull Repository repository) {
+        return repositories.computeIfAbsent(repository.getName(), RepositoryMetrics::new);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("repositoryCache(hits=").append(getRepositoryCacheHits()).append(", misses=").append(getRepositoryCacheMisses()).append(')')
+                .append(", snapshotCache(hits=").append(getSnapshotCacheHits()).append(", misses=").append(getSnapshotCacheMisses()).append(')')
+                .append(", downloads(bytes=").append(getBytesDownloaded()).append(", failures=").append(getDownloadFailures())
+                .append(", throughput=").append(String.format("%.1fKiB/s", getDownloadThroughput() / 1024)).append(", ").append(downloadLatency).append(')')
+                .append(", checksums(failures=").append(getChecksumFailures()).append(", ").append(checksumLatency).append(')');
+        for (RepositoryMetrics metrics : repositories.values()) {
+            sb.append("\n  ").append(metrics);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,173 @@
+package de.md5lukas.maven.resolver.transport;
+
+import lombok.NonNull;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Transport that serves files from memory instead of sending requests over the network, intended to be used in tests.
+ * <br><br>
+ * Every URL that has no content is answered with <code>404 Not Found</code>. Requests for byte ranges in the form of <code>Range: bytes=start-</code> are
+ * supported, also together with an <code>If-Range</code> header containing the <code>ETag</code> that is sent with every found content. All requests
+ * are recorded in the order they have been received.
+ */
+public final class InMemoryTransport implements Transport {
+
+    @NotNull
+    private final Map<String, byte[]> contents = new ConcurrentHashMap<>();
+
+    @NotNull
+    private final List<String> requests = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Sets the content that is served for the provided URL
+     *
+     * @param url     The URL to serve the content for
+     * @param content The content to serve
+     */
+    public void put(@NotNull @NonNull URL url, @NotNull @NonNull byte[] content) {
+        contents.put(url.toString(), content.clone());
+    }
+
+    /**
+     * Removes the content that is served for the provided URL
+     *
+     * @param url The URL to remove the content of
+     */
+    public void remove(@NotNull @NonNull URL url) {
+        contents.remove(url.toString());
+    }
+
+    /**
+     * Gets all requests that have been received in the form of <code>METHOD url</code>
+     *
+     * @return A copy of the received requests
+     */
+    @NotNull
+    public List<String> getRequests() {
+        synchronized (requests) {
+            return new ArrayList<>(requests);
+        }
+    }
+
+    /**
+     * Forgets all requests that have been received
+     */
+    public void clearRequests() {
+        requests.clear();
+    }
+
+    @Override
+    @NotNull
+    public Response head(@NotNull @NonNull URL url) {
+        requests.add("HEAD " + url);
+        byte[] content = contents.get(url.toString());
+        if (content == null) {
+            return new InMemoryResponse(404, new byte[0], null);
+        }
+        return withETag(new InMemoryResponse(200, new byte[0], content.length), content);
+    }
+
+    @Override
+    @NotNull
+    public Response get(@NotNull @NonNull URL url, @NotNull @NonNull Map<String, String> headers) throws IOException {
+        requests.add("GET " + url);
+        byte[] content = contents.get(url.toString());
+        if (content == null) {
+            return new InMemoryResponse(404, new byte[0], null);
+        }
+
+        String range = null;
+        String ifRange = null;
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if ("Range".equalsIgnoreCase(header.getKey())) {
+                range = header.getValue();
+            } else if ("If-Range".equalsIgnoreCase(header.getKey())) {
+                ifRange = header.getValue();
+            }
+        }
+
+        // A range of content that has changed since the validator has been received is answered with the whole content
+        if (range == null || (ifRange != null && !ifRange.equals(createETag(content)))) {
+            return withETag(new InMemoryResponse(200, content, null), content);
+        }
+
+        if (!range.startsWith("bytes=") || !range.endsWith("-")) {
+            throw new IOException("Unsupported range " + range);
+        }
+        int start = Integer.parseInt(range.substring("bytes=".length(), range.length() - 1));
+        if (start >= content.length) {
+            return new InMemoryResponse(416, new byte[0], null);
+        }
+
+        byte[] part = new byte[content.length - start];
+        System.arraycopy(content, start, part, 0, part.length);
+        InMemoryResponse response = new InMemoryResponse(206, part, null);
+        response.headers.put("Content-Range", "bytes " + start + '-' + (content.length - 1) + '/' + content.length);
+        return withETag(response, content);
+    }
+
+    @NotNull
+    private static InMemoryResponse withETag(@NotNull InMemoryResponse response, @NotNull byte[] content) {
+        response.headers.put("ETag", createETag(content));
+        return response;
+    }
+
+    @NotNull
+    private static String createETag(@NotNull byte[] content) {
+        return "\"" + Integer.toHexString(Arrays.hashCode(content)) + '"';
+    }
+
+    private static final class InMemoryResponse implements Response {
+
+        private final int statusCode;
+        @NotNull
+        private final byte[] body;
+        @NotNull
+        private final Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+        private InMemoryResponse(int statusCode, @NotNull byte[] body, @Nullable Integer contentLength) {
+            this.statusCode = statusCode;
+            this.body = body;
+            headers.put("Content-Length", Integer.toString(contentLength != null ? contentLength : body.length));
+        }
+
+        @Override
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        @Override
+        @Nullable
+        public String getHeader(@NotNull String name) {
+            return headers.get(name);
+        }
+
+        @Override
+        public long getContentLength() {
+            return Long.parseLong(headers.get("Content-Length"));
+        }
+
+        @Override
+        @NotNull
+        public InputStream getBody() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
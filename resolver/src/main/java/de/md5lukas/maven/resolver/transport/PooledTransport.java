@@ -0,0 +1,248 @@
+package de.md5lukas.maven.resolver.transport;
+
+import lombok.NonNull;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Transport based on {@link HttpURLConnection} that makes use of the keep-alive connection pool of the JDK.
+ * <br><br>
+ * Every request uses the configured connect and read timeouts, and the amount of requests that are sent to the same host at the same time is limited.
+ * A request waits at most as long as the read timeout for one of the other requests to the same host to finish.
+ * Connections of responses whose body has been read completely or that have a small body are returned to the pool. Only connections with large unread
+ * bodies are closed.
+ */
+public final class PooledTransport implements Transport {
+
+    /**
+     * The default connect timeout in milliseconds
+     */
+    public static final int DEFAULT_CONNECT_TIMEOUT = 10_000;
+    /**
+     * The default read timeout in milliseconds
+     */
+    public static final int DEFAULT_READ_TIMEOUT = 30_000;
+    /**
+     * The default maximum amount of concurrent requests to the same host
+     */
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 8;
+
+    private static final int MAX_DRAINED_BODY_LENGTH = 16 * 1024;
+
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final int maxConnectionsPerHost;
+
+    @NotNull
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new pooled transport using the default timeouts and the default maximum amount of connections per host
+     */
+    public PooledTransport() {
+        this(DEFAULT_CONNECT_TIMEOUT, DEFAULT_READ_TIMEOUT, DEFAULT_MAX_CONNECTIONS_PER_HOST);
+    }
+
+    /**
+     * Creates a new pooled transport
+     *
+     * @param connectTimeout        The connect timeout in milliseconds
+     * @param readTimeout           The read timeout in milliseconds, which also limits how long a request waits for a free connection
+     * @param maxConnectionsPerHost The maximum amount of concurrent requests to the same host
+     * @throws IllegalArgumentException If a timeout is negative or the maximum amount of connections is less than one
+     */
+    public PooledTransport(int connectTimeout, int readTimeout, int maxConnectionsPerHost) {
+        if (connectTimeout < 0 || readTimeout < 0) {
+            throw new IllegalArgumentException("The timeouts must not be negative");
+        }
+        if (maxConnectionsPerHost < 1) {
+            throw new IllegalArgumentException("At least one connection per host must be allowed");
+        }
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+    }
+
+    @Override
+    @NotNull
+    public Response head(@NotNull @NonNull URL url) throws IOException {
+        return request("HEAD", url, Collections.emptyMap());
+    }
+
+    @Override
+    @NotNull
+    public Response get(@NotNull @NonNull URL url, @NotNull @NonNull Map<String, String> headers) throws IOException {
+        return request("GET", url, headers);
+    }
+
+    @NotNull
+    private Response request(@NotNull String method, @NotNull URL url, @NotNull Map<String, String> headers) throws IOException {
+        Semaphore permits = hostPermits.computeIfAbsent(url.getProtocol() + "://" + url.getAuthority(), host -> new Semaphore(maxConnectionsPerHost));
+
+        try {
+            if (readTimeout == 0) {
+                permits.acquire();
+            } else if (!permits.tryAcquire(readTimeout, TimeUnit.MILLISECONDS)) {
+                throw new SocketTimeoutException("Timed out after " + readTimeout + "ms while waiting for a connection to " + url.getAuthority());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a connection to " + url.getAuthority());
+        }
+
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) url.openConnection();
+            connection.setConnectTimeout(connectTimeout);
+            connection.setReadTimeout(readTimeout);
+            connection.setUseCaches(false);
+            connection.setRequestMethod(method);
+            headers.forEach(connection::setRequestProperty);
+
+            return new PooledResponse(connection, connection.getResponseCode(), "HEAD".equals(method), permits);
+        } catch (IOException | RuntimeException e) {
+            if (connection != null) {
+                connection.disconnect();
+            }
+            permits.release();
+            throw e;
+        }
+    }
+
+    private static final class PooledResponse implements Response {
+
+        @NotNull
+        private final HttpURLConnection connection;
+        private final int statusCode;
+        private final boolean bodyless;
+        @NotNull
+        private final Semaphore permits;
+        @NotNull
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        @Nullable
+        private TrackingInputStream body;
+
+        private PooledResponse(@NotNull HttpURLConnection connection, int statusCode, boolean bodyless, @NotNull Semaphore permits) {
+            this.connection = connection;
+            this.statusCode = statusCode;
+            this.bodyless = bodyless;
+            this.permits = permits;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        @Override
+        @Nullable
+        public String getHeader(@NotNull String name) {
+            return connection.getHeaderField(name);
+        }
+
+        @Override
+        public long getContentLength() {
+            return connection.getContentLengthLong();
+        }
+
+        @Override
+        @NotNull
+        public synchronized InputStream getBody() throws IOException {
+            if (body != null) {
+                throw new IOException("The body of the response has already been opened");
+            }
+            body = new TrackingInputStream(connection.getInputStream());
+            return body;
+        }
+
+        @Override
+        public void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+
+            try {
+                long contentLength = connection.getContentLengthLong();
+                if (bodyless) {
+                    // The JDK releases the connection on its own once the headers have been read
+                    return;
+                }
+
+                if (body != null) {
+                    if (body.finished) {
+                        body.close();
+                    } else if (contentLength >= 0 && contentLength <= MAX_DRAINED_BODY_LENGTH) {
+                        drain(body);
+                    } else {
+                        connection.disconnect();
+                    }
+                } else if (contentLength >= 0 && contentLength <= MAX_DRAINED_BODY_LENGTH) {
+                    drain(statusCode >= HttpURLConnection.HTTP_BAD_REQUEST ? connection.getErrorStream() : connection.getInputStream());
+                } else {
+                    connection.disconnect();
+                }
+            } catch (IOException e) {
+                connection.disconnect();
+            } finally {
+                permits.release();
+            }
+        }
+
+        private static void drain(@Nullable InputStream inputStream) throws IOException {
+            if (inputStream == null) {
+                return;
+            }
+            try (InputStream closing = inputStream) {
+                byte[] buffer = new byte[1024];
+                //noinspection StatementWithEmptyBody
+                while (closing.read(buffer) != -1) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Remembers if the end of the stream has been reached, because only then the connection can be reused without reading the rest of the body
+     */
+    private static final class TrackingInputStream extends FilterInputStream {
+
+        private volatile boolean finished = false;
+
+        private TrackingInputStream(@NotNull InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            if (read == -1) {
+                finished = true;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(@NotNull byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read == -1) {
+                finished = true;
+            }
+            return read;
+        }
+    }
+}
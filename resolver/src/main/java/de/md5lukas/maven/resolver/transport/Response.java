@@ -0,0 +1,54 @@
+package de.md5lukas.maven.resolver.transport;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The response of a server to a request sent through a {@link Transport}.
+ * <br><br>
+ * A response must always be closed, so the connection it has been received on can be reused or released.
+ */
+public interface Response extends Closeable {
+
+    /**
+     * Gets the HTTP status code of the response
+     *
+     * @return The status code
+     */
+    int getStatusCode();
+
+    /**
+     * Gets the header with the provided name, ignoring its case
+     *
+     * @param name The name of the header
+     * @return The value of the header or <code>null</code> if it is not present
+     */
+    @Nullable
+    String getHeader(@NotNull String name);
+
+    /**
+     * Gets the length of the response body
+     *
+     * @return The length in bytes or <code>-1</code> if it is not known
+     */
+    long getContentLength();
+
+    /**
+     * Gets the body of the response. The body can only be read once.
+     *
+     * @return The stream of the response body
+     * @throws IOException If the body could not be opened
+     */
+    @NotNull
+    InputStream getBody() throws IOException;
+
+    /**
+     * Releases the connection this response has been received on. Any part of the body that has not been read yet is discarded.
+     */
+    @Override
+    void close();
+}
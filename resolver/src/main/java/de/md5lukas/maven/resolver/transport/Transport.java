@@ -0,0 +1,51 @@
+package de.md5lukas.maven.resolver.transport;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Interface through which all requests to remote repositories are sent.
+ * <br><br>
+ * Implementations must be safe to be used by multiple threads at the same time.
+ *
+ * @see TransportFactory#createDefault()
+ */
+public interface Transport {
+
+    /**
+     * Sends a HTTP HEAD request to the provided URL
+     *
+     * @param url The URL to send the request to
+     * @return The response of the server, which has to be closed by the caller
+     * @throws IOException If the request could not be sent or the response could not be received
+     */
+    @NotNull
+    Response head(@NotNull URL url) throws IOException;
+
+    /**
+     * Sends a HTTP GET request with the provided additional request headers to the provided URL
+     *
+     * @param url     The URL to send the request to
+     * @param headers Additional headers to send with the request
+     * @return The response of the server, which has to be closed by the caller
+     * @throws IOException If the request could not be sent or the response could not be received
+     */
+    @NotNull
+    Response get(@NotNull URL url, @NotNull Map<String, String> headers) throws IOException;
+
+    /**
+     * Sends a HTTP GET request to the provided URL
+     *
+     * @param url The URL to send the request to
+     * @return The response of the server, which has to be closed by the caller
+     * @throws IOException If the request could not be sent or the response could not be received
+     */
+    @NotNull
+    default Response get(@NotNull URL url) throws IOException {
+        return get(url, Collections.emptyMap());
+    }
+}
@@ -0,0 +1,11 @@
+package de.md5lukas.maven.resolver.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("de.md5lukas.maven.ArtifactResolution")
+@Label("Artifact Resolution")
+@Description("Finding the repository that contains an artifact")
+final class ArtifactResolutionEvent extends ResolverEvent {
+}
@@ -0,0 +1,24 @@
+package de.md5lukas.maven.resolver.jfr;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("de.md5lukas.maven.ChecksumVerification")
+@Label("Checksum Verification")
+@Description("Verifying the checksum of an artifact that is already present locally")
+final class ChecksumVerificationEvent extends ResolverEvent {
+
+    @Label("Algorithm")
+    String algorithm;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Override
+    void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+}
@@ -0,0 +1,24 @@
+package de.md5lukas.maven.resolver.jfr;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("de.md5lukas.maven.Download")
+@Label("Artifact Download")
+@Description("Downloading an artifact into the local library folder")
+final class DownloadEvent extends ResolverEvent {
+
+    @Label("URL")
+    String url;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Override
+    void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+}
@@ -0,0 +1,101 @@
+package de.md5lukas.maven.resolver.jfr;
+
+import de.md5lukas.maven.resolver.Artifact;
+import de.md5lukas.maven.resolver.MavenChecksum;
+import de.md5lukas.maven.resolver.Repository;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+
+import java.net.URL;
+
+/**
+ * Factory for the JDK Flight Recorder events of the resolver, so a recording shows where the time is spent while artifacts are resolved, downloaded
+ * and verified.
+ * <br><br>
+ * This is the version of the class for Java 11 and newer. If the <code>jdk.jfr</code> module is not part of the running Java installation, all spans
+ * do nothing.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class FlightRecorderEvents {
+
+    private static final boolean AVAILABLE = isFlightRecorderPresent();
+
+    /**
+     * Checks whether events are recorded on the running Java version
+     *
+     * @return <code>true</code> if the <code>jdk.jfr</code> module is present
+     */
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    /**
+     * Begins the resolution of an artifact across all repositories
+     *
+     * @param artifact The artifact that is resolved
+     * @return The started span
+     */
+    @NotNull
+    public static EventSpan beginResolution(@NotNull Artifact artifact) {
+        return AVAILABLE ? FlightRecorderSpan.beginResolution(artifact) : EventSpan.NOOP;
+    }
+
+    /**
+     * Begins asking a single repository for an artifact
+     *
+     * @param artifact   The artifact that is looked up
+     * @param repository The repository that is asked
+     * @return The started span
+     */
+    @NotNull
+    public static EventSpan beginProbe(@NotNull Artifact artifact, @NotNull Repository repository) {
+        return AVAILABLE ? FlightRecorderSpan.beginProbe(artifact, repository) : EventSpan.NOOP;
+    }
+
+    /**
+     * Begins fetching the snapshot metadata of an artifact from a repository
+     *
+     * @param artifact   The snapshot artifact
+     * @param repository The repository the metadata is fetched from
+     * @return The started span
+     */
+    @NotNull
+    public static EventSpan beginSnapshotMetadata(@NotNull Artifact artifact, @NotNull Repository repository) {
+        return AVAILABLE ? FlightRecorderSpan.beginSnapshotMetadata(artifact, repository) : EventSpan.NOOP;
+    }
+
+    /**
+     * Begins downloading an artifact
+     *
+     * @param artifact The artifact that is downloaded
+     * @param url      The URL the artifact is downloaded from
+     * @return The started span
+     */
+    @NotNull
+    public static EventSpan beginDownload(@NotNull Artifact artifact, @NotNull URL url) {
+        return AVAILABLE ? FlightRecorderSpan.beginDownload(artifact, url) : EventSpan.NOOP;
+    }
+
+    /**
+     * Begins verifying the checksum of a local file
+     *
+     * @param artifact  The artifact whose file is verified
+     * @param algorithm The algorithm of the checksum
+     * @return The started span
+     */
+    @NotNull
+    public static EventSpan beginChecksumVerification(@NotNull Artifact artifact, @NotNull MavenChecksum algorithm) {
+        return AVAILABLE ? FlightRecorderSpan.beginChecksumVerification(artifact, algorithm) : EventSpan.NOOP;
+    }
+
+    private static boolean isFlightRecorderPresent() {
+        try {
+            // The event classes are only loaded once this check has passed
+            Class.forName("jdk.jfr.Event", false, FlightRecorderEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package de.md5lukas.maven.resolver.jfr;
+
+import de.md5lukas.maven.resolver.Artifact;
+import de.md5lukas.maven.resolver.MavenChecksum;
+import de.md5lukas.maven.resolver.Repository;
+import org.jetbrains.annotations.NotNull;
+
+import java.net.URL;
+
+/**
+ * Span that records a Flight Recorder event. The fields of the event are only filled if the event is enabled in the running recordings.
+ */
+final class FlightRecorderSpan implements EventSpan {
+
+    @NotNull
+    private final ResolverEvent event;
+
+    private FlightRecorderSpan(@NotNull ResolverEvent event) {
+        this.event = event;
+    }
+
+    @NotNull
+    static EventSpan beginResolution(@NotNull Artifact artifact) {
+        return begin(new ArtifactResolutionEvent(), artifact, null);
+    }
+
+    @NotNull
+    static EventSpan beginProbe(@NotNull Artifact artifact, @NotNull Repository repository) {
+        return begin(new RepositoryProbeEvent(), artifact, repository.getName());
+    }
+
+    @NotNull
+    static EventSpan beginSnapshotMetadata(@NotNull Artifact artifact, @NotNull Repository repository) {
+        return begin(new SnapshotMetadataEvent(), artifact, repository.getName());
+    }
+
+    @NotNull
+    static EventSpan beginDownload(@NotNull Artifact artifact, @NotNull URL url) {
+        DownloadEvent event = new DownloadEvent();
+        if (event.isEnabled()) {
+            event.url = url.toString();
+        }
+        return begin(event, artifact, null);
+    }
+
+    @NotNull
+    static EventSpan beginChecksumVerification(@NotNull Artifact artifact, @NotNull MavenChecksum algorithm) {
+        ChecksumVerificationEvent event = new ChecksumVerificationEvent();
+        if (event.isEnabled()) {
+            event.algorithm = algorithm.name();
+        }
+        return begin(event, artifact, null);
+    }
+
+    @NotNull
+    private static EventSpan begin(@NotNull ResolverEvent event, @NotNull Artifact artifact, String repository) {
+        if (!event.isEnabled()) {
+            return NOOP;
+        }
+        event.artifact = coordinates(artifact);
+        event.repository = repository;
+        event.begin();
+        return new FlightRecorderSpan(event);
+    }
+
+    @NotNull
+    private static String coordinates(@NotNull Artifact artifact) {
+        StringBuilder builder = new StringBuilder(64)
+                .append(artifact.getGroupId()).append(':')
+                .append(artifact.getArtifactId()).append(':')
+                .append(artifact.getVersion());
+        if (artifact.getClassifier() != null) {
+            builder.append(':').append(artifact.getClassifier());
+        }
+        return builder.append('@').append(artifact.getType()).toString();
+    }
+
+    @Override
+    public void setRepository(@NotNull String repository) {
+        event.repository = repository;
+    }
+
+    @Override
+    public void setStatusCode(int statusCode) {
+        event.setStatusCode(statusCode);
+    }
+
+    @Override
+    public void setBytes(long bytes) {
+        event.setBytes(bytes);
+    }
+
+    @Override
+    public void setOutcome(@NotNull String outcome) {
+        event.outcome = outcome;
+    }
+
+    @Override
+    public void end() {
+        event.end();
+        if (event.shouldCommit()) {
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package de.md5lukas.maven.resolver.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("de.md5lukas.maven.RepositoryProbe")
+@Label("Repository Probe")
+@Description("Asking a single repository whether it contains an artifact")
+final class RepositoryProbeEvent extends ResolverEvent {
+
+    @Label("Status Code")
+    int statusCode = -1;
+
+    @Override
+    void setStatusCode(int statusCode) {
+        this.statusCode = statusCode;
+    }
+}
@@ -0,0 +1,33 @@
+package de.md5lukas.maven.resolver.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Base class of all Flight Recorder events of the resolver
+ */
+@Category("Maven Resolver")
+abstract class ResolverEvent extends Event {
+
+    @Label("Artifact")
+    String artifact;
+
+    @Label("Repository")
+    String repository;
+
+    @Label("Outcome")
+    String outcome;
+
+    /**
+     * Sets the status code of the response if the event has such a field
+     */
+    void setStatusCode(int statusCode) {
+    }
+
+    /**
+     * Sets the amount of bytes if the event has such a field
+     */
+    void setBytes(long bytes) {
+    }
+}
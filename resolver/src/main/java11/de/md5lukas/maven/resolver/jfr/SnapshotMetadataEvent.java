@@ -0,0 +1,19 @@
+package de.md5lukas.maven.resolver.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("de.md5lukas.maven.SnapshotMetadata")
+@Label("Snapshot Metadata Fetch")
+@Description("Fetching the metadata of a snapshot artifact to resolve its concrete version")
+final class SnapshotMetadataEvent extends ResolverEvent {
+
+    @Label("Status Code")
+    int statusCode = -1;
+
+    @Override
+    void setStatusCode(int statusCode) {
+        this.statusCode = statusCode;
+    }
+}
@@ -0,0 +1,249 @@
+package de.md5lukas.maven.resolver.transport;
+
+import lombok.NonNull;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Transport based on the {@link HttpClient} of Java 11, which keeps connections alive and prefers HTTP/2 if the server supports it.
+ * <br><br>
+ * The client itself only limits how long to wait for the response headers, so the response bodies are closed by a watchdog if no data arrives for the
+ * same amount of time, like the read timeout of the {@link PooledTransport}.
+ * <br><br>
+ * This class is only available on Java 11 and newer.
+ */
+public final class HttpClientTransport implements Transport {
+
+    /**
+     * The default connect timeout
+     */
+    public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofMillis(PooledTransport.DEFAULT_CONNECT_TIMEOUT);
+    /**
+     * The default time to wait for the response headers and for data of the response body
+     */
+    public static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofMillis(PooledTransport.DEFAULT_READ_TIMEOUT);
+
+    @Nullable
+    private static ScheduledThreadPoolExecutor watchdog = null;
+
+    @NotNull
+    private final HttpClient client;
+
+    @NotNull
+    private final Duration requestTimeout;
+
+    /**
+     * Creates a new transport with a HTTP/2 client using the default timeouts
+     */
+    public HttpClientTransport() {
+        this(HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(DEFAULT_CONNECT_TIMEOUT)
+                .build(), DEFAULT_REQUEST_TIMEOUT);
+    }
+
+    /**
+     * Creates a new transport using the provided client
+     *
+     * @param client         The client to send the requests with
+     * @param requestTimeout The time to wait for the response headers of a request and for data of the response body
+     */
+    public HttpClientTransport(@NotNull @NonNull HttpClient client, @NotNull @NonNull Duration requestTimeout) {
+        this.client = client;
+        this.requestTimeout = requestTimeout;
+    }
+
+    @Override
+    @NotNull
+    public Response head(@NotNull @NonNull URL url) throws IOException {
+        return send(newRequest(url).method("HEAD", HttpRequest.BodyPublishers.noBody()).build());
+    }
+
+    @Override
+    @NotNull
+    public Response get(@NotNull @NonNull URL url, @NotNull @NonNull Map<String, String> headers) throws IOException {
+        HttpRequest.Builder builder = newRequest(url).GET();
+        headers.forEach(builder::header);
+        return send(builder.build());
+    }
+
+    @NotNull
+    private HttpRequest.Builder newRequest(@NotNull URL url) throws IOException {
+        try {
+            return HttpRequest.newBuilder(url.toURI()).timeout(requestTimeout);
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid URL " + url, e);
+        }
+    }
+
+    @NotNull
+    private Response send(@NotNull HttpRequest request) throws IOException {
+        try {
+            return new HttpClientResponse(client.send(request, HttpResponse.BodyHandlers.ofInputStream()), requestTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the response from " + request.uri());
+        }
+    }
+
+    /**
+     * Gets the shared watchdog that closes stalled response bodies. It uses a single daemon thread, so it does not prevent the JVM from shutting down.
+     *
+     * @return The shared watchdog
+     */
+    @NotNull
+    private static synchronized ScheduledThreadPoolExecutor getWatchdog() {
+        if (watchdog == null) {
+            AtomicInteger counter = new AtomicInteger();
+            watchdog = new ScheduledThreadPoolExecutor(1, r -> {
+                Thread thread = new Thread(r, "maven-resolver-watchdog-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            // Almost every read completes in time, so the cancelled timeouts must not pile up in the queue
+            watchdog.setRemoveOnCancelPolicy(true);
+        }
+        return watchdog;
+    }
+
+    private static final class HttpClientResponse implements Response {
+
+        @NotNull
+        private final HttpResponse<InputStream> response;
+
+        @NotNull
+        private final InputStream body;
+
+        private HttpClientResponse(@NotNull HttpResponse<InputStream> response, @NotNull Duration readTimeout) {
+            this.response = response;
+            this.body = new TimeoutInputStream(response.body(), readTimeout.toNanos(), response.uri().toString());
+        }
+
+        @Override
+        public int getStatusCode() {
+            return response.statusCode();
+        }
+
+        @Override
+        @Nullable
+        public String getHeader(@NotNull String name) {
+            return response.headers().firstValue(name).orElse(null);
+        }
+
+        @Override
+        public long getContentLength() {
+            return response.headers().firstValueAsLong("Content-Length").orElse(-1);
+        }
+
+        @Override
+        @NotNull
+        public InputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public void close() {
+            try {
+                body.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Closes the body if a single read waits longer than the timeout for data. Depending on the state of the body, a waiting read of the client reports
+     * the end of the stream or fails once the body has been closed, so both are turned into a {@link SocketTimeoutException} to not mistake the
+     * truncated body for the whole one.
+     */
+    private static final class TimeoutInputStream extends FilterInputStream {
+
+        private final long timeoutNanos;
+
+        @NotNull
+        private final String uri;
+
+        private volatile boolean timedOut;
+
+        private TimeoutInputStream(@NotNull InputStream in, long timeoutNanos, @NotNull String uri) {
+            super(in);
+            this.timeoutNanos = timeoutNanos;
+            this.uri = uri;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return (int) withTimeout(in::read);
+        }
+
+        @Override
+        public int read(@NotNull byte[] b, int off, int len) throws IOException {
+            return (int) withTimeout(() -> in.read(b, off, len));
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            return withTimeout(() -> in.skip(n));
+        }
+
+        private long withTimeout(@NotNull BlockingRead read) throws IOException {
+            if (timedOut) {
+                throw createTimeoutException();
+            }
+
+            ScheduledFuture<?> timeout = getWatchdog().schedule(() -> {
+                timedOut = true;
+                try {
+                    in.close();
+                } catch (IOException ignored) {
+                }
+            }, timeoutNanos, TimeUnit.NANOSECONDS);
+
+            long result;
+            try {
+                result = read.read();
+            } catch (IOException e) {
+                if (timedOut) {
+                    SocketTimeoutException timeoutException = createTimeoutException();
+                    timeoutException.initCause(e);
+                    throw timeoutException;
+                }
+                throw e;
+            } finally {
+                timeout.cancel(false);
+            }
+
+            if (timedOut) {
+                throw createTimeoutException();
+            }
+            return result;
+        }
+
+        @NotNull
+        private SocketTimeoutException createTimeoutException() {
+            return new SocketTimeoutException("Read timed out after " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + "ms while reading " + uri);
+        }
+    }
+
+    @FunctionalInterface
+    private interface BlockingRead {
+        long read() throws IOException;
+    }
+}
@@ -0,0 +1,24 @@
+package de.md5lukas.maven.resolver.transport;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Factory for the transport that is used if none has been provided.
+ * <br><br>
+ * This is the version of the class for Java 11 and newer.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class TransportFactory {
+
+    /**
+     * Creates a new instance of the best transport available on the running Java version
+     *
+     * @return A new {@link HttpClientTransport} instance
+     */
+    @NotNull
+    public static Transport createDefault() {
+        return new HttpClientTransport();
+    }
+}
@@ -0,0 +1,458 @@
+package de.md5lukas.maven.resolver;
+
+import com.sun.net.httpserver.HttpServer;
+import de.md5lukas.maven.resolver.transport.InMemoryTransport;
+import de.md5lukas.maven.resolver.transport.PooledTransport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArtifactResolverTest {
+
+    private static final Artifact ARTIFACT = new Artifact("de.md5lukas.maven", "resolver", "1.0.0");
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private ExecutorService executor;
+    private Set<String> present;
+    private AtomicInteger requests;
+    private Set<String> methods;
+    private CountDownLatch gate;
+    private AtomicInteger active;
+    private AtomicInteger maxActive;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        present = ConcurrentHashMap.newKeySet();
+        requests = new AtomicInteger();
+        methods = ConcurrentHashMap.newKeySet();
+        gate = new CountDownLatch(0);
+        active = new AtomicInteger();
+        maxActive = new AtomicInteger();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            methods.add(exchange.getRequestMethod());
+            String path = exchange.getRequestURI().getPath();
+            try {
+                gate.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ignored) {
+            }
+            if (path.startsWith("/broken/")) {
+                exchange.sendResponseHeaders(503, -1);
+            } else if (present.contains(path) && "GET".equals(exchange.getRequestMethod())) {
+                byte[] body = path.getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            } else {
+                exchange.sendResponseHeaders(present.contains(path) ? 200 : 404, -1);
+            }
+            active.decrementAndGet();
+            exchange.close();
+        });
+        server.start();
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    private Repository repository(String name) {
+        return new Repository(name, "http://127.0.0.1:" + server.getAddress().getPort() + '/' + name + '/');
+    }
+
+    @Test
+    void resolvesNullIfNoRepositoryHasTheArtifact() throws Exception {
+        ArtifactResolver resolver = new ArtifactResolver();
+        resolver.addRepository(repository("first"));
+        resolver.addRepository(repository("second"));
+
+        assertNull(resolver.resolveArtifactURLAsync(ARTIFACT, executor).get());
+    }
+
+    @Test
+    void prefersRepositoriesInTheOrderTheyWereAdded() throws Exception {
+        ArtifactResolver resolver = new ArtifactResolver();
+        resolver.addRepository(repository("first"));
+        resolver.addRepository(repository("second"));
+        resolver.addRepository(repository("third"));
+
+        present.add("/second/" + ARTIFACT.getPath());
+        present.add("/third/" + ARTIFACT.getPath());
+
+        URL url = resolver.resolveArtifactURLAsync(ARTIFACT, executor).get();
+        assertEquals(repository("second").createURL(ARTIFACT.getPath()), url);
+    }
+
+    @Test
+    void synchronousResolutionMatchesAsynchronousResolution() throws Exception {
+        ArtifactResolver resolver = new ArtifactResolver();
+        resolver.setExecutor(executor);
+        resolver.addRepository(repository("first"));
+        resolver.addRepository(repository("second"));
+
+        present.add("/second/" + ARTIFACT.getPath());
+
+        assertEquals(resolver.resolveArtifactURLAsync(ARTIFACT).get(), resolver.resolveArtifactURL(ARTIFACT));
+    }
+
+    @Test
+    void doesNotAskRepositoriesAgainForKnownMisses() throws Exception {
+        ArtifactResolver resolver = new ArtifactResolver();
+        resolver.setExecutor(executor);
+        resolver.addRepository(repository("first"));
+        resolver.addRepository(repository("second"));
+
+        present.add("/second/" + ARTIFACT.getPath());
+
+        resolver.resolveArtifactURL(ARTIFACT);
+        resolver.resolveArtifactURL(ARTIFACT.getChecksumArtifact(MavenChecksum.SHA1));
+        assertEquals(4, requests.get());
+
+        resolver.resolveArtifactURL(ARTIFACT.getChecksumArtifact(MavenChecksum.SHA1));
+        assertEquals(4, requests.get());
+
+        resolver.invalidateNegativeCache(ARTIFACT);
+        resolver.resolveArtifactURL(ARTIFACT.getChecksumArtifact(MavenChecksum.SHA1));
+        assertEquals(6, requests.get());
+    }
+
+    @Test
+    void opensArtifactWithoutCheckingTheURLFirst() throws Exception {
+        ArtifactResolver resolver = new ArtifactResolver();
+        resolver.setExecutor(executor);
+        resolver.addRepository(repository("first"));
+        resolver.addRepository(repository("second"));
+        resolver.addRepository(repository("third"));
+
+        present.add("/second/" + ARTIFACT.getPath());
+        present.add("/third/" + ARTIFACT.getPath());
+
+        try (ResolvedArtifact resolved = resolver.openArtifact(ARTIFACT)) {
+            assertNotNull(resolved);
+            assertEquals("second", resolved.getRepository().getName());
+
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            try (InputStream inputStream = resolved.getInputStream()) {
+                byte[] buffer = new byte[1024];
+                int read;
+                while ((read = inputStream.read(buffer)) != -1) {
+                    content.write(buffer, 0, read);
+                }
+            }
+            assertEquals("/second/" + ARTIFACT.getPath(), new String(content.toByteArray(), StandardCharsets.UTF_8));
+        }
+
+        assertFalse(methods.contains("HEAD"));
+    }
+
+    @Test
+    void doesNotOpenArtifactInRepositoriesAfterTheChosenOne() throws Exception {
+        ArtifactResolver resolver = new ArtifactResolver();
+        resolver.setExecutor(executor);
+        resolver.addRepository(repository("first"));
+        resolver.addRepository(repository("second"));
+        resolver.addRepository(repository("third"));
+
+        present.add("/second/" + ARTIFACT.getPath());
+        present.add("/third/" + ARTIFACT.getPath());
+
+        try (ResolvedArtifact resolved = resolver.openArtifact(ARTIFACT)) {
+            assertNotNull(resolved);
+            assertEquals("second", resolved.getRepository().getName());
+        }
+
+        assertEquals(2, requests.get());
+        assertEquals(1, maxActive.get());
+    }
+
+    private static RepositoryStatistics preferSecond(Repository first, Repository second) {
+        RepositoryStatistics statistics = new RepositoryStatistics();
+        for (int i = 0; i < 5; i++) {
+            statistics.record(first, ARTIFACT, false, TimeUnit.MILLISECONDS.toNanos(10));
+            statistics.record(second, ARTIFACT, true, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        return statistics;
+    }
+
+    @Test
+    void keepsTheDeclaredOrderWithRepositoryStatistics() throws Exception {
+        Repository first = repository("first");
+        Repository second = repository("second");
+        RepositoryStatistics statistics = preferSecond(first, second);
+
+        present.add("/first/" + ARTIFACT.getPath());
+        present.add("/second/" + ARTIFACT.getPath());
+
+        // The repository that rarely has the artifacts still wins over a later repository if it has the artifact
+        try (ResolvedArtifact resolved = createResolver(statistics, first, second).openArtifact(ARTIFACT)) {
+            assertNotNull(resolved);
+            assertEquals("first", resolved.getRepository().getName());
+        }
+        assertEquals(first.createURL(ARTIFACT.getPath()), createResolver(statistics, first, second).resolveAll(Arrays.asList(ARTIFACT))
+                .get(ARTIFACT).getValue());
+        assertEquals(first.createURL(ARTIFACT.getPath()), createResolver(statistics, first, second).resolveArtifactURL(ARTIFACT));
+    }
+
+    @Test
+    void asksTheLikelyRepositoryWithoutWaitingForTheRepositoriesBeforeIt() throws Exception {
+        Repository first = repository("first");
+        Repository second = repository("second");
+        present.add("/second/" + ARTIFACT.getPath());
+        gate = new CountDownLatch(1);
+
+        CompletableFuture<ResolvedArtifact> future = createResolver(preferSecond(first, second), first, second).openArtifactAsync(ARTIFACT, executor);
+
+        // Both requests are sent before the first one has been answered
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (requests.get() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, requests.get());
+        gate.countDown();
+
+        try (ResolvedArtifact resolved = future.get(10, TimeUnit.SECONDS)) {
+            assertNotNull(resolved);
+            assertEquals("second", resolved.getRepository().getName());
+        }
+    }
+
+    private ArtifactResolver createResolver(RepositoryStatistics statistics, Repository... repositories) {
+        ArtifactResolver resolver = new ArtifactResolver();
+        resolver.setExecutor(executor);
+        resolver.setRepositoryStatistics(statistics);
+        for (Repository repository : repositories) {
+            resolver.addRepository(repository);
+        }
+        return resolver;
+    }
+
+    @Test
+    void locatesArtifactWithoutDownloadingIt() throws Exception {
+        ArtifactResolver resolver = new ArtifactResolver();
+        resolver.setExecutor(executor);
+        resolver.addRepository(repository("first"));
+        resolver.addRepository(repository("second"));
+
+        present.add("/second/" + ARTIFACT.getPath());
+
+        ArtifactLocation location = resolver.locateArtifact(ARTIFACT);
+        assertNotNull(location);
+        assertEquals("second", location.getRepository().getName());
+        assertEquals(ARTIFACT.getVersion(), location.getVersion());
+        assertEquals(repository("second").createURL(ARTIFACT.getPath()), location.getUrl());
+
+        assertFalse(methods.contains("GET"));
+        assertNull(resolver.locateArtifact(new Artifact("de.md5lukas.maven", "missing", "1.0.0")));
+    }
+
+    @Test
+    void sendsAllRequestsThroughTheTransport() throws Exception {
+        Repository repository = new Repository("memory", "https://example.com/repository/");
+        Artifact snapshot = new Artifact("de.md5lukas.maven", "resolver", "1.0.0-SNAPSHOT");
+        InMemoryTransport transport = new InMemoryTransport();
+        transport.put(repository.createURL(snapshot.getSnapshotMetadataPath()), ("<metadata><versioning><snapshot>"
+                + "<timestamp>20201231.235959</timestamp><buildNumber>3</buildNumber></snapshot></versioning></metadata>").getBytes(StandardCharsets.UTF_8));
+        transport.put(repository.createURL(snapshot.getPath("1.0.0-20201231.235959-3")), new byte[]{1, 2, 3});
+
+        ArtifactResolver resolver = new ArtifactResolver();
+        resolver.setExecutor(executor);
+        resolver.setTransport(transport);
+        resolver.addRepository(repository);
+
+        assertEquals(repository.createURL(snapshot.getPath("1.0.0-20201231.235959-3")), resolver.resolveArtifactURL(snapshot));
+        assertEquals(2, transport.getRequests().size());
+        assertEquals(0, requests.get());
+    }
+
+    @Test
+    void skipsRepositoriesAfterTooManyFailedRequests() throws Exception {
+        ArtifactResolver resolver = new ArtifactResolver();
+        resolver.setExecutor(executor);
+        resolver.setCircuitBreakerThreshold(2);
+        Repository broken = repository("broken");
+        resolver.addRepository(broken);
+
+        assertNull(resolver.resolveArtifactURL(ARTIFACT));
+        assertEquals(RepositoryHealth.State.CLOSED, resolver.getRepositoryHealth(broken).getState());
+        assertNull(resolver.resolveArtifactURL(ARTIFACT));
+        assertEquals(RepositoryHealth.State.OPEN, resolver.getRepositoryHealth(broken).getState());
+        assertEquals(2, requests.get());
+
+        Exception e = assertThrows(Exception.class, () -> resolver.resolveArtifactURL(ARTIFACT));
+        assertTrue(e.getSuppressed()[0] instanceof RepositoryUnavailableException);
+        assertEquals(2, requests.get());
+        assertEquals(1, resolver.getRepositoryHealth(broken).getRejectedRequests());
+
+        resolver.resetRepositoryHealth(broken);
+        assertTrue(resolver.getRepositoryHealth(broken).isAvailable());
+    }
+
+    @Test
+    void sendsSingleTrialRequestOnceTheOpenTimeHasPassed() throws Exception {
+        ArtifactResolver resolver = new ArtifactResolver();
+        resolver.setExecutor(executor);
+        resolver.setCircuitBreakerThreshold(1);
+        resolver.setCircuitBreakerOpenTime(0);
+        Repository broken = repository("broken");
+        Repository working = repository("working");
+        resolver.addRepository(broken);
+        resolver.addRepository(working);
+
+        present.add("/working/" + ARTIFACT.getPath());
+
+        assertEquals(working.createURL(ARTIFACT.getPath()), resolver.resolveArtifactURL(ARTIFACT));
+        assertEquals(RepositoryHealth.State.OPEN, resolver.getRepositoryHealth(broken).getState());
+        assertEquals(1, resolver.getRepositoryHealth(broken).getConsecutiveFailures());
+
+        resolver.invalidateNegativeCache();
+        resolver.resolveArtifactURL(new Artifact("de.md5lukas.maven", "other", "1.0.0"));
+        assertEquals(RepositoryHealth.State.OPEN, resolver.getRepositoryHealth(broken).getState());
+        assertEquals(2, resolver.getRepositoryHealth(broken).getTotalFailures());
+    }
+
+    @Test
+    void sharesResolutionsThatAreInProgress() throws Exception {
+        ArtifactResolver resolver = new ArtifactResolver();
+        resolver.addRepository(repository("first"));
+
+        present.add("/first/" + ARTIFACT.getPath());
+        gate = new CountDownLatch(1);
+
+        CompletableFuture<URL> first = resolver.resolveArtifactURLAsync(ARTIFACT, executor);
+        CompletableFuture<URL> second = resolver.resolveArtifactURLAsync(new Artifact("de.md5lukas.maven", "resolver", "1.0.0"), executor);
+        second.cancel(false);
+        CompletableFuture<URL> third = resolver.resolveArtifactURLAsync(ARTIFACT, executor);
+        gate.countDown();
+
+        assertEquals(repository("first").createURL(ARTIFACT.getPath()), first.get());
+        assertEquals(first.get(), third.get());
+        assertEquals(1, requests.get());
+
+        assertEquals(first.get(), resolver.resolveArtifactURL(ARTIFACT));
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void resolvesAllArtifactsInOneBatch() throws Exception {
+        ArtifactResolver resolver = new ArtifactResolver();
+        resolver.setExecutor(executor);
+        resolver.addRepository(repository("first"));
+        resolver.addRepository(repository("second"));
+
+        Artifact other = new Artifact("de.md5lukas.maven", "spigot", "1.0.0");
+        Artifact missing = new Artifact("de.md5lukas.maven", "missing", "1.0.0");
+        present.add("/first/" + ARTIFACT.getPath());
+        present.add("/second/" + ARTIFACT.getPath());
+        present.add("/second/" + other.getPath());
+
+        Map<Artifact, ArtifactResult<URL>> results = resolver.resolveAll(Arrays.asList(ARTIFACT, other, ARTIFACT, missing));
+
+        assertEquals(Arrays.asList(ARTIFACT, other, missing), new ArrayList<>(results.keySet()));
+        assertEquals(repository("first").createURL(ARTIFACT.getPath()), results.get(ARTIFACT).getValue());
+        assertEquals(repository("second").createURL(other.getPath()), results.get(other).getValue());
+        assertFalse(results.get(missing).isFound());
+        assertNull(results.get(missing).getError());
+        // The second repository is never asked for the artifact the first one has
+        assertEquals(5, requests.get());
+    }
+
+    @Test
+    void reportsErrorsPerArtifact() throws Exception {
+        ArtifactResolver resolver = new ArtifactResolver();
+        resolver.setExecutor(executor);
+        resolver.addRepository(new Repository("offline", "http://127.0.0.1:1/"));
+        resolver.addRepository(repository("first"));
+
+        Artifact missing = new Artifact("de.md5lukas.maven", "missing", "1.0.0");
+        present.add("/first/" + ARTIFACT.getPath());
+
+        Map<Artifact, ArtifactResult<URL>> results = resolver.resolveAll(Arrays.asList(ARTIFACT, missing));
+
+        assertTrue(results.get(ARTIFACT).isFound());
+        assertNull(results.get(ARTIFACT).getError());
+        assertFalse(results.get(missing).isFound());
+        assertNotNull(results.get(missing).getError());
+    }
+
+    @Test
+    void limitsConcurrentRequestsPerHost() throws Exception {
+        ArtifactResolver resolver = new ArtifactResolver();
+        resolver.setExecutor(executor);
+        resolver.setMaxConnectionsPerHost(2);
+        resolver.addRepository(repository("first"));
+
+        List<Artifact> artifacts = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            Artifact artifact = new Artifact("de.md5lukas.maven", "artifact" + i, "1.0.0");
+            present.add("/first/" + artifact.getPath());
+            artifacts.add(artifact);
+        }
+
+        Map<Artifact, ArtifactResult<URL>> results = resolver.resolveAll(artifacts);
+
+        assertTrue(results.values().stream().allMatch(ArtifactResult::isFound));
+        assertTrue(maxActive.get() <= 2);
+        assertEquals(16, requests.get());
+    }
+
+    @Test
+    void readsMoreArtifactsThanTheTransportHasConnectionsPerHost() throws Exception {
+        ArtifactResolver resolver = new ArtifactResolver();
+        resolver.setTransport(new PooledTransport());
+        resolver.addRepository(repository("first"));
+
+        List<Artifact> artifacts = new ArrayList<>();
+        for (int i = 0; i < PooledTransport.DEFAULT_MAX_CONNECTIONS_PER_HOST * 3; i++) {
+            Artifact artifact = new Artifact("de.md5lukas.maven", "artifact" + i, "1.0.0");
+            present.add("/first/" + artifact.getPath());
+            artifacts.add(artifact);
+        }
+
+        Map<Artifact, ArtifactResult<String>> results = resolver.readAllAsync(artifacts, executor,
+                resolved -> read(resolved.getInputStream())).get(30, TimeUnit.SECONDS);
+
+        for (Artifact artifact : artifacts) {
+            assertEquals("/first/" + artifact.getPath(), results.get(artifact).getValue());
+        }
+    }
+
+    private static String read(InputStream inputStream) throws Exception {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        try (InputStream closing = inputStream) {
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = closing.read(buffer)) != -1) {
+                content.write(buffer, 0, read);
+            }
+        }
+        return new String(content.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
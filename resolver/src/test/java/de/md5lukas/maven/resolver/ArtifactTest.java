@@ -56,4 +56,58 @@ public class ArtifactTest {
         String path = new Artifact("de.md5lukas.maven", "resolver", "1.0.0-SNAPSHOT").getPath("1.0.0-1234-1");
         assertEquals("de/md5lukas/maven/resolver/1.0.0-SNAPSHOT/resolver-1.0.0-1234-1.jar", path);
     }
+
+    @Test
+    void coordinatesAreParsed() {
+        Artifact artifact = Artifact.parse("de.md5lukas.maven:resolver:1.0.0:sources@pom");
+        assertEquals(new Artifact("de.md5lukas.maven", "resolver", "1.0.0", "sources", "pom"), artifact);
+        assertEquals(new Artifact("de.md5lukas.maven", "resolver", "1.0.0"), Artifact.parse("de.md5lukas.maven:resolver:1.0.0"));
+    }
+
+    @Test
+    void malformedCoordinatesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Artifact.parse("de.md5lukas.maven:resolver"));
+        assertThrows(IllegalArgumentException.class, () -> Artifact.parse("de.md5lukas.maven::1.0.0"));
+        assertThrows(IllegalArgumentException.class, () -> Artifact.parse("de.md5lukas.maven:resolver:1.0.0@"));
+        assertThrows(IllegalArgumentException.class, () -> Artifact.parse("a:b:c:d:e"));
+    }
+
+    @Test
+    void parsedArtifactsAreInterned() {
+        Artifact artifact = Artifact.parse("de.md5lukas.maven:resolver:1.0.0");
+        assertSame(artifact, Artifact.parse("de.md5lukas.maven:resolver:1.0.0"));
+        assertSame(artifact, new Artifact("de.md5lukas.maven", "resolver", "1.0.0").intern());
+    }
+
+    @Test
+    void pathIsAppendedToBuilder() {
+        StringBuilder sb = new StringBuilder("https://example.com/");
+        new Artifact("de.md5lukas.maven", "resolver", "1.0.0").appendPath(sb);
+        assertEquals("https://example.com/de/md5lukas/maven/resolver/1.0.0/resolver-1.0.0.jar", sb.toString());
+
+        sb.setLength(0);
+        new Artifact("de.md5lukas.maven", "resolver", "1.0.0-SNAPSHOT").appendPath(sb, "1.0.0-1234-1");
+        assertEquals("de/md5lukas/maven/resolver/1.0.0-SNAPSHOT/resolver-1.0.0-1234-1.jar", sb.toString());
+    }
+
+    @Test
+    void checksumArtifactIsReused() {
+        Artifact artifact = new Artifact("de.md5lukas.maven", "resolver", "1.0.0");
+        Artifact checksumArtifact = artifact.getChecksumArtifact(MavenChecksum.SHA1);
+
+        assertEquals("resolver-1.0.0.jar.sha1", checksumArtifact.getFileName());
+        assertSame(checksumArtifact, artifact.getChecksumArtifact(MavenChecksum.SHA1));
+        assertNotEquals(checksumArtifact, artifact.getChecksumArtifact(MavenChecksum.MD5));
+    }
+
+    @Test
+    void equalArtifactsHaveEqualHashCodes() {
+        Artifact first = new Artifact("de.md5lukas.maven", "resolver", "1.0.0", "", "jar");
+        Artifact second = new Artifact("de.md5lukas.maven", "resolver", "1.0.0", null);
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertNotEquals(first, new Artifact("de.md5lukas.maven", "resolver", "1.0.0", "sources"));
+        assertEquals("Artifact(groupId=de.md5lukas.maven, artifactId=resolver, version=1.0.0, classifier=null, type=jar)", first.toString());
+    }
 }
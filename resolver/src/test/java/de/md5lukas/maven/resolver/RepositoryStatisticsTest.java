@@ -0,0 +1,88 @@
+package de.md5lukas.maven.resolver;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RepositoryStatisticsTest {
+
+    private final Repository slow = new Repository("slow", "http://slow.example.com/");
+    private final Repository fast = new Repository("fast", "http://fast.example.com/");
+    private final List<Repository> declared = Arrays.asList(slow, fast);
+
+    private final Artifact artifact = new Artifact("org.example.library", "library", "1.0.0");
+
+    @Test
+    void keepsDeclaredOrderWithoutStatistics() {
+        RepositoryStatistics statistics = new RepositoryStatistics();
+
+        assertEquals(declared, statistics.order(declared, artifact));
+    }
+
+    @Test
+    void movesRepositoriesThatRarelyHaveTheArtifactsToTheEnd() {
+        RepositoryStatistics statistics = new RepositoryStatistics();
+        recordMany(statistics, slow, false, 500);
+        recordMany(statistics, fast, true, 20);
+
+        assertEquals(Arrays.asList(fast, slow), statistics.order(declared, artifact));
+    }
+
+    @Test
+    void keepsDeclaredOrderIfBothRepositoriesHaveTheArtifacts() {
+        RepositoryStatistics statistics = new RepositoryStatistics();
+        recordMany(statistics, slow, true, 500);
+        recordMany(statistics, fast, true, 20);
+
+        assertEquals(declared, statistics.order(declared, artifact));
+    }
+
+    @Test
+    void prefersTheStatisticsOfTheGroupIdPrefix() {
+        RepositoryStatistics statistics = new RepositoryStatistics();
+        recordMany(statistics, slow, false, 500);
+        recordMany(statistics, fast, true, 20);
+        Artifact other = new Artifact("com.example", "other", "1.0.0");
+        for (int i = 0; i < 20; i++) {
+            statistics.record(slow, other, true, TimeUnit.MILLISECONDS.toNanos(500));
+        }
+
+        assertEquals(declared, statistics.order(declared, other));
+        assertEquals(Arrays.asList(fast, slow), statistics.order(declared, artifact));
+    }
+
+    @Test
+    void statisticsSurviveSavingAndLoading(@TempDir Path folder) throws Exception {
+        File file = folder.resolve("repository-stats.tsv").toFile();
+        RepositoryStatistics statistics = new RepositoryStatistics();
+        recordMany(statistics, slow, false, 500);
+        recordMany(statistics, fast, true, 20);
+        statistics.save(file);
+
+        RepositoryStatistics loaded = new RepositoryStatistics();
+        loaded.load(file);
+
+        assertEquals(Arrays.asList(fast, slow), loaded.order(declared, artifact));
+        assertEquals(statistics.getStats(slow, "org.example").getHitRate(), loaded.getStats(slow, "org.example").getHitRate());
+    }
+
+    @Test
+    void groupIdPrefixUsesTheFirstTwoParts() {
+        assertEquals("org.example", RepositoryStatistics.getPrefix("org.example.library.core"));
+        assertEquals("org.example", RepositoryStatistics.getPrefix("org.example"));
+        assertEquals("example", RepositoryStatistics.getPrefix("example"));
+    }
+
+    private void recordMany(RepositoryStatistics statistics, Repository repository, boolean hit, long latencyMillis) {
+        for (int i = 0; i < 5; i++) {
+            statistics.record(repository, artifact, hit, TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package de.md5lukas.maven.resolver.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileSnapshotCacheTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void entriesSurviveReopening() throws Exception {
+        File file = folder.resolve("cache.log").toFile();
+
+        new FileSnapshotCache(file, 60_000).put("a:b:1.0-SNAPSHOT", "1.0-20201231.235959-1");
+
+        assertEquals("1.0-20201231.235959-1", new FileSnapshotCache(file, 60_000).get("a:b:1.0-SNAPSHOT"));
+    }
+
+    @Test
+    void expiredEntriesAreNotLoaded() throws Exception {
+        Path file = folder.resolve("cache.log");
+        Files.write(file, ("1\ta:b:1.0-SNAPSHOT\t1.0-1-1\n" + Long.MAX_VALUE + "\tc:d:1.0-SNAPSHOT\t1.0-2-2\n").getBytes(StandardCharsets.UTF_8));
+
+        FileSnapshotCache cache = new FileSnapshotCache(file.toFile(), 60_000);
+
+        assertNull(cache.get("a:b:1.0-SNAPSHOT"));
+        assertEquals("1.0-2-2", cache.get("c:d:1.0-SNAPSHOT"));
+    }
+
+    @Test
+    void replacedEntriesAreCompacted() throws Exception {
+        Path file = folder.resolve("cache.log");
+        FileSnapshotCache cache = new FileSnapshotCache(file.toFile(), 60_000);
+
+        for (int i = 0; i < 100; i++) {
+            cache.put("a:b:1.0-SNAPSHOT", "1.0-" + i + "-1");
+        }
+
+        assertTrue(Files.readAllLines(file).size() < 100);
+        assertEquals("1.0-99-1", new FileSnapshotCache(file.toFile(), 60_000).get("a:b:1.0-SNAPSHOT"));
+    }
+}
@@ -0,0 +1,99 @@
+package de.md5lukas.maven.resolver.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimpleSnapshotCacheTest {
+
+    @Test
+    void returnsInsertedValue() {
+        SimpleSnapshotCache cache = new SimpleSnapshotCache(60_000);
+
+        cache.put("a:b:1.0-SNAPSHOT", "1.0-1-1");
+
+        assertEquals("1.0-1-1", cache.get("a:b:1.0-SNAPSHOT"));
+    }
+
+    @Test
+    void doesNotCacheWithoutTTL() {
+        SimpleSnapshotCache cache = new SimpleSnapshotCache(0);
+
+        cache.put("a:b:1.0-SNAPSHOT", "1.0-1-1");
+
+        assertNull(cache.get("a:b:1.0-SNAPSHOT"));
+    }
+
+    @Test
+    void expiredEntriesAreNotReturned() throws Exception {
+        SimpleSnapshotCache cache = new SimpleSnapshotCache(1);
+
+        cache.put("a:b:1.0-SNAPSHOT", "1.0-1-1");
+        Thread.sleep(5);
+
+        assertNull(cache.get("a:b:1.0-SNAPSHOT"));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntries() {
+        SimpleSnapshotCache cache = new SimpleSnapshotCache(60_000, 4);
+
+        cache.put("key-0", "value-0");
+        for (int i = 1; i < 16; i++) {
+            assertEquals("value-0", cache.get("key-0"));
+            cache.put("key-" + i, "value-" + i);
+        }
+
+        assertEquals(4, cache.size());
+        assertEquals("value-0", cache.get("key-0"));
+    }
+
+    @Test
+    void staysBoundedAndConsistentUnderConcurrentAccess() throws Exception {
+        int threads = 8, maxSize = 64, operations = 50_000;
+        SimpleSnapshotCache cache = new SimpleSnapshotCache(60_000, maxSize);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < operations; i++) {
+                        int key = random.nextInt(maxSize * 4);
+                        if (random.nextBoolean()) {
+                            cache.put("key-" + key, "value-" + key);
+                        } else {
+                            String value = cache.get("key-" + key);
+                            if (value != null) {
+                                assertEquals("value-" + key, value);
+                            }
+                        }
+                        assertTrue(cache.size() <= maxSize + threads, "Cache exceeded its maximum size");
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(cache.size() <= maxSize);
+    }
+}
@@ -0,0 +1,167 @@
+package de.md5lukas.maven.resolver.graph;
+
+import com.sun.net.httpserver.HttpServer;
+import de.md5lukas.maven.resolver.Artifact;
+import de.md5lukas.maven.resolver.ArtifactResolver;
+import de.md5lukas.maven.resolver.Repository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DependencyGraphResolverTest {
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private Map<String, String> poms;
+    private AtomicInteger requests;
+    private DependencyGraphResolver graphResolver;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        poms = new ConcurrentHashMap<>();
+        requests = new AtomicInteger();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            String pom = poms.get(exchange.getRequestURI().getPath().substring(1));
+            if ("GET".equals(exchange.getRequestMethod())) {
+                requests.incrementAndGet();
+            }
+            if (pom == null) {
+                exchange.sendResponseHeaders(404, -1);
+            } else {
+                byte[] body = pom.getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, "HEAD".equals(exchange.getRequestMethod()) ? -1 : body.length);
+                if (!"HEAD".equals(exchange.getRequestMethod())) {
+                    try (OutputStream outputStream = exchange.getResponseBody()) {
+                        outputStream.write(body);
+                    }
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+        executor = Executors.newCachedThreadPool();
+
+        ArtifactResolver artifactResolver = new ArtifactResolver();
+        artifactResolver.setExecutor(executor);
+        artifactResolver.addRepository(new Repository("local", "http://127.0.0.1:" + server.getAddress().getPort() + '/'));
+        graphResolver = new DependencyGraphResolver(artifactResolver, executor);
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void pom(String artifactId, String version, String body) {
+        poms.put(new Artifact("test", artifactId, version, null, "pom").getPath(),
+                "<project><groupId>test</groupId><artifactId>" + artifactId + "</artifactId><version>" + version + "</version>" + body + "</project>");
+    }
+
+    private static String dependency(String artifactId, String version, String extra) {
+        return "<dependency><groupId>test</groupId><artifactId>" + artifactId + "</artifactId>"
+                + (version == null ? "" : "<version>" + version + "</version>") + extra + "</dependency>";
+    }
+
+    private static Artifact artifact(String artifactId, String version) {
+        return new Artifact("test", artifactId, version);
+    }
+
+    @Test
+    void resolvesTransitiveDependenciesWithNearestWins() throws Exception {
+        pom("a", "1", "<dependencies>" + dependency("b", "1", "") + dependency("c", "1", "") + "</dependencies>");
+        pom("b", "1", "<dependencies>" + dependency("c", "2", "") + dependency("d", "1", "") + "</dependencies>");
+        pom("c", "1", "");
+        pom("d", "1", "");
+
+        List<Artifact> result = graphResolver.resolve(Collections.singletonList(artifact("a", "1")));
+
+        assertEquals(Arrays.asList(artifact("a", "1"), artifact("b", "1"), artifact("c", "1"), artifact("d", "1")), result);
+    }
+
+    @Test
+    void skipsTestProvidedAndOptionalDependencies() throws Exception {
+        pom("a", "1", "<dependencies>"
+                + dependency("b", "1", "<scope>test</scope>")
+                + dependency("c", "1", "<scope>provided</scope>")
+                + dependency("d", "1", "<optional>true</optional>")
+                + dependency("e", "1", "<scope>runtime</scope>")
+                + "</dependencies>");
+        pom("e", "1", "");
+
+        assertEquals(Arrays.asList(artifact("a", "1"), artifact("e", "1")), graphResolver.resolve(Collections.singletonList(artifact("a", "1"))));
+    }
+
+    @Test
+    void appliesExclusionsToTheWholeSubtree() throws Exception {
+        pom("a", "1", "<dependencies>" + dependency("b", "1",
+                "<exclusions><exclusion><groupId>test</groupId><artifactId>d</artifactId></exclusion></exclusions>") + "</dependencies>");
+        pom("b", "1", "<dependencies>" + dependency("c", "1", "") + "</dependencies>");
+        pom("c", "1", "<dependencies>" + dependency("d", "1", "") + "</dependencies>");
+
+        assertEquals(Arrays.asList(artifact("a", "1"), artifact("b", "1"), artifact("c", "1")),
+                graphResolver.resolve(Collections.singletonList(artifact("a", "1"))));
+    }
+
+    @Test
+    void inheritsPropertiesAndDependencyManagementFromParent() throws Exception {
+        pom("parent", "1", "<properties><b.version>3</b.version></properties>"
+                + "<dependencyManagement><dependencies>" + dependency("b", "${b.version}", "") + "</dependencies></dependencyManagement>");
+        pom("a", "1", "<parent><groupId>test</groupId><artifactId>parent</artifactId><version>1</version></parent>"
+                + "<dependencies>" + dependency("b", null, "") + dependency("c", "${project.version}", "") + "</dependencies>");
+        pom("b", "3", "");
+        pom("c", "1", "");
+
+        assertEquals(Arrays.asList(artifact("a", "1"), artifact("b", "3"), artifact("c", "1")),
+                graphResolver.resolve(Collections.singletonList(artifact("a", "1"))));
+    }
+
+    @Test
+    void failsOnCyclicParents() {
+        pom("a", "1", "<parent><groupId>test</groupId><artifactId>b</artifactId><version>1</version></parent>");
+        pom("b", "1", "<parent><groupId>test</groupId><artifactId>a</artifactId><version>1</version></parent>");
+
+        // Both POMs of the cycle are requested at the same time, so each of them is already being resolved when it is reached as a parent
+        Exception e = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> assertThrows(Exception.class, () -> graphResolver.resolve(Arrays.asList(artifact("a", "1"), artifact("b", "1")))));
+        assertTrue(e.getMessage().contains("form a cycle"), e.getMessage());
+    }
+
+    @Test
+    void importsBillOfMaterials() throws Exception {
+        pom("bom", "1", "<dependencyManagement><dependencies>" + dependency("b", "2", "") + "</dependencies></dependencyManagement>");
+        pom("a", "1", "<dependencyManagement><dependencies>" + dependency("bom", "1", "<type>pom</type><scope>import</scope>")
+                + "</dependencies></dependencyManagement><dependencies>" + dependency("b", null, "") + "</dependencies>");
+        pom("b", "2", "");
+
+        assertEquals(Arrays.asList(artifact("a", "1"), artifact("b", "2")), graphResolver.resolve(Collections.singletonList(artifact("a", "1"))));
+    }
+
+    @Test
+    void downloadsSharedPomsOnlyOnce() throws Exception {
+        pom("a", "1", "<dependencies>" + dependency("c", "1", "") + "</dependencies>");
+        pom("b", "1", "<dependencies>" + dependency("c", "1", "") + "</dependencies>");
+        pom("c", "1", "");
+
+        graphResolver.resolve(Arrays.asList(artifact("a", "1"), artifact("b", "1")));
+        graphResolver.resolve(Collections.singletonList(artifact("a", "1")));
+
+        assertEquals(3, requests.get());
+    }
+}
@@ -0,0 +1,107 @@
+package de.md5lukas.maven.resolver.listener;
+
+import de.md5lukas.maven.resolver.Artifact;
+import de.md5lukas.maven.resolver.ArtifactResolver;
+import de.md5lukas.maven.resolver.Repository;
+import de.md5lukas.maven.resolver.transport.InMemoryTransport;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResolutionMetricsTest {
+
+    private static final Repository FIRST = new Repository("first", "https://first.example.com/repository/");
+    private static final Repository SECOND = new Repository("second", "https://second.example.com/repository/");
+
+    @Test
+    void probesAreCountedPerRepository() throws Exception {
+        Artifact release = new Artifact("de.md5lukas.maven", "resolver", "1.0.0");
+
+        InMemoryTransport transport = new InMemoryTransport();
+        transport.put(SECOND.createURL(release.getPath()), new byte[]{1, 2, 3});
+
+        ResolutionMetrics metrics = new ResolutionMetrics();
+        ArtifactResolver resolver = new ArtifactResolver();
+        resolver.setTransport(transport);
+        resolver.addRepository(FIRST);
+        resolver.addRepository(SECOND);
+        resolver.addListener(metrics);
+
+        assertNotNull(resolver.resolveArtifactURL(release));
+        // The second repository is asked first now and the first one is known to not have the artifact
+        assertNotNull(resolver.resolveArtifactURL(release));
+
+        assertEquals(1, metrics.getRepositoryCacheMisses());
+        assertEquals(1, metrics.getRepositoryCacheHits());
+
+        RepositoryMetrics first = metrics.getRepositoryMetrics().get("first");
+        assertEquals(0, first.getFound());
+        assertEquals(1, first.getNotFound());
+
+        RepositoryMetrics second = metrics.getRepositoryMetrics().get("second");
+        assertEquals(2, second.getFound());
+        assertEquals(0, second.getFailed());
+        assertEquals(2, second.getLatency().getCount());
+    }
+
+    @Test
+    void snapshotCacheIsCounted() throws Exception {
+        Artifact snapshot = new Artifact("de.md5lukas.maven", "spigot", "1.0.0-SNAPSHOT");
+
+        InMemoryTransport transport = new InMemoryTransport();
+        transport.put(FIRST.createURL(snapshot.getSnapshotMetadataPath()), ("<metadata><versioning><snapshot>"
+                + "<timestamp>20201231.235959</timestamp><buildNumber>3</buildNumber></snapshot></versioning></metadata>").getBytes(StandardCharsets.UTF_8));
+        transport.put(FIRST.createURL(snapshot.getPath("1.0.0-20201231.235959-3")), new byte[]{4, 5, 6});
+
+        ResolutionMetrics metrics = new ResolutionMetrics();
+        ArtifactResolver resolver = new ArtifactResolver();
+        resolver.setTransport(transport);
+        resolver.addRepository(FIRST);
+        resolver.addListener(metrics);
+
+        assertNotNull(resolver.resolveArtifactURL(snapshot));
+        assertNotNull(resolver.resolveArtifactURL(snapshot));
+
+        assertEquals(1, metrics.getSnapshotCacheMisses());
+        assertEquals(1, metrics.getSnapshotCacheHits());
+    }
+
+    @Test
+    void brokenListenersDoNotBreakTheResolution() throws Exception {
+        Artifact release = new Artifact("de.md5lukas.maven", "resolver", "1.0.0");
+        InMemoryTransport transport = new InMemoryTransport();
+        transport.put(FIRST.createURL(release.getPath()), new byte[]{1, 2, 3});
+
+        ArtifactResolver resolver = new ArtifactResolver();
+        resolver.setTransport(transport);
+        resolver.addRepository(FIRST);
+        resolver.addListener(new ResolutionListener() {
+            @Override
+            public void onProbeStart(Artifact artifact, Repository repository) {
+                throw new IllegalStateException("Broken listener");
+            }
+        });
+
+        assertEquals(FIRST.createURL(release.getPath()), resolver.resolveArtifactURL(release));
+    }
+
+    @Test
+    void histogramReportsPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        histogram.record(TimeUnit.SECONDS.toNanos(2));
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(TimeUnit.SECONDS.toNanos(2), histogram.getMaxNanos());
+        // One millisecond falls into the bucket up to 1024 microseconds
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(1024), histogram.getPercentileNanos(50));
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(1024), histogram.getPercentileNanos(99));
+        assertEquals(TimeUnit.SECONDS.toNanos(2), histogram.getPercentileNanos(100));
+        assertEquals(0, new LatencyHistogram().getPercentileNanos(50));
+    }
+}
@@ -0,0 +1,30 @@
+package de.md5lukas.maven.resolver.transport;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.SocketTimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PooledTransportTest extends TransportTest {
+
+    @Override
+    protected Transport createTransport() {
+        return new PooledTransport();
+    }
+
+    @Test
+    void waitsForAFreeConnectionOnlyAsLongAsTheReadTimeout() throws Exception {
+        PooledTransport transport = new PooledTransport(1000, 200, 1);
+
+        try (Response response = transport.get(url("artifact.jar"))) {
+            assertEquals(200, response.getStatusCode());
+            assertThrows(SocketTimeoutException.class, () -> transport.get(url("artifact.jar")));
+        }
+
+        // The connection is free again once the response has been closed
+        try (Response response = transport.get(url("artifact.jar"))) {
+            assertEquals(200, response.getStatusCode());
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package de.md5lukas.maven.resolver.transport;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Behavior every transport has to provide, tested against a local HTTP server
+ */
+public abstract class TransportTest {
+
+    private static final byte[] CONTENT = "content of the artifact".getBytes(StandardCharsets.UTF_8);
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+
+    protected abstract Transport createTransport();
+
+    @BeforeEach
+    void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.createContext("/", exchange -> {
+            if (!"/artifact.jar".equals(exchange.getRequestURI().getPath())) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+
+            exchange.getResponseHeaders().add("ETag", "\"artifact\"");
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            byte[] body = CONTENT;
+            int status = 200;
+            if (range != null && range.startsWith("bytes=")) {
+                int offset = Integer.parseInt(range.substring("bytes=".length(), range.length() - 1));
+                exchange.getResponseHeaders().add("Content-Range", "bytes " + offset + '-' + (CONTENT.length - 1) + '/' + CONTENT.length);
+                body = Arrays.copyOfRange(CONTENT, offset, CONTENT.length);
+                status = 206;
+            }
+
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().add("Content-Length", Integer.toString(body.length));
+                exchange.sendResponseHeaders(status, -1);
+            } else {
+                exchange.sendResponseHeaders(status, body.length);
+                exchange.getResponseBody().write(body);
+            }
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    protected URL url(String path) throws IOException {
+        return new URL("http://127.0.0.1:" + server.getAddress().getPort() + '/' + path);
+    }
+
+    private static byte[] read(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            content.write(buffer, 0, read);
+        }
+        return content.toByteArray();
+    }
+
+    @Test
+    void getsBodyAndHeaders() throws Exception {
+        try (Response response = createTransport().get(url("artifact.jar"))) {
+            assertEquals(200, response.getStatusCode());
+            assertEquals(CONTENT.length, response.getContentLength());
+            assertEquals("\"artifact\"", response.getHeader("etag"));
+            assertArrayEquals(CONTENT, read(response.getBody()));
+        }
+    }
+
+    @Test
+    void headReportsStatusWithoutBody() throws Exception {
+        Transport transport = createTransport();
+
+        try (Response response = transport.head(url("artifact.jar"))) {
+            assertEquals(200, response.getStatusCode());
+            assertEquals("\"artifact\"", response.getHeader("ETag"));
+        }
+        try (Response response = transport.head(url("missing.jar"))) {
+            assertEquals(404, response.getStatusCode());
+        }
+    }
+
+    @Test
+    void sendsAdditionalHeaders() throws Exception {
+        try (Response response = createTransport().get(url("artifact.jar"), Collections.singletonMap("Range", "bytes=8-"))) {
+            assertEquals(206, response.getStatusCode());
+            assertEquals("bytes 8-" + (CONTENT.length - 1) + '/' + CONTENT.length, response.getHeader("Content-Range"));
+            assertArrayEquals(Arrays.copyOfRange(CONTENT, 8, CONTENT.length), read(response.getBody()));
+        }
+    }
+
+    @Test
+    void reportsMissingFiles() throws Exception {
+        try (Response response = createTransport().get(url("missing.jar"))) {
+            assertEquals(404, response.getStatusCode());
+        }
+    }
+
+    @Test
+    void connectionsCanBeReusedAfterClosingUnreadResponses() throws Exception {
+        Transport transport = createTransport();
+
+        for (int i = 0; i < 20; i++) {
+            try (Response response = transport.get(url("artifact.jar"))) {
+                assertEquals(200, response.getStatusCode());
+            }
+        }
+        try (Response response = transport.get(url("artifact.jar"))) {
+            assertArrayEquals(CONTENT, read(response.getBody()));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package de.md5lukas.maven.resolver.transport;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpClientTransportTest extends TransportTest {
+
+    @Override
+    protected Transport createTransport() {
+        return new HttpClientTransport();
+    }
+
+    @Test
+    void defaultTransportIsTheHttpClientTransport() {
+        // The Java 11 classes replace the Java 8 factory in the multi-release jar
+        assertTrue(TransportFactory.createDefault() instanceof HttpClientTransport);
+    }
+
+    @Test
+    void failsReadingBodyThatStallsAfterTheHeaders() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        HttpServer stalling = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stalling.createContext("/", exchange -> {
+            exchange.sendResponseHeaders(200, 1024);
+            exchange.getResponseBody().write(new byte[16]);
+            exchange.getResponseBody().flush();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ignored) {
+            }
+            exchange.close();
+        });
+        stalling.start();
+
+        try {
+            Transport transport = new HttpClientTransport(HttpClient.newHttpClient(), Duration.ofMillis(200));
+            try (Response response = transport.get(new URL("http://127.0.0.1:" + stalling.getAddress().getPort() + "/artifact.jar"))) {
+                assertEquals(200, response.getStatusCode());
+                InputStream body = response.getBody();
+                assertTimeoutPreemptively(Duration.ofSeconds(5), () -> assertThrows(SocketTimeoutException.class, () -> {
+                    byte[] buffer = new byte[1024];
+                    while (body.read(buffer) != -1) {
+                    }
+                }));
+            }
+        } finally {
+            release.countDown();
+            stalling.stop(0);
+        }
+    }
+}
@@ -2,3 +2,4 @@ rootProject.name = "maven-resolver"
 
 include(":resolver")
 include(":spigot")
+include(":benchmarks")
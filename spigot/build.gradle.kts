@@ -19,6 +19,9 @@ dependencies {
     compileOnly("org.jetbrains:annotations:20.1.0")
 
     api(project(":resolver"))
+
+    testImplementation(platform("org.junit:junit-bom:5.7.0"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
 }
 
 java {
@@ -32,6 +35,14 @@ tasks.withType<JavaCompile> {
     options.encoding = "UTF-8"
 }
 
+tasks.withType<Test> {
+    useJUnitPlatform()
+
+    testLogging {
+        events("passed", "skipped", "failed")
+    }
+}
+
 publishing {
     repositories {
         maven {
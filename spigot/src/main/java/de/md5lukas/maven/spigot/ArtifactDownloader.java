@@ -0,0 +1,184 @@
+package de.md5lukas.maven.spigot;
+
+import de.md5lukas.maven.resolver.Artifact;
+import de.md5lukas.maven.resolver.ArtifactResolver;
+import de.md5lukas.maven.resolver.MavenChecksum;
+import de.md5lukas.maven.resolver.ResolvedArtifact;
+import de.md5lukas.maven.resolver.jfr.EventSpan;
+import de.md5lukas.maven.resolver.jfr.FlightRecorderEvents;
+import de.md5lukas.maven.resolver.listener.ResolutionListener;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Logger;
+
+/**
+ * Downloads and verifies the files of artifacts for a dependency loader, while making sure that every file is only downloaded once by all dependency
+ * loaders and processes that share the folder
+ */
+final class ArtifactDownloader {
+
+    /**
+     * The downloads that are in progress by the absolute path of their target file, shared by all dependency loaders in the same class loader
+     */
+    private static final Map<String, CompletableFuture<Void>> IN_FLIGHT_DOWNLOADS = new ConcurrentHashMap<>();
+
+    @NotNull
+    private final Logger logger;
+
+    @NotNull
+    private final ArtifactResolver resolver;
+
+    @NotNull
+    private final IntegrityIndex integrityIndex;
+
+    @NotNull
+    private final MavenChecksum checksumAlgorithm;
+
+    private final int attempts;
+
+    ArtifactDownloader(@NotNull Logger logger, @NotNull ArtifactResolver resolver, @NotNull IntegrityIndex integrityIndex,
+                       @NotNull MavenChecksum checksumAlgorithm, int attempts) {
+        this.logger = logger;
+        this.resolver = resolver;
+        this.integrityIndex = integrityIndex;
+        this.checksumAlgorithm = checksumAlgorithm;
+        this.attempts = attempts;
+    }
+
+    /**
+     * Downloads the artifact, unless another dependency loader is already downloading the same file. In that case the file of the other download is used
+     * once it has been verified, and only downloaded again if the other download failed.
+     * <br><br>
+     * Other processes are coordinated through a {@link ProcessLock} on the file, so servers that start at the same time and share a folder download
+     * every file only once. The process that acquires the lock downloads the file, while the others wait for the lock and use the file once it has
+     * been verified. Without a checksum, the file is used if it did not exist before waiting for the lock.
+     *
+     * @throws DependencyNotFoundException If the checksum of the downloaded file does not match
+     * @throws Exception                   If the file could not be downloaded
+     */
+    void download(@NotNull Artifact artifact, @NotNull File artifactFile, @NotNull URL url, @Nullable ResolvedArtifact resolved,
+                  @Nullable byte[] expectedChecksum) throws Exception {
+        boolean present = artifactFile.isFile();
+        String key = artifactFile.getAbsoluteFile().toPath().normalize().toString();
+        CompletableFuture<Void> pending = new CompletableFuture<>();
+        CompletableFuture<Void> inFlight = IN_FLIGHT_DOWNLOADS.putIfAbsent(key, pending);
+
+        if (inFlight != null) {
+            this.logger.fine("Waiting for the download of artifact " + artifact.toString() + " that is already in progress");
+            try {
+                inFlight.get();
+            } catch (ExecutionException ignored) {
+                // The file is checked and downloaded again below
+            }
+
+            if (artifactFile.isFile() && (expectedChecksum == null || verify(artifact, artifactFile, expectedChecksum))) {
+                return;
+            }
+            download(artifact, artifactFile, url, resolved, expectedChecksum);
+            return;
+        }
+
+        try {
+            try (ProcessLock ignored = ProcessLock.acquire(artifactFile)) {
+                // Files are only moved into place once they are complete, so a file without a checksum that has appeared while waiting for the lock
+                // has been downloaded by the process that held the lock
+                if (artifactFile.isFile() && (expectedChecksum != null ? verify(artifact, artifactFile, expectedChecksum) : !present)) {
+                    this.logger.fine("Artifact " + artifact.toString() + " has been downloaded by another process");
+                } else {
+                    transferFile(artifact, artifactFile, url, resolved, expectedChecksum);
+                }
+            }
+            IN_FLIGHT_DOWNLOADS.remove(key, pending);
+            pending.complete(null);
+        } catch (Throwable t) {
+            IN_FLIGHT_DOWNLOADS.remove(key, pending);
+            pending.completeExceptionally(t);
+            throw t;
+        }
+    }
+
+    /**
+     * Downloads the artifact either from the already opened artifact or directly from the URL and reports the download to the listeners of the resolver
+     */
+    private void transferFile(Artifact artifact, File artifactFile, URL url, @Nullable ResolvedArtifact resolved, @Nullable byte[] expectedChecksum)
+            throws Exception {
+        ResolutionListener listener = this.resolver.getListener();
+        EventSpan span = FlightRecorderEvents.beginDownload(artifact, url);
+        if (resolved != null) {
+            span.setRepository(resolved.getRepository().getName());
+        }
+        span.setOutcome(EventSpan.OUTCOME_FAILED);
+        long start = System.nanoTime();
+        TimedMessageDigest messageDigest = new TimedMessageDigest(this.checksumAlgorithm.getMessageDigest());
+        boolean verified;
+
+        try {
+            try {
+                if (resolved != null) {
+                    verified = Helpers.downloadFile(artifactFile, resolved, this.resolver.getTransport(), messageDigest, expectedChecksum,
+                            this.attempts);
+                } else {
+                    verified = Helpers.downloadFile(artifactFile, url, this.resolver.getTransport(), messageDigest, expectedChecksum,
+                            this.attempts);
+                }
+            } catch (Exception e) {
+                listener.onDownloadFailed(artifact, url, e, System.nanoTime() - start);
+                throw e;
+            }
+
+            span.setBytes(artifactFile.length());
+
+            if (expectedChecksum != null) {
+                // The checksum has been computed while downloading, so only the time spent in the digest is reported
+                listener.onChecksumVerified(artifact, this.checksumAlgorithm, verified, messageDigest.getNanos());
+            }
+
+            if (!verified) {
+                span.setOutcome(EventSpan.OUTCOME_INVALID);
+                DependencyNotFoundException e = new DependencyNotFoundException("Could not verify checksum of artifact " + artifact.toString()
+                        + " downloaded from " + url.toString());
+                listener.onDownloadFailed(artifact, url, e, System.nanoTime() - start);
+                throw e;
+            }
+
+            span.setOutcome(EventSpan.OUTCOME_FOUND);
+            listener.onDownloadComplete(artifact, url, artifactFile.length(), System.nanoTime() - start);
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Verifies a file that is already present against the checksum, using the integrity index to avoid hashing unchanged files again. Files that do
+     * not match are removed from the integrity index, so it only vouches for files that have been accepted.
+     *
+     * @return Whether the file matches the checksum
+     * @throws IOException If the file could not be read
+     */
+    boolean verify(@NotNull Artifact artifact, @NotNull File artifactFile, @NotNull byte[] expectedChecksum) throws IOException {
+        EventSpan span = FlightRecorderEvents.beginChecksumVerification(artifact, this.checksumAlgorithm);
+        span.setOutcome(EventSpan.OUTCOME_FAILED);
+        long start = System.nanoTime();
+        try {
+            boolean valid = MessageDigest.isEqual(expectedChecksum, this.integrityIndex.digest(artifactFile, this.checksumAlgorithm));
+            if (!valid) {
+                this.integrityIndex.remove(artifactFile);
+            }
+            this.resolver.getListener().onChecksumVerified(artifact, this.checksumAlgorithm, valid, System.nanoTime() - start);
+            span.setBytes(artifactFile.length());
+            span.setOutcome(valid ? EventSpan.OUTCOME_VALID : EventSpan.OUTCOME_INVALID);
+            return valid;
+        } finally {
+            span.end();
+        }
+    }
+}
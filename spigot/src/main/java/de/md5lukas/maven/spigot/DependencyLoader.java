@@ -1,17 +1,44 @@
 package de.md5lukas.maven.spigot;
 
+import com.google.common.io.BaseEncoding;
 import de.md5lukas.maven.resolver.Artifact;
+import de.md5lukas.maven.resolver.ArtifactLocation;
 import de.md5lukas.maven.resolver.ArtifactResolver;
+import de.md5lukas.maven.resolver.ArtifactResult;
 import de.md5lukas.maven.resolver.MavenChecksum;
 import de.md5lukas.maven.resolver.Repository;
+import de.md5lukas.maven.resolver.RepositoryHealth;
+import de.md5lukas.maven.resolver.RepositoryStatistics;
+import de.md5lukas.maven.resolver.ResolvedArtifact;
+import de.md5lukas.maven.resolver.cache.FileSnapshotCache;
+import de.md5lukas.maven.resolver.cache.SimpleSnapshotCache;
+import de.md5lukas.maven.resolver.cache.SnapshotCache;
+import de.md5lukas.maven.resolver.graph.DependencyGraphResolver;
+import de.md5lukas.maven.resolver.listener.ResolutionMetrics;
+import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.NonNull;
 import lombok.SneakyThrows;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -19,6 +46,10 @@ import java.util.logging.Logger;
  */
 public final class DependencyLoader {
 
+    private static final long SNAPSHOT_CACHE_TTL = TimeUnit.DAYS.toMillis(1);
+
+    private static final String REPOSITORY_STATISTICS_FILE_NAME = "repository-stats.tsv";
+
     /**
      * Creates a new dependency loader for the given plugin
      *
@@ -35,12 +66,39 @@ public final class DependencyLoader {
     @NotNull
     private final Logger logger;
 
+    @Getter(AccessLevel.PACKAGE)
     @NotNull
     private final ArtifactResolver resolver;
 
+    /**
+     * The metrics of all resolutions done by this dependency loader. The metrics are only collected while the dependencies are being loaded.
+     * <br><br>
+     * If the resolver is {@link MavenResolver#shareResolver() shared}, these are the metrics of the shared resolver instead, which include the
+     * resolutions of all plugins that use it since it has been created.
+     *
+     * @return The collected metrics
+     */
+    @Getter
+    @NotNull
+    private final ResolutionMetrics metrics;
+
+    private final boolean sharedResolver;
+
     @NotNull
     private final File libFolder;
 
+    @NotNull
+    private final File lockFile;
+
+    @NotNull
+    private final IntegrityIndex integrityIndex;
+
+    @Nullable
+    private final File repositoryStatisticsFile;
+
+    @NotNull
+    private final List<Repository> repositories;
+
     @NotNull
     private final Map<Artifact, File> artifacts;
 
@@ -49,13 +107,53 @@ public final class DependencyLoader {
 
     private final boolean ignoreNotFoundChecksum;
 
+    private final int downloadThreads;
+
+    private final boolean resolveTransitive;
+
+    private final boolean lockDependencies;
+
+    private final boolean isolateDependencies;
+
+    @Nullable
+    private final SharedStore sharedStore;
+
+    @NotNull
+    private final ArtifactDownloader downloader;
+
+    @NotNull
+    private final String fingerprint;
+
+    private boolean refreshLock;
+
+    /**
+     * The class loader the dependencies have been loaded into, if {@link MavenResolver#isolateDependencies()} is enabled. A new class loader is
+     * created every time the dependencies are loaded, and the previous one is closed.
+     *
+     * @return The class loader of the dependencies or <code>null</code> if they have not been loaded into a separate class loader
+     */
+    @Getter
+    @Nullable
+    private volatile LibraryClassLoader libraryClassLoader;
+
+    @NotNull
+    private final LoadCoordinator loads = new LoadCoordinator(new DownloadThreadFactory());
+
     private DependencyLoader(@NotNull Plugin plugin) {
-        this.clazz = plugin.getClass();
-        this.logger = plugin.getLogger();
+        this(plugin, plugin.getClass());
+    }
 
-        this.resolver = new ArtifactResolver();
+    /**
+     * Creates a dependency loader that reads the annotations from the provided class instead of the class of the plugin
+     */
+    DependencyLoader(@NotNull Plugin plugin, @NotNull Class<? extends Plugin> clazz) {
+        this.clazz = clazz;
+        this.logger = plugin.getLogger();
 
         this.libFolder = new File(plugin.getDataFolder(), "lib");
+        this.lockFile = new File(plugin.getDataFolder(), LockFile.FILE_NAME);
+        this.integrityIndex = loadIntegrityIndex(new File(plugin.getDataFolder(), IntegrityIndex.FILE_NAME));
+        this.repositories = new ArrayList<>();
 
         if (!this.libFolder.exists()) {
             logger.info("Creating folder " + this.libFolder.getAbsolutePath());
@@ -71,67 +169,541 @@ public final class DependencyLoader {
         }
 
         if (resolverAnnotation.useMavenCentral()) {
-            this.resolver.addRepository(Repository.MAVEN_CENTRAL);
+            this.repositories.add(Repository.MAVEN_CENTRAL);
         }
         if (resolverAnnotation.useSonatype()) {
-            this.resolver.addRepository(Repository.SONATYPE);
+            this.repositories.add(Repository.SONATYPE);
+        }
+        this.loadCustomRepositories();
+
+        this.sharedResolver = resolverAnnotation.shareResolver();
+        if (this.sharedResolver) {
+            ResolverService service = ResolverService.getOrRegister(plugin, () -> createSnapshotCache(plugin, resolverAnnotation));
+            this.resolver = service.getResolver(this.repositories);
+            // The shared resolver collects the metrics of all plugins that use it, because their resolutions cannot be told apart
+            this.metrics = service.getMetrics(this.resolver);
+        } else {
+            this.resolver = createResolver(plugin, resolverAnnotation);
+            this.metrics = new ResolutionMetrics();
+        }
+
+        this.repositoryStatisticsFile = resolverAnnotation.adaptiveRepositoryOrder()
+                ? new File(plugin.getDataFolder(), REPOSITORY_STATISTICS_FILE_NAME) : null;
+        // A shared resolver keeps the server-wide statistics it has been given by the plugin that has enabled them first
+        if (this.repositoryStatisticsFile != null && this.resolver.getRepositoryStatistics() == null) {
+            this.resolver.setRepositoryStatistics(loadRepositoryStatistics(this.repositoryStatisticsFile));
         }
+
         this.checksumAlgorithm = resolverAnnotation.checksumAlgorithm();
         this.ignoreNotFoundChecksum = resolverAnnotation.ignoreNotFoundChecksum();
+        this.downloadThreads = Math.max(1, resolverAnnotation.downloadThreads());
+        this.resolveTransitive = resolverAnnotation.resolveTransitive();
+        this.lockDependencies = resolverAnnotation.lockDependencies();
+        this.isolateDependencies = resolverAnnotation.isolateDependencies();
+        this.sharedStore = resolverAnnotation.useSharedStore() ? SharedStore.createDefault() : null;
+        this.downloader = new ArtifactDownloader(this.logger, this.resolver, this.integrityIndex, this.checksumAlgorithm,
+                Math.max(1, resolverAnnotation.downloadAttempts()));
 
-        this.loadCustomRepositories();
         this.artifacts = this.getArtifacts();
+        this.fingerprint = this.createFingerprint();
     }
 
     /**
      * Loads all required dependencies and throws an exception if it fails to do that
+     * <br><br>
+     * Missing dependencies are resolved, downloaded and verified concurrently, limited by {@link MavenResolver#downloadThreads()}. Each dependency is
+     * hashed while it is downloaded and only moved into the library folder once its checksum has been verified. Interrupted downloads are continued
+     * where they stopped, both on retries and on the next start. The dependencies are always added to the classpath in the order they are declared in,
+     * followed by the transitive dependencies if {@link MavenResolver#resolveTransitive()} is enabled.
+     * <br><br>
+     * If {@link MavenResolver#lockDependencies()} is enabled, the result of the resolution is written to a lock file. On later starts the local files
+     * are only compared with the lock file, as long as the annotations have not changed since it has been written. Files that do not match the lock file
+     * are downloaded again from the locked URL.
+     * <br><br>
+     * The digests of the local files are kept in an index together with their size, modification time and file key, so only files that have changed
+     * since the last start are hashed again. Those files are hashed in parallel. Files that have been accepted before and have not changed since are
+     * used without requesting their checksums again, so if {@link MavenResolver#lockDependencies()} is disabled, the repositories are only contacted for
+     * dependencies that are missing or have changed.
+     * <br><br>
+     * If {@link MavenResolver#useSharedStore()} is enabled, the dependencies are downloaded into a store shared by all plugins of the host and linked
+     * into the library folder from there, so a dependency that has already been downloaded by another plugin is not downloaded again.
+     * <br><br>
+     * If the dependencies are already being loaded by {@link #loadAllAsync()}, that load is waited for and the dependencies are added to the classpath
+     * as if {@link #injectAll()} had been called.
      *
-     * @throws Exception If and exception occurred while downloading the dependencies or one could not be found or verified
+     * @throws Exception             If and exception occurred while downloading the dependencies or one could not be found or verified
+     * @throws IllegalStateException If another thread is already loading the dependencies with this method
+     * @see #loadAllAsync() To download the dependencies without blocking the calling thread
      */
     public void loadAllChecked() throws Exception {
-        List<Map.Entry<Artifact, File>> requiredArtifacts = getRequiredArtifacts();
+        this.loads.load(this::resolveAll, this::addToClasspath);
+    }
 
-        for (Map.Entry<Artifact, File> required : requiredArtifacts) {
-            Artifact artifact = required.getKey();
-            File artifactFile = required.getValue();
-            this.logger.fine("Downloading artifact " + artifact.toString() + " to " + artifactFile.getAbsolutePath());
+    /**
+     * Starts to resolve, download and verify all required dependencies in the same way as {@link #loadAllChecked()}, but on a separate thread, so the
+     * plugin can continue with initialisation that does not need the dependencies in the meantime.
+     * <br><br>
+     * The dependencies are not added to the classpath by the returned future. That only happens once {@link #injectAll()} is called, which should be
+     * done by the thread that initialises the parts of the plugin that use them, for example at the start of <code>onEnable</code> if this method has
+     * been called in <code>onLoad</code>.
+     *
+     * @return A future that completes once all dependencies have been downloaded and verified, or completes exceptionally if that failed
+     * @throws IllegalStateException If the dependencies are already being loaded
+     */
+    @NotNull
+    public CompletableFuture<Void> loadAllAsync() {
+        return this.loads.loadAsync(this::resolveAll);
+    }
+
+    /**
+     * Waits for the dependencies that are loaded by {@link #loadAllAsync()} and adds them to the classpath of the plugin
+     *
+     * @throws Exception             If an exception occurred while downloading the dependencies or one could not be found or verified
+     * @throws IllegalStateException If {@link #loadAllAsync()} has not been called before
+     */
+    public void injectAll() throws Exception {
+        this.loads.inject(this::addToClasspath);
+    }
+
+    private void resolveAll() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(this.downloadThreads, new DownloadThreadFactory());
+        // The download threads wait for the checksums, so the checksums are read on their own threads
+        ExecutorService checksumExecutor = Executors.newFixedThreadPool(this.downloadThreads, new DownloadThreadFactory());
+        // The metrics of a shared resolver are always listening
+        if (!this.sharedResolver) {
+            this.resolver.addListener(this.metrics);
+        }
+
+        try {
+            LockFile lock = this.lockDependencies && !this.refreshLock ? readLockFile() : null;
+
+            if (lock != null) {
+                applyLockFile(lock, executor);
+            } else {
+                if (this.resolveTransitive) {
+                    resolveTransitiveArtifacts(executor);
+                }
+
+                // Files that have been accepted on an earlier start and have not changed since are used without asking the repositories again
+                List<Artifact> unverified = new ArrayList<>();
+                for (Map.Entry<Artifact, File> entry : this.artifacts.entrySet()) {
+                    if (!this.integrityIndex.contains(entry.getValue(), this.checksumAlgorithm)) {
+                        unverified.add(entry.getKey());
+                    }
+                }
+
+                Map<Artifact, CompletableFuture<byte[]>> checksums = downloadChecksums(unverified, checksumExecutor);
+                List<LockFile.Entry> entries = runAll(new ArrayList<>(this.artifacts.entrySet()), executor, entry -> resolve(entry.getKey(),
+                        entry.getValue(), checksums.getOrDefault(entry.getKey(), CompletableFuture.completedFuture(null))));
+
+                if (this.lockDependencies) {
+                    writeLockFile(new LockFile(this.fingerprint, entries));
+                }
+                this.refreshLock = false;
+            }
+        } finally {
+            executor.shutdownNow();
+            checksumExecutor.shutdownNow();
+            if (!this.sharedResolver) {
+                this.resolver.removeListener(this.metrics);
+            }
+            saveIntegrityIndex();
+            saveRepositoryStatistics();
+        }
+    }
+
+    private void addToClasspath(long start) throws IOException {
+        if (this.isolateDependencies) {
+            this.logger.fine("Creating library class loader for " + this.artifacts.size() + " artifacts");
+            LibraryClassLoader previous = this.libraryClassLoader;
+            this.libraryClassLoader = new LibraryClassLoader(new ArrayList<>(this.artifacts.values()), clazz.getClassLoader());
+            if (previous != null) {
+                closeLibraryClassLoader(previous);
+            }
+        } else {
+            for (Map.Entry<Artifact, File> artifactEntry : this.artifacts.entrySet()) {
+                this.logger.fine("Loading artifact " + artifactEntry.getKey().toString() + " from file " + artifactEntry.getValue().getAbsolutePath());
+                Helpers.loadJar(clazz, artifactEntry.getValue());
+                this.logger.info("Loaded artifact " + artifactEntry.getKey().toString());
+            }
+        }
+
+        this.logger.info("Loaded " + this.artifacts.size() + " dependencies in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+        this.logger.fine("Resolution metrics: " + this.metrics.toString());
+        for (RepositoryHealth health : this.resolver.getRepositoryHealth()) {
+            if (!health.isAvailable()) {
+                this.logger.warning("Repository " + health.getRepository().getName() + " has been skipped after " + health.getConsecutiveFailures()
+                        + " failed requests");
+            }
+        }
+    }
+
+    /**
+     * Closes the class loader the dependencies have been loaded into if {@link MavenResolver#isolateDependencies()} is enabled, which releases the
+     * jars of the dependencies. This should be called when the plugin is disabled. Classes that have already been loaded can still be used, but no
+     * further classes can be loaded from the dependencies until they are loaded again.
+     * <br><br>
+     * Dependencies that have been added to the class loader of the plugin are released together with the class loader of the plugin.
+     */
+    public void close() {
+        LibraryClassLoader loader = this.libraryClassLoader;
+        this.libraryClassLoader = null;
+        if (loader != null) {
+            closeLibraryClassLoader(loader);
+        }
+    }
+
+    private void closeLibraryClassLoader(LibraryClassLoader loader) {
+        try {
+            loader.close();
+        } catch (IOException e) {
+            this.logger.log(Level.WARNING, "Could not close the library class loader", e);
+        }
+    }
+
+    /**
+     * Gets the health of all repositories, to see which repositories are skipped because too many requests to them have failed
+     *
+     * @return The current health of all repositories
+     * @see ArtifactResolver#getRepositoryHealth()
+     */
+    @NotNull
+    public List<RepositoryHealth> getRepositoryHealth() {
+        return this.resolver.getRepositoryHealth();
+    }
+
+    /**
+     * Ignores the lock file the next time the dependencies are loaded, so they are resolved again and the lock file is replaced with the new result.
+     * <br><br>
+     * Snapshot dependencies are resolved to the newest version that is known to the snapshot cache.
+     *
+     * @return This dependency loader
+     */
+    @NotNull
+    public DependencyLoader refreshLock() {
+        this.refreshLock = true;
+        return this;
+    }
+
+    private void resolveTransitiveArtifacts(ExecutorService executor) throws Exception {
+        DependencyGraphResolver graphResolver = new DependencyGraphResolver(this.resolver, executor);
+
+        for (Artifact artifact : graphResolver.resolve(new ArrayList<>(this.artifacts.keySet()))) {
+            if (!this.artifacts.containsKey(artifact)) {
+                this.logger.fine("Detected transitive artifact " + artifact.toString());
+                this.artifacts.put(artifact, new File(this.libFolder, artifact.getFileName()));
+            }
+        }
+    }
+
+    private <S, T> List<T> runAll(List<S> sources, ExecutorService executor, Task<S, T> task) throws Exception {
+        List<Future<T>> futures = new ArrayList<>(sources.size());
+        List<T> results = new ArrayList<>(sources.size());
+        List<Exception> exceptions = new ArrayList<>();
+
+        for (S source : sources) {
+            futures.add(executor.submit(() -> task.run(source)));
+        }
 
-            URL artifactURL = this.resolver.resolveArtifactURL(artifact);
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    exceptions.add((Exception) cause);
+                } else {
+                    exceptions.add(e);
+                }
+            }
+        }
+
+        if (exceptions.size() == 1) {
+            throw exceptions.get(0);
+        } else if (!exceptions.isEmpty()) {
+            Exception e = new Exception("Multiple errors occurred while trying to download the required dependencies");
+            exceptions.forEach(e::addSuppressed);
+            throw e;
+        }
+
+        return results;
+    }
 
-            if (artifactURL == null) {
+    private LockFile.Entry resolve(Artifact artifact, File artifactFile, CompletableFuture<byte[]> checksum) throws Exception {
+        byte[] expectedChecksum;
+        try {
+            expectedChecksum = checksum.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+
+        if (artifactFile.isFile() && (expectedChecksum == null || this.downloader.verify(artifact, artifactFile, expectedChecksum))) {
+            this.logger.fine("Artifact " + artifact.toString() + " is found at " + artifactFile.getAbsolutePath());
+
+            // The origin of a present artifact is only needed for the lock file, so it is located without downloading it again
+            if (!this.lockDependencies) {
+                return null;
+            }
+
+            ArtifactLocation location = this.resolver.locateArtifact(artifact);
+            if (location == null) {
                 throw new DependencyNotFoundException("Could not find artifact " + artifact.toString());
             }
+            return createLockEntry(artifact, artifactFile, location.getRepository(), location.getVersion(), location.getUrl(), expectedChecksum);
+        }
 
-            Helpers.downloadFile(artifactFile, artifactURL);
+        try (ResolvedArtifact resolved = this.resolver.openArtifact(artifact)) {
+            if (resolved == null) {
+                throw new DependencyNotFoundException("Could not find artifact " + artifact.toString());
+            }
 
-            this.logger.info("Downloaded artifact " + artifact.toString());
+            download(artifact, artifactFile, resolved.getVersion(), resolved.getUrl(), resolved, expectedChecksum);
+            return createLockEntry(artifact, artifactFile, resolved.getRepository(), resolved.getVersion(), resolved.getUrl(), expectedChecksum);
+        }
+    }
+
+    private LockFile.Entry createLockEntry(Artifact artifact, File artifactFile, Repository repository, String version, URL url,
+                                           @Nullable byte[] expectedChecksum) throws IOException {
+        return new LockFile.Entry(
+                artifact,
+                repository.getName(),
+                repository.getUrl().toString(),
+                version,
+                url,
+                artifactFile.length(),
+                expectedChecksum != null ? expectedChecksum : this.integrityIndex.digest(artifactFile, this.checksumAlgorithm)
+        );
+    }
 
+    /**
+     * Looks up and reads the checksum artifacts of all artifacts in a single batch, so the repositories are asked in one planned phase with a limited
+     * amount of connections per host, instead of once per artifact
+     */
+    private Map<Artifact, CompletableFuture<byte[]>> downloadChecksums(Collection<Artifact> artifacts, ExecutorService executor) {
+        List<Artifact> checksumArtifacts = new ArrayList<>(artifacts.size());
+        for (Artifact artifact : artifacts) {
+            checksumArtifacts.add(artifact.getChecksumArtifact(this.checksumAlgorithm));
+        }
+
+        CompletableFuture<Map<Artifact, ArtifactResult<byte[]>>> batch = this.resolver.readAllAsync(checksumArtifacts, executor, this::readChecksum);
+
+        Map<Artifact, CompletableFuture<byte[]>> checksums = new HashMap<>();
+        for (Artifact artifact : artifacts) {
             Artifact checksumArtifact = artifact.getChecksumArtifact(this.checksumAlgorithm);
-            URL checksumArtifactURL = resolver.resolveArtifactURL(checksumArtifact);
+            checksums.put(artifact, batch.thenApply(results -> {
+                try {
+                    return getChecksum(checksumArtifact, results.get(checksumArtifact));
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }));
+        }
+        return checksums;
+    }
 
-            if (checksumArtifactURL != null) {
-                this.logger.fine("Downloading checksum artifact " + checksumArtifact.toString());
+    private byte[] readChecksum(ResolvedArtifact resolvedChecksum) throws Exception {
+        this.logger.fine("Downloading checksum artifact " + resolvedChecksum.getArtifact().toString());
 
-                byte[] loadedChecksum = Helpers.readChecksum(checksumArtifactURL);
+        byte[] checksum = Helpers.readChecksum(resolvedChecksum.getInputStream());
 
-                byte[] actualChecksum = Helpers.digestFile(checksumAlgorithm.getMessageDigest(), artifactFile);
+        if (checksum == null) {
+            throw new DependencyNotFoundException("Checksum artifact " + resolvedChecksum.getArtifact().toString() + " is empty");
+        }
+        return checksum;
+    }
 
-                if (!Arrays.equals(loadedChecksum, actualChecksum)) {
-                    throw new DependencyNotFoundException("Could not verify checksum of artifact " + artifact.toString() + " downloaded from " + artifactURL.toString());
-                }
+    private byte[] getChecksum(Artifact checksumArtifact, ArtifactResult<byte[]> result) throws Exception {
+        if (result.getError() != null) {
+            throw result.getError();
+        }
 
-                this.logger.info("Verified checksum of artifact " + artifact.toString());
-            } else if (!this.ignoreNotFoundChecksum) {
-                throw new DependencyNotFoundException("Could not find checksum artifact " + checksumArtifact.toString());
+        if (result.getValue() != null) {
+            return result.getValue();
+        } else if (!this.ignoreNotFoundChecksum) {
+            throw new DependencyNotFoundException("Could not find checksum artifact " + checksumArtifact.toString());
+        } else {
+            this.logger.warning("Could not find checksum artifact " + checksumArtifact.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Downloads the artifact into the library folder. If the shared store is used and the checksum of the artifact is known, the artifact is taken from
+     * the store instead, after it has been downloaded into the store if it is not already present there.
+     */
+    private void download(Artifact artifact, File artifactFile, String version, URL url, @Nullable ResolvedArtifact resolved,
+                          @Nullable byte[] expectedChecksum) throws Exception {
+        if (this.sharedStore != null && expectedChecksum != null) {
+            File storeFile = this.sharedStore.getFile(artifact, version);
+
+            if (storeFile.isFile() && this.downloader.verify(artifact, storeFile, expectedChecksum)) {
+                this.logger.fine("Artifact " + artifact.toString() + " is found in the shared store at " + storeFile.getAbsolutePath());
             } else {
-                this.logger.warning("Could not find checksum artifact " + checksumArtifact.toString());
+                File storeFolder = storeFile.getParentFile();
+                if (!storeFolder.isDirectory() && !storeFolder.mkdirs() && !storeFolder.isDirectory()) {
+                    throw new IOException("Could not create folder " + storeFolder.getAbsolutePath() + " in the shared store");
+                }
+
+                this.logger.fine("Downloading artifact " + artifact.toString() + " to " + storeFile.getAbsolutePath());
+                this.downloader.download(artifact, storeFile, url, resolved, expectedChecksum);
+                this.logger.info("Downloaded artifact " + artifact.toString() + " into the shared store");
+            }
+
+            if (!this.sharedStore.link(storeFile, artifactFile)) {
+                this.logger.fine("Could not create a hard link to " + storeFile.getAbsolutePath() + ", copied the file instead");
+            }
+        } else {
+            this.logger.fine("Downloading artifact " + artifact.toString() + " to " + artifactFile.getAbsolutePath());
+            this.downloader.download(artifact, artifactFile, url, resolved, expectedChecksum);
+            this.logger.info("Downloaded artifact " + artifact.toString());
+        }
+
+        if (expectedChecksum != null) {
+            this.integrityIndex.record(artifactFile, this.checksumAlgorithm, expectedChecksum);
+            this.logger.info("Verified checksum of artifact " + artifact.toString());
+        }
+    }
+
+    private LockFile readLockFile() {
+        LockFile lock;
+        try {
+            lock = LockFile.read(this.lockFile);
+        } catch (IOException e) {
+            this.logger.log(Level.WARNING, "Could not read the lock file " + this.lockFile.getAbsolutePath() + ", resolving the dependencies again", e);
+            return null;
+        }
+
+        if (lock != null && !lock.getFingerprint().equals(this.fingerprint)) {
+            this.logger.info("The dependencies have changed since the lock file has been written, resolving them again");
+            return null;
+        }
+
+        return lock;
+    }
+
+    private void writeLockFile(LockFile lock) {
+        try {
+            lock.write(this.lockFile);
+        } catch (IOException e) {
+            this.logger.log(Level.WARNING, "Could not write the lock file " + this.lockFile.getAbsolutePath(), e);
+        }
+    }
+
+    private void applyLockFile(LockFile lock, ExecutorService executor) throws Exception {
+        this.logger.fine("Loading dependencies from lock file " + this.lockFile.getAbsolutePath());
+
+        // Hashing is limited by the CPU instead of the network, so the files are checked using the common pool instead of the download threads
+        List<Boolean> valid = runAll(lock.getEntries(), ForkJoinPool.commonPool(), this::isLockedFileValid);
+
+        List<LockFile.Entry> invalid = new ArrayList<>();
+        for (int i = 0; i < valid.size(); i++) {
+            if (!valid.get(i)) {
+                invalid.add(lock.getEntries().get(i));
             }
         }
 
-        for (Map.Entry<Artifact, File> artifactEntry : this.artifacts.entrySet()) {
-            this.logger.fine("Loading artifact " + artifactEntry.getKey().toString() + " from file " + artifactEntry.getValue().getAbsolutePath());
-            Helpers.loadJar(clazz, artifactEntry.getValue());
-            this.logger.info("Loaded artifact " + artifactEntry.getKey().toString());
+        if (!invalid.isEmpty()) {
+            runAll(invalid, executor, this::downloadLocked);
+        }
+
+        this.artifacts.clear();
+        for (LockFile.Entry entry : lock.getEntries()) {
+            this.artifacts.put(entry.getArtifact(), new File(this.libFolder, entry.getArtifact().getFileName()));
+        }
+    }
+
+    private boolean isLockedFileValid(LockFile.Entry entry) throws IOException {
+        Artifact artifact = entry.getArtifact();
+        File artifactFile = new File(this.libFolder, artifact.getFileName());
+
+        if (artifactFile.isFile() && artifactFile.length() == entry.getSize() && this.downloader.verify(artifact, artifactFile, entry.getChecksum())) {
+            this.logger.fine("Artifact " + artifact.toString() + " matches the lock file");
+            return true;
+        }
+        return false;
+    }
+
+    private Void downloadLocked(LockFile.Entry entry) throws Exception {
+        Artifact artifact = entry.getArtifact();
+        File artifactFile = new File(this.libFolder, artifact.getFileName());
+
+        this.logger.fine("Downloading locked artifact " + artifact.toString() + " from " + entry.getUrl().toString());
+
+        download(artifact, artifactFile, entry.getVersion(), entry.getUrl(), null, entry.getChecksum());
+        return null;
+    }
+
+    private IntegrityIndex loadIntegrityIndex(File file) {
+        IntegrityIndex index = new IntegrityIndex(file);
+        try {
+            index.load();
+        } catch (IOException e) {
+            this.logger.log(Level.WARNING, "Could not read the integrity index " + file.getAbsolutePath() + ", all libraries will be hashed again", e);
+        }
+        return index;
+    }
+
+    private void saveIntegrityIndex() {
+        this.integrityIndex.retain(this.artifacts.values());
+        try {
+            this.integrityIndex.save();
+        } catch (IOException e) {
+            this.logger.log(Level.WARNING, "Could not write the integrity index", e);
+        }
+    }
+
+    private RepositoryStatistics loadRepositoryStatistics(@NotNull File file) {
+        RepositoryStatistics statistics = new RepositoryStatistics();
+        try {
+            statistics.load(file);
+        } catch (IOException e) {
+            this.logger.log(Level.WARNING, "Could not read the repository statistics " + file.getAbsolutePath(), e);
+        }
+        return statistics;
+    }
+
+    /**
+     * Saves the statistics of the resolver if this plugin has enabled them. A shared resolver only has a single server-wide instance of the statistics,
+     * which is saved by every plugin that has enabled them, so whichever of these plugins loads first on the next start continues with all of them.
+     */
+    private void saveRepositoryStatistics() {
+        File file = this.repositoryStatisticsFile;
+        RepositoryStatistics statistics = this.resolver.getRepositoryStatistics();
+        if (file == null || statistics == null) {
+            return;
+        }
+        try {
+            statistics.save(file);
+        } catch (IOException e) {
+            this.logger.log(Level.WARNING, "Could not write the repository statistics " + file.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Creates a fingerprint of everything declared in the annotations that has an influence on the result of the resolution. Must be called before
+     * the transitive dependencies have been added.
+     */
+    private String createFingerprint() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("checksum=").append(this.checksumAlgorithm.name()).append('\n');
+        sb.append("transitive=").append(this.resolveTransitive).append('\n');
+        for (Repository repository : this.repositories) {
+            sb.append("repository=").append(repository.getName()).append(' ').append(repository.getUrl()).append('\n');
+        }
+        for (Artifact artifact : this.artifacts.keySet()) {
+            sb.append("artifact=").append(artifact.toString()).append('\n');
+        }
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+            return BaseEncoding.base16().lowerCase().encode(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
         }
     }
 
@@ -143,17 +715,37 @@ public final class DependencyLoader {
         loadAllChecked();
     }
 
+    private ArtifactResolver createResolver(Plugin plugin, MavenResolver resolverAnnotation) {
+        ArtifactResolver resolver = new ArtifactResolver(createSnapshotCache(plugin, resolverAnnotation));
+        this.repositories.forEach(resolver::addRepository);
+        return resolver;
+    }
+
+    private SnapshotCache createSnapshotCache(Plugin plugin, MavenResolver resolverAnnotation) {
+        if (!resolverAnnotation.persistSnapshotCache()) {
+            return new SimpleSnapshotCache(SNAPSHOT_CACHE_TTL);
+        }
+
+        File file = new File(plugin.getDataFolder(), "snapshot-cache.log");
+        try {
+            return new FileSnapshotCache(file, SNAPSHOT_CACHE_TTL);
+        } catch (IOException e) {
+            this.logger.log(Level.WARNING, "Could not load the snapshot cache from " + file.getAbsolutePath(), e);
+            return new SimpleSnapshotCache(SNAPSHOT_CACHE_TTL);
+        }
+    }
+
     private void loadCustomRepositories() {
         for (MavenRepository repository : clazz.getAnnotationsByType(MavenRepository.class)) {
             Repository repo = new Repository(repository.name(), repository.url());
             this.logger.fine("Detected annotated repository " + repo.toString());
-            this.resolver.addRepository(repo);
+            this.repositories.add(repo);
         }
     }
 
     private Map<Artifact, File> getArtifacts() {
         MavenDependency[] annotations = clazz.getAnnotationsByType(MavenDependency.class);
-        Map<Artifact, File> result = new HashMap<>(annotations.length);
+        Map<Artifact, File> result = new LinkedHashMap<>(annotations.length);
 
         for (MavenDependency dep : annotations) {
             Artifact artifact = new Artifact(
@@ -170,18 +762,8 @@ public final class DependencyLoader {
         return result;
     }
 
-    private List<Map.Entry<Artifact, File>> getRequiredArtifacts() {
-        List<Map.Entry<Artifact, File>> required = new ArrayList<>();
-
-        for (Map.Entry<Artifact, File> artifactEntry : artifacts.entrySet()) {
-            if (artifactEntry.getValue().exists()) {
-                this.logger.fine("Artifact " + artifactEntry.getKey().toString() + " is found at " + artifactEntry.getValue().getAbsolutePath());
-            } else {
-                this.logger.fine("Artifact " + artifactEntry.getKey().toString() + " could not be found at " + artifactEntry.getValue().getAbsolutePath());
-                required.add(artifactEntry);
-            }
-        }
+    private interface Task<S, T> {
 
-        return required;
+        T run(S source) throws Exception;
     }
 }
@@ -0,0 +1,24 @@
+package de.md5lukas.maven.spigot;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+final class DownloadThreadFactory implements ThreadFactory {
+
+    private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+
+    @NotNull
+    private final String prefix = "maven-resolver-download-" + POOL_COUNTER.incrementAndGet() + '-';
+
+    @NotNull
+    private final AtomicInteger threadCounter = new AtomicInteger();
+
+    @Override
+    public Thread newThread(@NotNull Runnable r) {
+        Thread thread = new Thread(r, prefix + threadCounter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -1,6 +1,9 @@
 package de.md5lukas.maven.spigot;
 
 import com.google.common.io.BaseEncoding;
+import de.md5lukas.maven.resolver.ResolvedArtifact;
+import de.md5lukas.maven.resolver.transport.Response;
+import de.md5lukas.maven.resolver.transport.Transport;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.SneakyThrows;
@@ -9,10 +12,14 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.BufferedReader;
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.lang.reflect.Method;
+import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.channels.Channels;
@@ -20,14 +27,25 @@ import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
-import java.security.DigestOutputStream;
+import java.security.DigestInputStream;
 import java.security.MessageDigest;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 final class Helpers {
 
+    private static final String PART_SUFFIX = ".part";
+    private static final String VALIDATOR_SUFFIX = ".validator";
+    private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+    private static final long RETRY_DELAY_MILLIS = 1000;
+    private static final long MAPPED_CHUNK_SIZE = 64 * 1024 * 1024;
+
     @Nullable
     private static Method addUrlMethod;
 
@@ -46,27 +64,210 @@ final class Helpers {
         getAddUrlMethod().invoke(clazz.getClassLoader(), file.toURI().toURL());
     }
 
-    static void downloadFile(File destination, URL url) throws IOException {
-        try (ReadableByteChannel rbc = Channels.newChannel(url.openStream());
-             FileChannel fc = FileChannel.open(destination.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
-            fc.transferFrom(rbc, 0, Long.MAX_VALUE);
+    /**
+     * Downloads the artifact into a <code>.part</code> file next to the destination while computing its digest. The <code>.part</code> file is atomically
+     * moved to the destination only if the digest matches the expected checksum, otherwise it gets deleted.
+     * <br><br>
+     * If the download fails, the <code>.part</code> file is kept and the download is continued from its last byte using a HTTP range request, until
+     * the amount of attempts has been used up. A <code>.part</code> file left behind by a previous run is continued in the same way.
+     * <br><br>
+     * The <code>ETag</code> or <code>Last-Modified</code> header of the response is stored in a <code>.part.validator</code> file and sent as
+     * <code>If-Range</code> header when the download is continued, so the repository sends the whole file again if it has changed in the meantime. If
+     * the repository sent neither header, the <code>.part</code> file is only continued if the checksum is known, because otherwise a <code>.part</code>
+     * file of different content could not be detected.
+     *
+     * @return <code>true</code> if the file has been moved to the destination, <code>false</code> if the checksum did not match
+     */
+    static boolean downloadFile(@NotNull File destination, @NotNull ResolvedArtifact resolved, @NotNull Transport transport,
+                                @NotNull MessageDigest messageDigest, @Nullable byte[] expectedChecksum, int attempts) throws IOException {
+        return downloadFile(destination, resolved.getUrl(), resolved, transport, messageDigest, expectedChecksum, attempts);
+    }
+
+    /**
+     * The same as {@link #downloadFile(File, ResolvedArtifact, Transport, MessageDigest, byte[], int)}, but the artifact is requested from the URL
+     * directly instead of being resolved first
+     */
+    static boolean downloadFile(@NotNull File destination, @NotNull URL url, @NotNull Transport transport, @NotNull MessageDigest messageDigest,
+                                @Nullable byte[] expectedChecksum, int attempts) throws IOException {
+        return downloadFile(destination, url, null, transport, messageDigest, expectedChecksum, attempts);
+    }
+
+    private static boolean downloadFile(@NotNull File destination, @NotNull URL url, @Nullable ResolvedArtifact resolved, @NotNull Transport transport,
+                                        @NotNull MessageDigest messageDigest, @Nullable byte[] expectedChecksum, int attempts) throws IOException {
+        Path part = destination.toPath().resolveSibling(destination.getName() + PART_SUFFIX);
+        Path validatorFile = destination.toPath().resolveSibling(destination.getName() + PART_SUFFIX + VALIDATOR_SUFFIX);
+        IOException lastException = null;
+        boolean restarted = false;
+
+        for (int attempt = 0; attempt < attempts; attempt++) {
+            if (attempt > 0) {
+                backoff(attempt);
+            }
+
+            long offset = Files.exists(part) ? Files.size(part) : 0;
+            String validator = offset > 0 && Files.exists(validatorFile) ? new String(Files.readAllBytes(validatorFile), StandardCharsets.UTF_8) : null;
+            if (offset > 0 && validator == null && expectedChecksum == null) {
+                // Nothing could tell whether the part file still belongs to the content of the repository
+                Files.delete(part);
+                offset = 0;
+            }
+            messageDigest.reset();
+
+            try {
+                if (offset > 0) {
+                    resume(part, validatorFile, offset, validator, url, transport, messageDigest);
+                } else if (attempt == 0 && resolved != null) {
+                    writeValidator(validatorFile, resolved::getHeader);
+                    transfer(resolved.getInputStream(), part, 0, resolved.getContentLength(), messageDigest);
+                } else {
+                    try (Response response = transport.get(url)) {
+                        if (response.getStatusCode() != HttpURLConnection.HTTP_OK) {
+                            throw new IOException("Unexpected status code " + response.getStatusCode() + " while downloading " + url);
+                        }
+                        writeValidator(validatorFile, response::getHeader);
+                        transfer(response.getBody(), part, 0, response.getContentLength(), messageDigest);
+                    }
+                }
+            } catch (InterruptedIOException e) {
+                throw e;
+            } catch (IOException e) {
+                lastException = e;
+                continue;
+            }
+
+            if (expectedChecksum != null && !MessageDigest.isEqual(expectedChecksum, messageDigest.digest())) {
+                Files.deleteIfExists(part);
+                Files.deleteIfExists(validatorFile);
+                // The part file of a previous run may have belonged to different content, so start from the beginning once
+                if (offset > 0 && !restarted) {
+                    restarted = true;
+                    attempt--;
+                    continue;
+                }
+                return false;
+            }
+
+            Files.move(part, destination.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            Files.deleteIfExists(validatorFile);
+            return true;
         }
+
+        throw lastException != null ? lastException : new IOException("Could not download " + url);
     }
 
-    static byte[] readChecksum(URL url) throws IOException {
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
-            String line = br.readLine();
-            if (line == null) {
-                return null;
+    private static void resume(@NotNull Path part, @NotNull Path validatorFile, long offset, @Nullable String validator, @NotNull URL url,
+                               @NotNull Transport transport, @NotNull MessageDigest messageDigest) throws IOException {
+        digest(part, messageDigest);
+
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Range", "bytes=" + offset + '-');
+        if (validator != null) {
+            headers.put("If-Range", validator);
+        }
+
+        try (Response response = transport.get(url, headers)) {
+            switch (response.getStatusCode()) {
+                case HttpURLConnection.HTTP_PARTIAL:
+                    String contentRange = response.getHeader("Content-Range");
+                    if (contentRange == null || !contentRange.startsWith("bytes " + offset + '-')) {
+                        throw new IOException("Unexpected content range " + contentRange + " while resuming " + url + " at " + offset);
+                    }
+                    transfer(response.getBody(), part, offset, response.getContentLength(), messageDigest);
+                    break;
+                case HttpURLConnection.HTTP_OK:
+                    // The repository does not support range requests or the file has changed, so the whole file is sent again
+                    messageDigest.reset();
+                    writeValidator(validatorFile, response::getHeader);
+                    transfer(response.getBody(), part, 0, response.getContentLength(), messageDigest);
+                    break;
+                case HTTP_RANGE_NOT_SATISFIABLE:
+                    // The part file is already complete
+                    break;
+                default:
+                    throw new IOException("Unexpected status code " + response.getStatusCode() + " while resuming " + url);
             }
-            return BaseEncoding.base16().decode(line.toUpperCase(Locale.ROOT));
         }
     }
 
-    static byte[] digestFile(MessageDigest messageDigest, File file) throws IOException {
-        try (DigestOutputStream dos = new DigestOutputStream(new DiscardingOutputStream(), messageDigest)) {
-            Files.copy(file.toPath(), dos);
+    /**
+     * Stores the validator of the response the part file is downloaded from. Weak entity tags cannot be used for range requests, so the modification
+     * date is used in that case.
+     */
+    private static void writeValidator(@NotNull Path validatorFile, @NotNull Function<String, String> headers) throws IOException {
+        String eTag = headers.apply("ETag");
+        String validator = eTag != null && !eTag.startsWith("W/") ? eTag : headers.apply("Last-Modified");
+
+        if (validator != null) {
+            Files.write(validatorFile, validator.getBytes(StandardCharsets.UTF_8));
+        } else {
+            Files.deleteIfExists(validatorFile);
         }
+    }
+
+    /**
+     * Computes the digest of the file by mapping it into memory in chunks, which avoids copying the content of the file into a buffer first
+     *
+     * @return The digest of the file
+     */
+    @NotNull
+    static byte[] digestFile(@NotNull File file, @NotNull MessageDigest messageDigest) throws IOException {
+        messageDigest.reset();
+
+        try (FileChannel fc = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = fc.size();
+            for (long position = 0; position < size; position += MAPPED_CHUNK_SIZE) {
+                messageDigest.update(fc.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAPPED_CHUNK_SIZE, size - position)));
+            }
+        }
+
         return messageDigest.digest();
     }
+
+    private static void digest(@NotNull Path path, @NotNull MessageDigest messageDigest) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                messageDigest.update(buffer, 0, read);
+            }
+        }
+    }
+
+    private static void transfer(@NotNull InputStream inputStream, @NotNull Path part, long position, long expectedLength,
+                                 @NotNull MessageDigest messageDigest) throws IOException {
+        try (ReadableByteChannel rbc = Channels.newChannel(new DigestInputStream(inputStream, messageDigest));
+             FileChannel fc = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            fc.truncate(position);
+            long transferred = fc.transferFrom(rbc, position, Long.MAX_VALUE);
+            fc.force(false);
+
+            if (expectedLength >= 0 && transferred < expectedLength) {
+                throw new EOFException("The connection was closed after " + transferred + " of " + expectedLength + " bytes");
+            }
+        }
+    }
+
+    private static void backoff(int attempt) throws InterruptedIOException {
+        try {
+            Thread.sleep(RETRY_DELAY_MILLIS * attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry the download");
+        }
+    }
+
+    static byte[] readChecksum(InputStream inputStream) throws IOException {
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String line = br.readLine();
+            if (line == null) {
+                return null;
+            }
+            // Some checksum files contain the name of the file after the checksum
+            int end = 0;
+            while (end < line.length() && !Character.isWhitespace(line.charAt(end))) {
+                end++;
+            }
+            return BaseEncoding.base16().decode(line.substring(0, end).toUpperCase(Locale.ROOT));
+        }
+    }
 }
@@ -0,0 +1,246 @@
+package de.md5lukas.maven.spigot;
+
+import com.google.common.io.BaseEncoding;
+import de.md5lukas.maven.resolver.MavenChecksum;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent index of the digests of the files in the library folder, so unchanged files do not have to be hashed again on every start.
+ * <br><br>
+ * A digest is only trusted if the size, the modification time and the file key of the file are still the same as when the digest has been computed.
+ * Files that have been modified shortly before they were hashed are not stored in the index, because a later modification within the resolution of
+ * the modification time would not be detected. How long that is depends on the file system: modification times with a fraction of a second show
+ * that the resolution is at most a millisecond, so files that have just been downloaded are still stored, while whole seconds are treated as coarse
+ * timestamps of up to two seconds.
+ * <br><br>
+ * Each line of the index contains the path, size, modification time, file key, checksum algorithm and digest of a file, separated by tabs. The index
+ * is safe to be used by multiple threads at the same time.
+ */
+final class IntegrityIndex {
+
+    static final String FILE_NAME = "integrity.index";
+
+    private static final String SEPARATOR = "\t";
+    private static final int RECORD_FIELDS = 6;
+    private static final long RACY_WINDOW_MILLIS = 2000;
+    private static final long FINE_RACY_WINDOW_MILLIS = 1;
+
+    @NotNull
+    private final Path file;
+
+    @NotNull
+    private final Map<String, Record> records;
+
+    private volatile boolean dirty;
+
+    IntegrityIndex(@NotNull File file) {
+        this.file = file.toPath();
+        this.records = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Loads the records from the index file if it exists. Malformed records are skipped.
+     *
+     * @throws IOException If the file exists but could not be read
+     */
+    void load() throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(SEPARATOR, -1);
+                if (fields.length != RECORD_FIELDS) {
+                    continue;
+                }
+
+                try {
+                    records.put(fields[0], new Record(
+                            Long.parseLong(fields[1]),
+                            Long.parseLong(fields[2]),
+                            fields[3],
+                            MavenChecksum.valueOf(fields[4]),
+                            BaseEncoding.base16().lowerCase().decode(fields[5])
+                    ));
+                } catch (IllegalArgumentException ignored) {
+                    // The file will be hashed again
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the digest of the file from the index if the file has not changed since it has been recorded, otherwise the file is hashed and the index is
+     * updated
+     *
+     * @return The digest of the file
+     * @throws IOException If the file could not be read
+     */
+    @NotNull
+    byte[] digest(@NotNull File file, @NotNull MavenChecksum algorithm) throws IOException {
+        Path path = file.toPath();
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        String key = createKey(path);
+
+        Record record = records.get(key);
+        if (record != null && record.algorithm == algorithm && record.matches(attributes)) {
+            return record.digest.clone();
+        }
+
+        byte[] digest = Helpers.digestFile(file, algorithm.getMessageDigest());
+        record(key, attributes, algorithm, digest);
+        return digest;
+    }
+
+    /**
+     * Checks whether the digest of the file has been recorded for the algorithm and the file has not changed since, without hashing the file
+     *
+     * @return <code>true</code> if the recorded digest is still valid, <code>false</code> if the file is missing, has changed or has no record
+     */
+    boolean contains(@NotNull File file, @NotNull MavenChecksum algorithm) {
+        Path path = file.toPath();
+        Record record = records.get(createKey(path));
+        if (record == null || record.algorithm != algorithm) {
+            return false;
+        }
+
+        try {
+            return record.matches(Files.readAttributes(path, BasicFileAttributes.class));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Removes the record of the file, so it is hashed again the next time
+     */
+    void remove(@NotNull File file) {
+        if (records.remove(createKey(file.toPath())) != null) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Records the digest of a file that has just been verified by other means, for example while it has been downloaded
+     *
+     * @throws IOException If the attributes of the file could not be read
+     */
+    void record(@NotNull File file, @NotNull MavenChecksum algorithm, @NotNull byte[] digest) throws IOException {
+        Path path = file.toPath();
+        record(createKey(path), Files.readAttributes(path, BasicFileAttributes.class), algorithm, digest);
+    }
+
+    /**
+     * Removes the records of all files that are not part of the given files
+     */
+    void retain(@NotNull Collection<File> files) {
+        Set<String> keys = new HashSet<>();
+        for (File file : files) {
+            keys.add(createKey(file.toPath()));
+        }
+
+        if (records.keySet().retainAll(keys)) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Writes the index into a temporary file first and then replaces the existing index with it, if it has been changed since it has been loaded
+     *
+     * @throws IOException If the file could not be written
+     */
+    synchronized void save() throws IOException {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Record> entry : records.entrySet()) {
+                Record record = entry.getValue();
+                writer.write(String.join(SEPARATOR,
+                        entry.getKey(),
+                        Long.toString(record.size),
+                        Long.toString(record.lastModified),
+                        record.fileKey,
+                        record.algorithm.name(),
+                        BaseEncoding.base16().lowerCase().encode(record.digest)
+                ));
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            dirty = true;
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void record(@NotNull String key, @NotNull BasicFileAttributes attributes, @NotNull MavenChecksum algorithm, @NotNull byte[] digest) {
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        long racyWindow = lastModified % 1000 != 0 ? FINE_RACY_WINDOW_MILLIS : RACY_WINDOW_MILLIS;
+
+        if (System.currentTimeMillis() - lastModified < racyWindow) {
+            // A modification right after this one could keep the same modification time, so the file is hashed again next time
+            if (records.remove(key) != null) {
+                dirty = true;
+            }
+            return;
+        }
+
+        records.put(key, new Record(attributes.size(), lastModified, fileKey(attributes), algorithm, digest.clone()));
+        dirty = true;
+    }
+
+    @NotNull
+    private static String createKey(@NotNull Path path) {
+        return path.toAbsolutePath().normalize().toString();
+    }
+
+    @NotNull
+    private static String fileKey(@NotNull BasicFileAttributes attributes) {
+        Object fileKey = attributes.fileKey();
+        return fileKey == null ? "" : fileKey.toString();
+    }
+
+    private static final class Record {
+
+        private final long size;
+        private final long lastModified;
+        @NotNull
+        private final String fileKey;
+        @NotNull
+        private final MavenChecksum algorithm;
+        @NotNull
+        private final byte[] digest;
+
+        private Record(long size, long lastModified, @NotNull String fileKey, @NotNull MavenChecksum algorithm, @NotNull byte[] digest) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.fileKey = fileKey;
+            this.algorithm = algorithm;
+            this.digest = digest;
+        }
+
+        private boolean matches(@NotNull BasicFileAttributes attributes) {
+            return size == attributes.size() && lastModified == attributes.lastModifiedTime().toMillis() && fileKey.equals(fileKey(attributes));
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package de.md5lukas.maven.spigot;
+
+import com.google.common.io.ByteStreams;
+import lombok.SneakyThrows;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.security.CodeSource;
+import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+/**
+ * Class loader for the dependencies of a plugin that is used instead of adding the dependencies to the class loader of the plugin.
+ * <br><br>
+ * When the class loader is created, an index of the folders of all entries in the jars is built from the central directory of each jar. Classes and
+ * resources in indexed folders are only looked up in the jars that contain the folder, so the lookup does not get slower with every added jar. All
+ * other classes and resources are delegated to the parent class loader, which is the class loader of the plugin, so the dependencies can still use
+ * the classes of the plugin and the server.
+ * <br><br>
+ * Packages that are also provided by the parent class loader, for example Guava, Gson or SnakeYAML which are part of the server, are loaded from the
+ * parent first, so the dependencies use the same classes as the server and the plugin instead of their own copies. Whether the parent provides a
+ * package is checked once per package with the first class of the package in the jars.
+ * <br><br>
+ * Classes that have been loaded by the class loader of the plugin cannot see the classes in this class loader, so the dependencies have to be accessed
+ * through it, for example with {@link Class#forName(String, boolean, ClassLoader)} or a {@link java.util.ServiceLoader}.
+ */
+public final class LibraryClassLoader extends ClassLoader implements Closeable {
+
+    static {
+        ClassLoader.registerAsParallelCapable();
+    }
+
+    private static final String CLASS_SUFFIX = ".class";
+
+    @NotNull
+    private final List<Library> libraries;
+
+    @NotNull
+    private final Map<String, List<Library>> index;
+
+    /**
+     * The name of the first class file in each indexed folder, used to check whether the parent provides the package
+     */
+    @NotNull
+    private final Map<String, String> packageSamples;
+
+    @NotNull
+    private final Map<String, Boolean> parentPackages;
+
+    /**
+     * Creates a new class loader for the jars and builds the index of their entries
+     *
+     * @param files  The jar files of the dependencies
+     * @param parent The class loader of the plugin
+     * @throws IOException If one of the jars could not be opened
+     */
+    LibraryClassLoader(@NotNull List<File> files, @NotNull ClassLoader parent) throws IOException {
+        super(parent);
+        this.libraries = new ArrayList<>(files.size());
+        this.index = new HashMap<>();
+        this.packageSamples = new HashMap<>();
+        this.parentPackages = new ConcurrentHashMap<>();
+
+        try {
+            for (File file : files) {
+                Library library = new Library(file);
+                this.libraries.add(library);
+
+                Enumeration<JarEntry> entries = library.jar.entries();
+                while (entries.hasMoreElements()) {
+                    JarEntry entry = entries.nextElement();
+                    if (entry.isDirectory()) {
+                        continue;
+                    }
+
+                    String folder = getFolder(entry.getName());
+                    if (entry.getName().endsWith(CLASS_SUFFIX)) {
+                        this.packageSamples.putIfAbsent(folder, entry.getName());
+                    }
+
+                    List<Library> owners = this.index.computeIfAbsent(folder, ignored -> new ArrayList<>(1));
+                    if (owners.isEmpty() || owners.get(owners.size() - 1) != library) {
+                        owners.add(library);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> clazz = findLoadedClass(name);
+            if (clazz == null && !isProvidedByParent(name.replace('.', '/'))) {
+                clazz = findIndexedClass(name);
+            }
+            if (clazz == null) {
+                return super.loadClass(name, resolve);
+            }
+
+            if (resolve) {
+                resolveClass(clazz);
+            }
+            return clazz;
+        }
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        Class<?> clazz = findIndexedClass(name);
+        if (clazz == null) {
+            throw new ClassNotFoundException(name);
+        }
+        return clazz;
+    }
+
+    @Override
+    public URL getResource(String name) {
+        URL url = isProvidedByParent(name) ? null : findResource(name);
+        return url != null ? url : super.getResource(name);
+    }
+
+    @Override
+    protected URL findResource(String name) {
+        for (Library library : getOwners(name)) {
+            if (library.jar.getEntry(name) != null) {
+                return library.createURL(name);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    protected Enumeration<URL> findResources(String name) {
+        List<URL> urls = new ArrayList<>();
+        for (Library library : getOwners(name)) {
+            if (library.jar.getEntry(name) != null) {
+                urls.add(library.createURL(name));
+            }
+        }
+        return Collections.enumeration(urls);
+    }
+
+    /**
+     * Closes all jars of the class loader. Classes that have already been loaded can still be used, but loading further classes and resources fails.
+     *
+     * @throws IOException If a jar could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        IOException exception = null;
+        for (Library library : this.libraries) {
+            try {
+                library.jar.close();
+            } catch (IOException e) {
+                if (exception == null) {
+                    exception = e;
+                } else {
+                    exception.addSuppressed(e);
+                }
+            }
+        }
+
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    /**
+     * Checks whether the folder of the entry is a package that is also provided by the parent class loader, in which case the parent is asked first
+     */
+    private boolean isProvidedByParent(@NotNull String entryName) {
+        String folder = getFolder(entryName);
+        String sample = this.packageSamples.get(folder);
+        if (sample == null) {
+            return false;
+        }
+        return this.parentPackages.computeIfAbsent(folder, ignored -> getParent().getResource(sample) != null);
+    }
+
+    @Nullable
+    private Class<?> findIndexedClass(@NotNull String name) throws ClassNotFoundException {
+        if (name.startsWith("java.")) {
+            return null;
+        }
+
+        String path = name.replace('.', '/') + CLASS_SUFFIX;
+        for (Library library : getOwners(path)) {
+            JarEntry entry = library.jar.getJarEntry(path);
+            if (entry != null) {
+                return defineClass(name, library, entry);
+            }
+        }
+        return null;
+    }
+
+    @NotNull
+    private Class<?> defineClass(@NotNull String name, @NotNull Library library, @NotNull JarEntry entry) throws ClassNotFoundException {
+        byte[] bytes;
+        try (InputStream in = library.jar.getInputStream(entry)) {
+            bytes = ByteStreams.toByteArray(in);
+        } catch (IOException e) {
+            throw new ClassNotFoundException(name, e);
+        }
+
+        int lastDot = name.lastIndexOf('.');
+        if (lastDot != -1) {
+            definePackage(name.substring(0, lastDot), library);
+        }
+
+        // The certificates are only available after the entry has been read completely
+        CodeSource codeSource = new CodeSource(library.url, entry.getCertificates());
+        return defineClass(name, bytes, 0, bytes.length, new ProtectionDomain(codeSource, null, this, null));
+    }
+
+    @SuppressWarnings("deprecation") // getDefinedPackage is not available on Java 8
+    private void definePackage(@NotNull String packageName, @NotNull Library library) {
+        if (getPackage(packageName) != null) {
+            return;
+        }
+
+        try {
+            Manifest manifest = library.getManifest();
+            if (manifest != null) {
+                Attributes attributes = manifest.getMainAttributes();
+                definePackage(packageName,
+                        attributes.getValue(Attributes.Name.SPECIFICATION_TITLE),
+                        attributes.getValue(Attributes.Name.SPECIFICATION_VERSION),
+                        attributes.getValue(Attributes.Name.SPECIFICATION_VENDOR),
+                        attributes.getValue(Attributes.Name.IMPLEMENTATION_TITLE),
+                        attributes.getValue(Attributes.Name.IMPLEMENTATION_VERSION),
+                        attributes.getValue(Attributes.Name.IMPLEMENTATION_VENDOR),
+                        null);
+            } else {
+                definePackage(packageName, null, null, null, null, null, null, null);
+            }
+        } catch (IllegalArgumentException ignored) {
+            // The package has been defined by another thread in the meantime
+        }
+    }
+
+    @NotNull
+    private List<Library> getOwners(@NotNull String name) {
+        List<Library> owners = this.index.get(getFolder(name));
+        return owners != null ? owners : Collections.emptyList();
+    }
+
+    @NotNull
+    private static String getFolder(@NotNull String name) {
+        int lastSlash = name.lastIndexOf('/');
+        return lastSlash == -1 ? "" : name.substring(0, lastSlash);
+    }
+
+    private static final class Library {
+
+        @NotNull
+        private final JarFile jar;
+
+        @NotNull
+        private final URL url;
+
+        @NotNull
+        private final String base;
+
+        @Nullable
+        private Manifest manifest;
+
+        private boolean manifestRead;
+
+        private Library(@NotNull File file) throws IOException {
+            this.jar = new JarFile(file);
+            this.url = file.toURI().toURL();
+            this.base = "jar:" + this.url + "!/";
+        }
+
+        @Nullable
+        private synchronized Manifest getManifest() {
+            if (!manifestRead) {
+                manifestRead = true;
+                try {
+                    manifest = jar.getManifest();
+                } catch (IOException ignored) {
+                    // The package is defined without the attributes of the manifest
+                }
+            }
+            return manifest;
+        }
+
+        @NotNull
+        @SneakyThrows // The URL of the jar is valid, so the URL of an entry in it is valid too
+        private URL createURL(@NotNull String name) {
+            return new URL(base + name);
+        }
+    }
+}
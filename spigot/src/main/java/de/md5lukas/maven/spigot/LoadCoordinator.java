@@ -0,0 +1,139 @@
+package de.md5lukas.maven.spigot;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Makes sure that the dependencies of a {@link DependencyLoader} are only loaded by one caller at a time, whether they are loaded synchronously or
+ * asynchronously, and that asynchronously loaded dependencies are only added to the classpath once the plugin asks for it.
+ */
+final class LoadCoordinator {
+
+    @NotNull
+    private final ThreadFactory threadFactory;
+
+    @Nullable
+    private CompletableFuture<Void> pendingLoad;
+
+    private long pendingLoadStart;
+
+    private boolean loading;
+
+    LoadCoordinator(@NotNull ThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+    }
+
+    /**
+     * Resolves the dependencies and adds them to the classpath on the calling thread. If the dependencies are already being loaded asynchronously, that
+     * load is waited for and injected instead of resolving them a second time.
+     *
+     * @param resolve The resolution of the dependencies
+     * @param inject  Adds the resolved dependencies to the classpath
+     * @throws Exception             If the dependencies could not be resolved or added to the classpath
+     * @throws IllegalStateException If another thread is loading the dependencies synchronously at the same time
+     */
+    void load(@NotNull Step resolve, @NotNull Injection inject) throws Exception {
+        long start = System.nanoTime();
+        boolean join;
+        synchronized (this) {
+            join = this.pendingLoad != null;
+            if (!join) {
+                if (this.loading) {
+                    throw new IllegalStateException("The dependencies are already being loaded by another thread");
+                }
+                this.loading = true;
+            }
+        }
+
+        if (join) {
+            inject(inject);
+            return;
+        }
+
+        try {
+            resolve.run();
+        } finally {
+            synchronized (this) {
+                this.loading = false;
+            }
+        }
+        inject.inject(start);
+    }
+
+    /**
+     * Starts to resolve the dependencies on a new thread
+     *
+     * @param resolve The resolution of the dependencies
+     * @return A future that completes once the dependencies have been resolved, which cannot be completed by the caller
+     * @throws IllegalStateException If the dependencies are already being loaded
+     */
+    @NotNull
+    synchronized CompletableFuture<Void> loadAsync(@NotNull Step resolve) {
+        if (this.pendingLoad != null || this.loading) {
+            throw new IllegalStateException("The dependencies are already being loaded, call injectAll() first");
+        }
+
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        Thread thread = this.threadFactory.newThread(() -> {
+            try {
+                resolve.run();
+                future.complete(null);
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+
+        this.pendingLoad = future;
+        this.pendingLoadStart = System.nanoTime();
+        thread.start();
+
+        // The caller cannot complete the future that is used by inject()
+        return future.thenApply(ignored -> null);
+    }
+
+    /**
+     * Waits for the dependencies that are loaded by {@link #loadAsync(Step)} and adds them to the classpath
+     *
+     * @param inject Adds the resolved dependencies to the classpath
+     * @throws Exception             If the dependencies could not be resolved or added to the classpath
+     * @throws IllegalStateException If no dependencies are being loaded asynchronously
+     */
+    void inject(@NotNull Injection inject) throws Exception {
+        CompletableFuture<Void> future;
+        long start;
+        synchronized (this) {
+            future = this.pendingLoad;
+            start = this.pendingLoadStart;
+            this.pendingLoad = null;
+        }
+
+        if (future == null) {
+            throw new IllegalStateException("The dependencies are not being loaded, call loadAllAsync() first");
+        }
+
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+        inject.inject(start);
+    }
+
+    interface Step {
+
+        void run() throws Exception;
+    }
+
+    interface Injection {
+
+        void inject(long start) throws Exception;
+    }
+}
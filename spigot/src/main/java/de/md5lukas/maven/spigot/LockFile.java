@@ -0,0 +1,171 @@
+package de.md5lukas.maven.spigot;
+
+import com.google.common.io.BaseEncoding;
+import de.md5lukas.maven.resolver.Artifact;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of a resolution, stored in the data folder of the plugin so later starts can load the same dependencies without contacting any repository.
+ * <br><br>
+ * The first line contains the fingerprint of the annotations the lock file has been created for, followed by one line per artifact in the order they
+ * are loaded in. Each artifact line contains the coordinates of the artifact, the repository it has been found in, the version it has been resolved to,
+ * the URL it has been downloaded from and the size and checksum of the file, separated by tabs.
+ */
+@Getter
+final class LockFile {
+
+    static final String FILE_NAME = "dependencies.lock";
+
+    private static final String SEPARATOR = "\t";
+    private static final String FINGERPRINT_KEY = "fingerprint";
+    private static final int ENTRY_FIELDS = 11;
+
+    @NotNull
+    private final String fingerprint;
+
+    @NotNull
+    private final List<Entry> entries;
+
+    LockFile(@NotNull String fingerprint, @NotNull List<Entry> entries) {
+        this.fingerprint = fingerprint;
+        this.entries = Collections.unmodifiableList(new ArrayList<>(entries));
+    }
+
+    /**
+     * Reads the lock file
+     *
+     * @return The lock file or <code>null</code> if the file does not exist
+     * @throws IOException If the file could not be read or is malformed
+     */
+    @Nullable
+    static LockFile read(@NotNull File file) throws IOException {
+        Path path = file.toPath();
+        if (!Files.exists(path)) {
+            return null;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null || !header.startsWith(FINGERPRINT_KEY + SEPARATOR)) {
+                throw new IOException("The lock file " + file.getAbsolutePath() + " does not start with a fingerprint");
+            }
+
+            List<Entry> entries = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    entries.add(parseEntry(line));
+                }
+            }
+
+            return new LockFile(header.substring(FINGERPRINT_KEY.length() + SEPARATOR.length()), entries);
+        }
+    }
+
+    /**
+     * Writes the lock file into a temporary file first and then replaces the existing lock file with it
+     *
+     * @throws IOException If the file could not be written
+     */
+    void write(@NotNull File file) throws IOException {
+        Path path = file.toPath();
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write(FINGERPRINT_KEY + SEPARATOR + fingerprint);
+            writer.write('\n');
+
+            for (Entry entry : entries) {
+                Artifact artifact = entry.getArtifact();
+                writer.write(String.join(SEPARATOR,
+                        artifact.getGroupId(),
+                        artifact.getArtifactId(),
+                        artifact.getVersion(),
+                        artifact.getClassifier() == null ? "" : artifact.getClassifier(),
+                        artifact.getType(),
+                        entry.getRepositoryName(),
+                        entry.getRepositoryUrl(),
+                        entry.getVersion(),
+                        entry.getUrl().toString(),
+                        Long.toString(entry.getSize()),
+                        BaseEncoding.base16().lowerCase().encode(entry.getChecksum())
+                ));
+                writer.write('\n');
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @NotNull
+    private static Entry parseEntry(@NotNull String line) throws IOException {
+        String[] fields = line.split(SEPARATOR, -1);
+        if (fields.length != ENTRY_FIELDS) {
+            throw new IOException("Malformed lock file entry: " + line);
+        }
+
+        try {
+            return new Entry(
+                    new Artifact(fields[0], fields[1], fields[2], fields[3], fields[4]),
+                    fields[5],
+                    fields[6],
+                    fields[7],
+                    new URL(fields[8]),
+                    Long.parseLong(fields[9]),
+                    BaseEncoding.base16().lowerCase().decode(fields[10])
+            );
+        } catch (MalformedURLException | IllegalArgumentException e) {
+            throw new IOException("Malformed lock file entry: " + line, e);
+        }
+    }
+
+    @Getter
+    static final class Entry {
+
+        @NotNull
+        private final Artifact artifact;
+
+        @NotNull
+        private final String repositoryName;
+
+        @NotNull
+        private final String repositoryUrl;
+
+        @NotNull
+        private final String version;
+
+        @NotNull
+        private final URL url;
+
+        private final long size;
+
+        @NotNull
+        private final byte[] checksum;
+
+        Entry(@NotNull Artifact artifact, @NotNull String repositoryName, @NotNull String repositoryUrl, @NotNull String version, @NotNull URL url,
+              long size, @NotNull byte[] checksum) {
+            this.artifact = artifact;
+            this.repositoryName = repositoryName;
+            this.repositoryUrl = repositoryUrl;
+            this.version = version;
+            this.url = url;
+            this.size = size;
+            this.checksum = checksum;
+        }
+    }
+}
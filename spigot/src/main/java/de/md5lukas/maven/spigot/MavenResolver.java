@@ -44,4 +44,108 @@ public @interface MavenResolver {
      * @return Whether missing checksums should be ignored or not
      */
     boolean ignoreNotFoundChecksum() default false;
+
+    /**
+     * The maximum amount of artifacts that are resolved, downloaded and verified at the same time.
+     * <br><br>
+     * Values less than <code>1</code> are treated as <code>1</code>, which downloads the artifacts one after another
+     *
+     * @return The maximum amount of concurrent downloads
+     */
+    int downloadThreads() default 4;
+
+    /**
+     * How often the download of a dependency is attempted before giving up. Every attempt after the first one continues the download where the
+     * previous one stopped, if the repository supports it.
+     * <br><br>
+     * Values less than <code>1</code> are treated as <code>1</code>
+     *
+     * @return The amount of download attempts
+     */
+    int downloadAttempts() default 3;
+
+    /**
+     * Resolve the transitive runtime dependencies of the declared dependencies by reading their POM files, so only the direct dependencies have to be
+     * declared.
+     * <br><br>
+     * The POM files are looked up in the same repositories as the dependencies whenever the dependencies are resolved
+     *
+     * @return Whether transitive dependencies should be resolved or not
+     */
+    boolean resolveTransitive() default false;
+
+    /**
+     * Store the resolved snapshot versions in a file next to the library folder, so they are still cached after the server restarts.
+     * <br><br>
+     * The resolved versions are cached for one day in either case
+     *
+     * @return Whether the snapshot cache should be persisted or not
+     */
+    boolean persistSnapshotCache() default true;
+
+    /**
+     * Store the result of the resolution in a lock file in the data folder of the plugin. As long as the annotations have not changed, the dependencies
+     * are loaded from the lock file on later starts and only checked against the local files, without contacting any repository.
+     * <br><br>
+     * Use {@link DependencyLoader#refreshLock()} to resolve the dependencies again, for example to update snapshot dependencies
+     *
+     * @return Whether a lock file should be used or not
+     */
+    boolean lockDependencies() default true;
+
+    /**
+     * Learn how fast the repositories answer and how often they have the requested artifacts, and ask the repository that most likely has a
+     * dependency right away instead of waiting for the repositories before it to miss.
+     * <br><br>
+     * The repositories declared before it are still asked at the same time, so if more than one repository has a dependency, it is still downloaded
+     * from the one that has been declared first
+     * <br><br>
+     * The learned statistics are stored in the data folder of the plugin, so they are still used after the server restarts. If the resolver is
+     * {@link #shareResolver() shared}, the statistics are server-wide
+     *
+     * @return Whether the repositories should be ordered adaptively or not
+     */
+    boolean adaptiveRepositoryOrder() default false;
+
+    /**
+     * Download the dependencies into a store that is shared by all plugins and servers of the same user on the host and link them into the library
+     * folder of the plugin from there, so every dependency is only downloaded and stored once. Hard links are used if the file system supports them,
+     * otherwise the files are copied.
+     * <br><br>
+     * The store uses the layout of a maven repository and is located at <code>~/.m2/repository</code>, unless the system property
+     * <code>de.md5lukas.maven.store</code> is set to another folder. Files from the store are always verified against the checksum of the artifact
+     * before they are used, so dependencies without a checksum artifact are not taken from the store.
+     *
+     * @return Whether the shared store should be used or not
+     */
+    boolean useSharedStore() default false;
+
+    /**
+     * Share the artifact resolver with the other plugins on the server that have this option enabled, through a {@link ResolverService} that is
+     * registered by the first of these plugins. The plugins then share one snapshot cache and the connections to the repositories, and plugins that
+     * use the same repositories also share which repository has which artifact.
+     * <br><br>
+     * The snapshot cache of the plugin that registers the service is used. The resolution metrics and the statistics of
+     * {@link #adaptiveRepositoryOrder()} belong to the shared resolver, so they are server-wide and include the resolutions of all plugins that use
+     * it. The statistics are loaded from the data folder of the first plugin that enables them, and saved into the data folder of every plugin that
+     * has them enabled
+     *
+     * @return Whether the resolver should be shared with other plugins or not
+     */
+    boolean shareResolver() default false;
+
+    /**
+     * Load the dependencies into a separate {@link LibraryClassLoader} instead of adding them to the class loader of the plugin, which requires
+     * reflective access to the class loader that is denied on newer Java versions. The class loader finds classes and resources using an index of the
+     * jars, so lookups only go to the jar that contains the package.
+     * <br><br>
+     * The classes of the plugin cannot link against the dependencies directly in this mode. The dependencies have to be accessed through
+     * {@link DependencyLoader#getLibraryClassLoader()}, for example using a {@link java.util.ServiceLoader}. The class loader delegates to the class
+     * loader of the plugin for everything that is not part of the dependencies, so the dependencies can use the classes of the plugin and the server.
+     * Packages that the server already provides, like Guava, Gson or SnakeYAML, are taken from the server. {@link DependencyLoader#close()} should be
+     * called when the plugin is disabled, to release the jars.
+     *
+     * @return Whether the dependencies should be loaded into a separate class loader or not
+     */
+    boolean isolateDependencies() default false;
 }
@@ -0,0 +1,82 @@
+package de.md5lukas.maven.spigot;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Exclusive lock on a file that is shared with other processes, so multiple servers on the same host can download into the same folder without
+ * overwriting each other's partial downloads.
+ * <br><br>
+ * The lock is held on a <code>.lock</code> file next to the locked file, which is kept after the lock has been released, because deleting it could
+ * allow two processes to lock different files for the same target. The operating system releases the lock if the process holding it exits.
+ * <br><br>
+ * Locks of the same file by different class loaders in the same process are not managed by the operating system, so in that case the lock is
+ * polled until the other class loader has released it.
+ */
+final class ProcessLock implements Closeable {
+
+    static final String SUFFIX = ".lock";
+
+    private static final long POLL_INTERVAL_MILLIS = 50;
+
+    @NotNull
+    private final FileChannel channel;
+
+    @NotNull
+    private final FileLock lock;
+
+    private ProcessLock(@NotNull FileChannel channel, @NotNull FileLock lock) {
+        this.channel = channel;
+        this.lock = lock;
+    }
+
+    /**
+     * Acquires the lock for the target file, waiting for as long as another process or class loader holds it
+     *
+     * @param target The file to lock
+     * @return The acquired lock, which has to be closed to release it
+     * @throws IOException If the lock file could not be opened or the thread has been interrupted while waiting
+     */
+    @NotNull
+    static ProcessLock acquire(@NotNull File target) throws IOException {
+        FileChannel channel = FileChannel.open(target.toPath().resolveSibling(target.getName() + SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+
+        try {
+            while (true) {
+                try {
+                    return new ProcessLock(channel, channel.lock());
+                } catch (OverlappingFileLockException e) {
+                    Thread.sleep(POLL_INTERVAL_MILLIS);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            channel.close();
+            throw new InterruptedIOException("Interrupted while waiting for the lock of " + target.getAbsolutePath());
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            lock.release();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package de.md5lukas.maven.spigot;
+
+import de.md5lukas.maven.resolver.ArtifactResolver;
+import de.md5lukas.maven.resolver.Repository;
+import de.md5lukas.maven.resolver.cache.SnapshotCache;
+import de.md5lukas.maven.resolver.listener.ResolutionMetrics;
+import de.md5lukas.maven.resolver.transport.Transport;
+import de.md5lukas.maven.resolver.transport.TransportFactory;
+import lombok.NonNull;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.ServicePriority;
+import org.bukkit.plugin.ServicesManager;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Service that shares the artifact resolvers of all plugins on the server that have {@link MavenResolver#shareResolver()} enabled. The first plugin
+ * registers the service in the {@link ServicesManager} of the server and all later plugins use the registered service.
+ * <br><br>
+ * All resolvers of the service use the same snapshot cache and the same transport, so snapshot versions are only resolved once and connections to the
+ * repositories are reused by all plugins. Plugins that use the same repositories in the same order get the same resolver, so they also share the
+ * knowledge which repository has which artifact, and identical artifacts that are resolved by multiple plugins at the same time are only resolved once.
+ * Plugins with different repositories never get a resolver that could find their artifacts in a repository they have not declared.
+ * <br><br>
+ * Everything a shared resolver learns is shared as well. Its resolution metrics and its repository statistics contain the resolutions of all plugins
+ * that use it, so they are server-wide instead of being kept per plugin.
+ * <br><br>
+ * The service is registered with the class of this copy of the library, so it is only shared by plugins that use the same copy, for example because
+ * they depend on a plugin that provides the library without relocating it. Plugins with a relocated copy register their own service.
+ */
+public final class ResolverService {
+
+    @NotNull
+    private final SnapshotCache snapshotCache;
+
+    @NotNull
+    private final Transport transport;
+
+    @NotNull
+    private final Map<String, ArtifactResolver> resolvers;
+
+    @NotNull
+    private final Map<ArtifactResolver, ResolutionMetrics> metrics;
+
+    private ResolverService(@NotNull SnapshotCache snapshotCache) {
+        this.snapshotCache = snapshotCache;
+        this.transport = TransportFactory.createDefault();
+        this.resolvers = new ConcurrentHashMap<>();
+        this.metrics = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Gets the service registered in the services manager of the server of the plugin, or registers a new one for the plugin if there is none
+     *
+     * @param plugin        The plugin that needs the service
+     * @param snapshotCache Creates the snapshot cache that is shared by all resolvers, if the service has to be registered
+     * @return The registered service
+     */
+    @NotNull
+    static ResolverService getOrRegister(@NotNull Plugin plugin, @NotNull Supplier<SnapshotCache> snapshotCache) {
+        ServicesManager services = plugin.getServer().getServicesManager();
+
+        synchronized (ResolverService.class) {
+            ResolverService service = services.load(ResolverService.class);
+            if (service == null) {
+                service = new ResolverService(snapshotCache.get());
+                services.register(ResolverService.class, service, plugin, ServicePriority.Normal);
+                plugin.getLogger().fine("Registered the shared resolver service");
+            } else {
+                plugin.getLogger().fine("Using the shared resolver service");
+            }
+            return service;
+        }
+    }
+
+    /**
+     * Gets the resolver that uses exactly the provided repositories in the same order. The resolver is created if no plugin has used these
+     * repositories before.
+     * <br><br>
+     * The returned resolver is shared, so listeners that are added to it are notified about the resolutions of all plugins that use it. The metrics
+     * of all these resolutions are collected from the moment the resolver has been created and can be read with {@link #getMetrics(ArtifactResolver)}.
+     *
+     * @param repositories The repositories the resolver should look for artifacts in
+     * @return The shared resolver for the repositories
+     */
+    @NotNull
+    public ArtifactResolver getResolver(@NotNull @NonNull List<Repository> repositories) {
+        return this.resolvers.computeIfAbsent(createKey(repositories), ignored -> {
+            ArtifactResolver resolver = new ArtifactResolver(this.snapshotCache);
+            resolver.setTransport(this.transport);
+            repositories.forEach(resolver::addRepository);
+
+            ResolutionMetrics resolverMetrics = new ResolutionMetrics();
+            resolver.addListener(resolverMetrics);
+            this.metrics.put(resolver, resolverMetrics);
+            return resolver;
+        });
+    }
+
+    /**
+     * Gets the metrics of all resolutions of a shared resolver, which include the resolutions of all plugins that use it
+     *
+     * @param resolver The shared resolver
+     * @return The metrics of the resolver
+     * @throws IllegalArgumentException If the resolver has not been created by this service
+     */
+    @NotNull
+    public ResolutionMetrics getMetrics(@NotNull @NonNull ArtifactResolver resolver) {
+        ResolutionMetrics resolverMetrics = this.metrics.get(resolver);
+        if (resolverMetrics == null) {
+            throw new IllegalArgumentException("The resolver has not been created by this service");
+        }
+        return resolverMetrics;
+    }
+
+    @NotNull
+    private static String createKey(@NotNull List<Repository> repositories) {
+        StringBuilder sb = new StringBuilder();
+        for (Repository repository : repositories) {
+            sb.append(repository.getName()).append(' ').append(repository.getUrl()).append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,92 @@
+package de.md5lukas.maven.spigot;
+
+import de.md5lukas.maven.resolver.Artifact;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Store for artifacts that is shared by all plugins and servers of the same user on the host, so every artifact only has to be downloaded once.
+ * <br><br>
+ * The artifacts are stored in the same layout as in a maven repository, with snapshot artifacts stored using their resolved version. The library
+ * folders of the plugins are filled with hard links to the files in the store, or copies of them if the file system does not support hard links.
+ * <br><br>
+ * Files are only moved into the store once they are complete, so other processes never see partial files. A file from the store is always verified
+ * against the expected checksum before it is used.
+ */
+final class SharedStore {
+
+    /**
+     * The system property that can be used to move the store to another folder
+     */
+    static final String LOCATION_PROPERTY = "de.md5lukas.maven.store";
+
+    private static final String LINK_SUFFIX = ".link";
+
+    @NotNull
+    private final File root;
+
+    SharedStore(@NotNull File root) {
+        this.root = root;
+    }
+
+    /**
+     * Creates the store in the folder from the {@link #LOCATION_PROPERTY} system property or <code>~/.m2/repository</code> if it is not set
+     */
+    @NotNull
+    static SharedStore createDefault() {
+        String location = System.getProperty(LOCATION_PROPERTY);
+        if (location != null && !location.isEmpty()) {
+            return new SharedStore(new File(location));
+        }
+        return new SharedStore(new File(System.getProperty("user.home"), ".m2" + File.separator + "repository"));
+    }
+
+    /**
+     * Gets the file of the artifact in the store
+     *
+     * @param artifact The artifact to get the file for
+     * @param version  The resolved version of the artifact, which is only different from the version of the artifact for snapshot artifacts
+     * @return The file the artifact is stored in
+     */
+    @NotNull
+    File getFile(@NotNull Artifact artifact, @NotNull String version) {
+        return new File(this.root, artifact.isSnapshot() ? artifact.getPath(version) : artifact.getPath());
+    }
+
+    /**
+     * Replaces the target file with a hard link to the file in the store, or a copy of it if a hard link cannot be created. The link is created next to
+     * the target first and then moved onto it, so the target is never missing or incomplete.
+     *
+     * @param storeFile The file in the store
+     * @param target    The file in the library folder of the plugin
+     * @return Whether a hard link has been created
+     * @throws IOException If the file could neither be linked nor copied
+     */
+    boolean link(@NotNull File storeFile, @NotNull File target) throws IOException {
+        Path source = storeFile.toPath();
+        Path temp = target.toPath().resolveSibling(target.getName() + LINK_SUFFIX);
+        Files.deleteIfExists(temp);
+
+        boolean linked;
+        try {
+            Files.createLink(temp, source);
+            linked = true;
+        } catch (IOException | UnsupportedOperationException | SecurityException e) {
+            Files.copy(source, temp, StandardCopyOption.REPLACE_EXISTING);
+            linked = false;
+        }
+
+        try {
+            Files.move(temp, target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return linked;
+    }
+}
@@ -0,0 +1,71 @@
+package de.md5lukas.maven.spigot;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+
+/**
+ * A message digest that delegates to another one and adds up the time spent computing the digest, so the checksum verification of a download can be
+ * measured separately from the transfer of the file
+ */
+final class TimedMessageDigest extends MessageDigest {
+
+    @NotNull
+    private final MessageDigest delegate;
+
+    private long nanos;
+
+    TimedMessageDigest(@NotNull MessageDigest delegate) {
+        super(delegate.getAlgorithm());
+        this.delegate = delegate;
+    }
+
+    /**
+     * Gets the time spent computing the digest since the instance has been created, including the digests of failed download attempts
+     *
+     * @return The time in nanoseconds
+     */
+    long getNanos() {
+        return nanos;
+    }
+
+    @Override
+    protected int engineGetDigestLength() {
+        return delegate.getDigestLength();
+    }
+
+    @Override
+    protected void engineUpdate(byte input) {
+        long start = System.nanoTime();
+        delegate.update(input);
+        nanos += System.nanoTime() - start;
+    }
+
+    @Override
+    protected void engineUpdate(byte[] input, int offset, int len) {
+        long start = System.nanoTime();
+        delegate.update(input, offset, len);
+        nanos += System.nanoTime() - start;
+    }
+
+    @Override
+    protected void engineUpdate(ByteBuffer input) {
+        long start = System.nanoTime();
+        delegate.update(input);
+        nanos += System.nanoTime() - start;
+    }
+
+    @Override
+    protected byte[] engineDigest() {
+        long start = System.nanoTime();
+        byte[] digest = delegate.digest();
+        nanos += System.nanoTime() - start;
+        return digest;
+    }
+
+    @Override
+    protected void engineReset() {
+        delegate.reset();
+    }
+}
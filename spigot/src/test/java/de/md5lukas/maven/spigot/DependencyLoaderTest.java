@@ -0,0 +1,179 @@
+package de.md5lukas.maven.spigot;
+
+import com.google.common.io.BaseEncoding;
+import de.md5lukas.maven.resolver.Artifact;
+import de.md5lukas.maven.resolver.MavenChecksum;
+import de.md5lukas.maven.resolver.Repository;
+import de.md5lukas.maven.resolver.transport.InMemoryTransport;
+import org.bukkit.Server;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.ServicesManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DependencyLoaderTest {
+
+    private static final Repository FIRST = new Repository("first", "https://first.example.com/repository/");
+    private static final Repository SECOND = new Repository("second", "https://second.example.com/repository/");
+
+    @TempDir
+    Path folder;
+
+    private final Map<Class<?>, Object> services = new HashMap<>();
+
+    private DependencyLoader createLoader(Class<? extends Plugin> clazz) {
+        return createLoader(clazz, folder);
+    }
+
+    private DependencyLoader createLoader(Class<? extends Plugin> clazz, Path dataFolder) {
+        Logger logger = Logger.getLogger(clazz.getName());
+        ServicesManager servicesManager = (ServicesManager) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ServicesManager.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "load":
+                            return services.get((Class<?>) args[0]);
+                        case "register":
+                            services.put((Class<?>) args[0], args[1]);
+                            return null;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        Server server = (Server) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Server.class}, (proxy, method, args) -> {
+            if ("getServicesManager".equals(method.getName())) {
+                return servicesManager;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+        Plugin plugin = (Plugin) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Plugin.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getDataFolder":
+                    return dataFolder.toFile();
+                case "getServer":
+                    return server;
+                case "getLogger":
+                    return logger;
+                case "getName":
+                    return clazz.getSimpleName();
+                case "toString":
+                    return clazz.getSimpleName();
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        return new DependencyLoader(plugin, clazz);
+    }
+
+    private static void publish(InMemoryTransport transport, Repository repository, Artifact artifact) {
+        byte[] content = artifact.toString().getBytes(StandardCharsets.UTF_8);
+        transport.put(repository.createURL(artifact.getPath()), content);
+        transport.put(repository.createURL(artifact.getChecksumArtifact(MavenChecksum.SHA1).getPath()),
+                BaseEncoding.base16().lowerCase().encode(MavenChecksum.SHA1.getMessageDigest().digest(content)).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void downloadsMoreArtifactsThanThreadsFromTwoHosts() throws Exception {
+        DependencyLoader loader = createLoader(TwoHostsPlugin.class);
+        InMemoryTransport transport = new InMemoryTransport();
+        for (int i = 1; i <= 4; i++) {
+            publish(transport, FIRST, new Artifact("test", "first-" + i, "1.0.0"));
+        }
+        publish(transport, SECOND, new Artifact("test", "second", "1.0.0"));
+        loader.getResolver().setTransport(transport);
+
+        // The checksums of the artifacts on the second host are read while all download threads wait for them
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> loader.loadAllAsync().get(10, TimeUnit.SECONDS));
+
+        assertTrue(Files.isRegularFile(folder.resolve("lib").resolve(new Artifact("test", "second", "1.0.0").getFileName())));
+    }
+
+    @Test
+    void doesNotRequestChecksumsOfAcceptedFiles() throws Exception {
+        Artifact artifact = new Artifact("test", "first-1", "1.0.0");
+        InMemoryTransport transport = new InMemoryTransport();
+        publish(transport, FIRST, artifact);
+
+        Path library = folder.resolve("lib").resolve(artifact.getFileName());
+        Files.createDirectories(library.getParent());
+        Files.write(library, artifact.toString().getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(library, FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1) - 1));
+
+        DependencyLoader first = createLoader(UnlockedPlugin.class);
+        first.getResolver().setTransport(transport);
+        first.loadAllAsync().get(10, TimeUnit.SECONDS);
+        assertFalse(transport.getRequests().isEmpty());
+
+        transport.clearRequests();
+        DependencyLoader second = createLoader(UnlockedPlugin.class);
+        second.getResolver().setTransport(transport);
+        second.loadAllAsync().get(10, TimeUnit.SECONDS);
+        assertEquals(Collections.emptyList(), transport.getRequests());
+    }
+
+    @Test
+    void sharedResolverKeepsServerWideMetricsAndStatistics() throws Exception {
+        Path adaptiveFolder = folder.resolve("adaptive");
+        Path otherFolder = folder.resolve("other");
+        DependencyLoader adaptive = createLoader(SharedAdaptivePlugin.class, adaptiveFolder);
+        DependencyLoader other = createLoader(SharedPlugin.class, otherFolder);
+
+        assertSame(adaptive.getResolver(), other.getResolver());
+        // The resolutions of both plugins cannot be told apart, so both read the metrics of the shared resolver
+        assertSame(adaptive.getMetrics(), other.getMetrics());
+
+        InMemoryTransport transport = new InMemoryTransport();
+        publish(transport, FIRST, new Artifact("test", "first-1", "1.0.0"));
+        publish(transport, FIRST, new Artifact("test", "first-2", "1.0.0"));
+        adaptive.getResolver().setTransport(transport);
+        adaptive.loadAllAsync().get(10, TimeUnit.SECONDS);
+        other.loadAllAsync().get(10, TimeUnit.SECONDS);
+
+        // Only the plugin that has enabled the statistics stores them
+        assertTrue(Files.isRegularFile(adaptiveFolder.resolve("repository-stats.tsv")));
+        assertFalse(Files.exists(otherFolder.resolve("repository-stats.tsv")));
+    }
+
+    @MavenResolver(useMavenCentral = false, lockDependencies = false, persistSnapshotCache = false)
+    @MavenRepository(name = "first", url = "https://first.example.com/repository/")
+    @MavenDependency(groupId = "test", artifactId = "first-1", version = "1.0.0")
+    private abstract static class UnlockedPlugin implements Plugin {
+    }
+
+    @MavenResolver(useMavenCentral = false, lockDependencies = false, persistSnapshotCache = false, shareResolver = true,
+            adaptiveRepositoryOrder = true)
+    @MavenRepository(name = "first", url = "https://first.example.com/repository/")
+    @MavenDependency(groupId = "test", artifactId = "first-1", version = "1.0.0")
+    private abstract static class SharedAdaptivePlugin implements Plugin {
+    }
+
+    @MavenResolver(useMavenCentral = false, lockDependencies = false, persistSnapshotCache = false, shareResolver = true)
+    @MavenRepository(name = "first", url = "https://first.example.com/repository/")
+    @MavenDependency(groupId = "test", artifactId = "first-2", version = "1.0.0")
+    private abstract static class SharedPlugin implements Plugin {
+    }
+
+    @MavenResolver(useMavenCentral = false, downloadThreads = 2, lockDependencies = false, persistSnapshotCache = false)
+    @MavenRepository(name = "first", url = "https://first.example.com/repository/")
+    @MavenRepository(name = "second", url = "https://second.example.com/repository/")
+    @MavenDependency(groupId = "test", artifactId = "first-1", version = "1.0.0")
+    @MavenDependency(groupId = "test", artifactId = "first-2", version = "1.0.0")
+    @MavenDependency(groupId = "test", artifactId = "first-3", version = "1.0.0")
+    @MavenDependency(groupId = "test", artifactId = "first-4", version = "1.0.0")
+    @MavenDependency(groupId = "test", artifactId = "second", version = "1.0.0")
+    private abstract static class TwoHostsPlugin implements Plugin {
+    }
+}
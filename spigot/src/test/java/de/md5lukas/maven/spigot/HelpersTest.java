@@ -0,0 +1,253 @@
+package de.md5lukas.maven.spigot;
+
+import de.md5lukas.maven.resolver.Artifact;
+import de.md5lukas.maven.resolver.ArtifactResolver;
+import de.md5lukas.maven.resolver.MavenChecksum;
+import de.md5lukas.maven.resolver.Repository;
+import de.md5lukas.maven.resolver.ResolvedArtifact;
+import de.md5lukas.maven.resolver.transport.InMemoryTransport;
+import de.md5lukas.maven.resolver.transport.Response;
+import de.md5lukas.maven.resolver.transport.Transport;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HelpersTest {
+
+    private static final Repository REPOSITORY = new Repository("memory", "https://example.com/repository/");
+    private static final Artifact ARTIFACT = new Artifact("de.md5lukas.maven", "resolver", "1.0.0");
+
+    @TempDir
+    Path folder;
+
+    private byte[] content;
+    private InMemoryTransport transport;
+    private ArtifactResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        content = new byte[64 * 1024];
+        new Random(42).nextBytes(content);
+
+        transport = new InMemoryTransport();
+        transport.put(REPOSITORY.createURL(ARTIFACT.getPath()), content);
+
+        resolver = new ArtifactResolver();
+        resolver.setTransport(transport);
+        resolver.addRepository(REPOSITORY);
+    }
+
+    private boolean download(File destination, byte[] expectedChecksum) throws Exception {
+        try (ResolvedArtifact resolved = resolver.openArtifact(ARTIFACT)) {
+            assertNotNull(resolved);
+            return Helpers.downloadFile(destination, resolved, transport, MavenChecksum.SHA1.getMessageDigest(), expectedChecksum, 3);
+        }
+    }
+
+    @Test
+    void downloadsAndVerifiesFile() throws Exception {
+        File destination = folder.resolve("resolver.jar").toFile();
+
+        assertTrue(download(destination, MavenChecksum.SHA1.getMessageDigest().digest(content)));
+        assertArrayEquals(content, Files.readAllBytes(destination.toPath()));
+        assertFalse(Files.exists(folder.resolve("resolver.jar.part")));
+    }
+
+    @Test
+    void measuresTheDigestWhileDownloading() throws Exception {
+        File destination = folder.resolve("resolver.jar").toFile();
+        TimedMessageDigest messageDigest = new TimedMessageDigest(MavenChecksum.SHA1.getMessageDigest());
+
+        try (ResolvedArtifact resolved = resolver.openArtifact(ARTIFACT)) {
+            assertNotNull(resolved);
+            assertTrue(Helpers.downloadFile(destination, resolved, transport, messageDigest, MavenChecksum.SHA1.getMessageDigest().digest(content), 3));
+        }
+        assertTrue(messageDigest.getNanos() > 0);
+    }
+
+    @Test
+    void doesNotMoveFileWithWrongChecksum() throws Exception {
+        File destination = folder.resolve("resolver.jar").toFile();
+
+        assertFalse(download(destination, new byte[20]));
+        assertFalse(destination.exists());
+        assertFalse(Files.exists(folder.resolve("resolver.jar.part")));
+    }
+
+    @Test
+    void continuesPartialDownload() throws Exception {
+        File destination = folder.resolve("resolver.jar").toFile();
+        Files.write(folder.resolve("resolver.jar.part"), Arrays.copyOf(content, content.length / 2));
+
+        assertTrue(download(destination, MavenChecksum.SHA1.getMessageDigest().digest(content)));
+        assertArrayEquals(content, Files.readAllBytes(destination.toPath()));
+    }
+
+    @Test
+    void restartsStalePartialDownload() throws Exception {
+        File destination = folder.resolve("resolver.jar").toFile();
+        Files.write(folder.resolve("resolver.jar.part"), new byte[content.length / 2]);
+
+        assertTrue(download(destination, MavenChecksum.SHA1.getMessageDigest().digest(content)));
+        assertArrayEquals(content, Files.readAllBytes(destination.toPath()));
+    }
+
+    @Test
+    void resumesDownloadThatFailedInTheMiddleOfTheTransfer() throws Exception {
+        File destination = folder.resolve("resolver.jar").toFile();
+        FailingTransport failing = new FailingTransport(transport, content.length / 2);
+        resolver.setTransport(failing);
+
+        // Without a checksum the download is only continued because the validator of the first response has been stored
+        try (ResolvedArtifact resolved = resolver.openArtifact(ARTIFACT)) {
+            assertNotNull(resolved);
+            assertTrue(Helpers.downloadFile(destination, resolved, failing, MavenChecksum.SHA1.getMessageDigest(), null, 3));
+        }
+
+        assertArrayEquals(content, Files.readAllBytes(destination.toPath()));
+        assertFalse(Files.exists(folder.resolve("resolver.jar.part")));
+        assertFalse(Files.exists(folder.resolve("resolver.jar.part.validator")));
+
+        assertEquals(2, failing.requests.size());
+        Map<String, String> resumed = failing.requests.get(1);
+        assertNotNull(resumed.get("Range"));
+        assertNotEquals("bytes=0-", resumed.get("Range"));
+        assertNotNull(resumed.get("If-Range"));
+    }
+
+    @Test
+    void restartsPartialDownloadOfChangedArtifact() throws Exception {
+        File destination = folder.resolve("resolver.jar").toFile();
+        URL url = REPOSITORY.createURL(ARTIFACT.getPath());
+        byte[] previous = new byte[content.length];
+        Files.write(folder.resolve("resolver.jar.part"), Arrays.copyOf(previous, previous.length / 2));
+        transport.put(url, previous);
+        try (Response response = transport.head(url)) {
+            Files.write(folder.resolve("resolver.jar.part.validator"), response.getHeader("ETag").getBytes(StandardCharsets.UTF_8));
+        }
+        transport.put(url, content);
+
+        assertTrue(Helpers.downloadFile(destination, url, transport, MavenChecksum.SHA1.getMessageDigest(), null, 3));
+        assertArrayEquals(content, Files.readAllBytes(destination.toPath()));
+    }
+
+    @Test
+    void discardsPartialDownloadThatCannotBeValidated() throws Exception {
+        File destination = folder.resolve("resolver.jar").toFile();
+        Files.write(folder.resolve("resolver.jar.part"), new byte[content.length / 2]);
+        FailingTransport recording = new FailingTransport(transport, Integer.MAX_VALUE);
+        URL url = REPOSITORY.createURL(ARTIFACT.getPath());
+
+        assertTrue(Helpers.downloadFile(destination, url, recording, MavenChecksum.SHA1.getMessageDigest(), null, 3));
+        assertArrayEquals(content, Files.readAllBytes(destination.toPath()));
+        assertEquals(1, recording.requests.size());
+        assertNull(recording.requests.get(0).get("Range"));
+    }
+
+    /**
+     * Records the headers of all GET requests and closes the connection of the first one after the provided amount of bytes
+     */
+    private static final class FailingTransport implements Transport {
+
+        private final Transport delegate;
+        private final int failAfter;
+        private final List<Map<String, String>> requests = new ArrayList<>();
+
+        private FailingTransport(Transport delegate, int failAfter) {
+            this.delegate = delegate;
+            this.failAfter = failAfter;
+        }
+
+        @Override
+        @NotNull
+        public Response head(@NotNull URL url) throws IOException {
+            return delegate.head(url);
+        }
+
+        @Override
+        @NotNull
+        public synchronized Response get(@NotNull URL url, @NotNull Map<String, String> headers) throws IOException {
+            requests.add(new HashMap<>(headers));
+            Response response = delegate.get(url, headers);
+            return requests.size() == 1 ? new FailingResponse(response, failAfter) : response;
+        }
+    }
+
+    private static final class FailingResponse implements Response {
+
+        private final Response delegate;
+        private final int failAfter;
+
+        private FailingResponse(Response delegate, int failAfter) {
+            this.delegate = delegate;
+            this.failAfter = failAfter;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        @Nullable
+        public String getHeader(@NotNull String name) {
+            return delegate.getHeader(name);
+        }
+
+        @Override
+        public long getContentLength() {
+            return delegate.getContentLength();
+        }
+
+        @Override
+        @NotNull
+        public InputStream getBody() throws IOException {
+            return new FilterInputStream(delegate.getBody()) {
+
+                private int remaining = failAfter;
+
+                @Override
+                public int read() throws IOException {
+                    byte[] single = new byte[1];
+                    return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+                }
+
+                @Override
+                public int read(@NotNull byte[] b, int off, int len) throws IOException {
+                    if (remaining <= 0) {
+                        throw new IOException("Connection reset");
+                    }
+                    int read = super.read(b, off, Math.min(len, remaining));
+                    if (read > 0) {
+                        remaining -= read;
+                    }
+                    return read;
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package de.md5lukas.maven.spigot;
+
+import de.md5lukas.maven.resolver.MavenChecksum;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntegrityIndexTest {
+
+    private static final FileTime PAST = FileTime.from(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1), TimeUnit.MILLISECONDS);
+
+    @TempDir
+    Path folder;
+
+    private File writeLibrary(String content) throws Exception {
+        Path library = folder.resolve("library.jar");
+        Files.write(library, content.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(library, PAST);
+        return library.toFile();
+    }
+
+    private static byte[] sha1(String content) {
+        return MavenChecksum.SHA1.getMessageDigest().digest(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void unchangedFileIsNotHashedAgain() throws Exception {
+        IntegrityIndex index = new IntegrityIndex(folder.resolve(IntegrityIndex.FILE_NAME).toFile());
+        File library = writeLibrary("first");
+
+        assertArrayEquals(sha1("first"), index.digest(library, MavenChecksum.SHA1));
+
+        // Same size and modification time, so the recorded digest is trusted
+        writeLibrary("other");
+        assertArrayEquals(sha1("first"), index.digest(library, MavenChecksum.SHA1));
+    }
+
+    @Test
+    void changedFileIsHashedAgain() throws Exception {
+        IntegrityIndex index = new IntegrityIndex(folder.resolve(IntegrityIndex.FILE_NAME).toFile());
+        File library = writeLibrary("first");
+
+        assertArrayEquals(sha1("first"), index.digest(library, MavenChecksum.SHA1));
+
+        writeLibrary("changed content");
+        assertArrayEquals(sha1("changed content"), index.digest(library, MavenChecksum.SHA1));
+        assertArrayEquals(MavenChecksum.SHA256.getMessageDigest().digest("changed content".getBytes(StandardCharsets.UTF_8)),
+                index.digest(library, MavenChecksum.SHA256));
+    }
+
+    @Test
+    void recentlyModifiedFileWithCoarseTimestampIsNotTrusted() throws Exception {
+        IntegrityIndex index = new IntegrityIndex(folder.resolve(IntegrityIndex.FILE_NAME).toFile());
+        Path library = folder.resolve("library.jar");
+        Files.write(library, "first".getBytes(StandardCharsets.UTF_8));
+        // Whole seconds like on file systems with a coarse resolution of the modification time
+        Files.setLastModifiedTime(library, FileTime.from(System.currentTimeMillis() / 1000, TimeUnit.SECONDS));
+
+        assertArrayEquals(sha1("first"), index.digest(library.toFile(), MavenChecksum.SHA1));
+
+        FileTime lastModified = Files.getLastModifiedTime(library);
+        Files.write(library, "other".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(library, lastModified);
+        assertArrayEquals(sha1("other"), index.digest(library.toFile(), MavenChecksum.SHA1));
+    }
+
+    @Test
+    void justDownloadedFileWithFineTimestampIsTrusted() throws Exception {
+        IntegrityIndex index = new IntegrityIndex(folder.resolve(IntegrityIndex.FILE_NAME).toFile());
+        Path library = folder.resolve("library.jar");
+        Files.write(library, "first".getBytes(StandardCharsets.UTF_8));
+
+        long lastModified = System.currentTimeMillis() - 10;
+        FileTime fineTimestamp = FileTime.fromMillis(lastModified % 1000 != 0 ? lastModified : lastModified - 1);
+        Files.setLastModifiedTime(library, fineTimestamp);
+        index.record(library.toFile(), MavenChecksum.SHA1, sha1("first"));
+
+        Files.write(library, "other".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(library, fineTimestamp);
+        assertArrayEquals(sha1("first"), index.digest(library.toFile(), MavenChecksum.SHA1));
+    }
+
+    @Test
+    void containsOnlyUnchangedRecordedFiles() throws Exception {
+        IntegrityIndex index = new IntegrityIndex(folder.resolve(IntegrityIndex.FILE_NAME).toFile());
+        File library = writeLibrary("first");
+
+        assertFalse(index.contains(library, MavenChecksum.SHA1));
+        index.record(library, MavenChecksum.SHA1, sha1("first"));
+        assertTrue(index.contains(library, MavenChecksum.SHA1));
+        assertFalse(index.contains(library, MavenChecksum.SHA256));
+
+        index.remove(library);
+        assertFalse(index.contains(library, MavenChecksum.SHA1));
+
+        index.record(library, MavenChecksum.SHA1, sha1("first"));
+        writeLibrary("changed content");
+        assertFalse(index.contains(library, MavenChecksum.SHA1));
+    }
+
+    @Test
+    void recordsSurviveRestart() throws Exception {
+        File indexFile = folder.resolve(IntegrityIndex.FILE_NAME).toFile();
+        File library = writeLibrary("first");
+
+        IntegrityIndex index = new IntegrityIndex(indexFile);
+        index.record(library, MavenChecksum.SHA1, sha1("recorded"));
+        index.save();
+
+        IntegrityIndex loaded = new IntegrityIndex(indexFile);
+        loaded.load();
+        assertArrayEquals(sha1("recorded"), loaded.digest(library, MavenChecksum.SHA1));
+
+        loaded.retain(Collections.emptyList());
+        loaded.save();
+
+        IntegrityIndex empty = new IntegrityIndex(indexFile);
+        empty.load();
+        assertArrayEquals(sha1("first"), empty.digest(library, MavenChecksum.SHA1));
+    }
+}
@@ -0,0 +1,149 @@
+package de.md5lukas.maven.spigot;
+
+import com.google.common.io.ByteStreams;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LibraryClassLoaderTest {
+
+    private static final String LIBRARY_CLASS = Library.class.getName().replace('.', '/') + ".class";
+    private static final String ISOLATED_CLASS = "library/Isolated";
+
+    @TempDir
+    Path folder;
+
+    private File first;
+    private File second;
+
+    @BeforeEach
+    void createJars() throws Exception {
+        byte[] classBytes;
+        try (InputStream in = LibraryClassLoaderTest.class.getClassLoader().getResourceAsStream(LIBRARY_CLASS)) {
+            assertNotNull(in);
+            classBytes = ByteStreams.toByteArray(in);
+        }
+
+        Map<String, byte[]> firstEntries = new LinkedHashMap<>();
+        firstEntries.put(ISOLATED_CLASS + ".class", createClass(ISOLATED_CLASS));
+        firstEntries.put(LIBRARY_CLASS, classBytes);
+        firstEntries.put("config/library.properties", "first".getBytes(StandardCharsets.UTF_8));
+        first = writeJar("first.jar", firstEntries);
+
+        Map<String, byte[]> secondEntries = new LinkedHashMap<>();
+        secondEntries.put("other/Other.txt", "other".getBytes(StandardCharsets.UTF_8));
+        secondEntries.put("config/library.properties", "second".getBytes(StandardCharsets.UTF_8));
+        second = writeJar("second.jar", secondEntries);
+    }
+
+    private File writeJar(String name, Map<String, byte[]> entries) throws Exception {
+        File file = folder.resolve(name).toFile();
+        try (OutputStream out = Files.newOutputStream(file.toPath()); JarOutputStream jar = new JarOutputStream(out)) {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                jar.putNextEntry(new JarEntry(entry.getKey()));
+                jar.write(entry.getValue());
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Creates the smallest valid class file for an empty public class with the provided internal name
+     */
+    private static byte[] createClass(String internalName) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(52);
+            out.writeShort(5);
+            out.writeByte(7);
+            out.writeShort(2);
+            out.writeByte(1);
+            out.writeUTF(internalName);
+            out.writeByte(7);
+            out.writeShort(4);
+            out.writeByte(1);
+            out.writeUTF("java/lang/Object");
+            out.writeShort(0x0021);
+            out.writeShort(1);
+            out.writeShort(3);
+            out.writeShort(0);
+            out.writeShort(0);
+            out.writeShort(0);
+            out.writeShort(0);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    void loadsClassesFromTheJarThatContainsThePackage() throws Exception {
+        try (LibraryClassLoader loader = new LibraryClassLoader(Arrays.asList(first, second), getClass().getClassLoader())) {
+            Class<?> loaded = loader.loadClass(ISOLATED_CLASS.replace('/', '.'));
+
+            assertSame(loader, loaded.getClassLoader());
+            assertEquals(first.toURI().toURL(), loaded.getProtectionDomain().getCodeSource().getLocation());
+            assertThrows(ClassNotFoundException.class, () -> getClass().getClassLoader().loadClass(ISOLATED_CLASS.replace('/', '.')));
+        }
+    }
+
+    @Test
+    void loadsPackagesThatThePluginProvidesFromThePlugin() throws Exception {
+        try (LibraryClassLoader loader = new LibraryClassLoader(Arrays.asList(first, second), getClass().getClassLoader())) {
+            // The jar contains a copy of the class, but its package is provided by the plugin, for example like Guava is provided by the server
+            assertSame(Library.class, loader.loadClass(Library.class.getName()));
+            assertEquals(getClass().getClassLoader().getResource(LIBRARY_CLASS), loader.getResource(LIBRARY_CLASS));
+        }
+    }
+
+    @Test
+    void delegatesClassesThatAreNotInTheJarsToThePlugin() throws Exception {
+        try (LibraryClassLoader loader = new LibraryClassLoader(Arrays.asList(first, second), getClass().getClassLoader())) {
+            // The package is indexed because of the copy of the library class, but this class is only known to the parent
+            assertSame(LibraryClassLoaderTest.class, loader.loadClass(LibraryClassLoaderTest.class.getName()));
+            assertSame(String.class, loader.loadClass("java.lang.String"));
+            assertThrows(ClassNotFoundException.class, () -> loader.loadClass("de.md5lukas.maven.spigot.Missing"));
+        }
+    }
+
+    @Test
+    void findsResourcesInAllJarsThatContainThem() throws Exception {
+        try (LibraryClassLoader loader = new LibraryClassLoader(Arrays.asList(first, second), getClass().getClassLoader())) {
+            URL resource = loader.getResource("config/library.properties");
+            assertNotNull(resource);
+            URLConnection connection = resource.openConnection();
+            connection.setUseCaches(false);
+            try (InputStream in = connection.getInputStream()) {
+                assertEquals("first", new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8));
+            }
+
+            Enumeration<URL> resources = loader.getResources("config/library.properties");
+            assertEquals(2, Collections.list(resources).size());
+            assertNotNull(loader.getResource("other/Other.txt"));
+            assertNull(loader.getResource("other/Missing.txt"));
+        }
+    }
+
+    public static final class Library {
+    }
+}
@@ -0,0 +1,114 @@
+package de.md5lukas.maven.spigot;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoadCoordinatorTest {
+
+    private final LoadCoordinator loads = new LoadCoordinator(new DownloadThreadFactory());
+
+    @Test
+    void injectsOnlyWhenAskedTo() throws Exception {
+        AtomicInteger injected = new AtomicInteger();
+
+        CompletableFuture<Void> future = loads.loadAsync(() -> {
+        });
+        future.get(10, TimeUnit.SECONDS);
+        assertEquals(0, injected.get());
+
+        loads.inject(start -> injected.incrementAndGet());
+        assertEquals(1, injected.get());
+    }
+
+    @Test
+    void propagatesFailuresToTheFutureAndTheInjection() throws Exception {
+        IOException failure = new IOException("Could not download");
+        AtomicInteger injected = new AtomicInteger();
+
+        CompletableFuture<Void> future = loads.loadAsync(() -> {
+            throw failure;
+        });
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        assertSame(failure, e.getCause());
+        assertSame(failure, assertThrows(IOException.class, () -> loads.inject(start -> injected.incrementAndGet())));
+        assertEquals(0, injected.get());
+    }
+
+    @Test
+    void rejectsSecondAsynchronousLoadUntilInjected() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        loads.loadAsync(release::await);
+
+        assertThrows(IllegalStateException.class, () -> loads.loadAsync(() -> {
+        }));
+
+        release.countDown();
+        loads.inject(start -> {
+        });
+
+        assertThrows(IllegalStateException.class, () -> loads.inject(start -> {
+        }));
+        loads.loadAsync(() -> {
+        }).get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void synchronousLoadJoinsThePendingLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger resolved = new AtomicInteger();
+        AtomicInteger injected = new AtomicInteger();
+
+        loads.loadAsync(() -> {
+            release.await();
+            resolved.incrementAndGet();
+        });
+
+        Thread releaser = new Thread(release::countDown);
+        releaser.start();
+        loads.load(resolved::incrementAndGet, start -> injected.incrementAndGet());
+
+        assertEquals(1, resolved.get());
+        assertEquals(1, injected.get());
+        assertThrows(IllegalStateException.class, () -> loads.inject(start -> {
+        }));
+    }
+
+    @Test
+    void rejectsAsynchronousLoadWhileLoadingSynchronously() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread loader = new Thread(() -> {
+            try {
+                loads.load(() -> {
+                    started.countDown();
+                    release.await();
+                }, start -> {
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        loader.start();
+
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        assertThrows(IllegalStateException.class, () -> loads.loadAsync(() -> {
+        }));
+        assertThrows(IllegalStateException.class, () -> loads.load(() -> {
+        }, start -> {
+        }));
+
+        release.countDown();
+        loader.join(10000);
+        assertFalse(loader.isAlive());
+    }
+}
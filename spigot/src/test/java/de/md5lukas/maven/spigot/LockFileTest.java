@@ -0,0 +1,65 @@
+package de.md5lukas.maven.spigot;
+
+import de.md5lukas.maven.resolver.Artifact;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LockFileTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void entriesSurviveRoundTrip() throws Exception {
+        File file = folder.resolve(LockFile.FILE_NAME).toFile();
+        LockFile.Entry release = new LockFile.Entry(new Artifact("de.md5lukas.maven", "resolver", "1.0.0"), "central",
+                "https://repo1.maven.org/maven2/", "1.0.0", new URL("https://repo1.maven.org/maven2/de/md5lukas/maven/resolver/1.0.0/resolver-1.0.0.jar"),
+                1234, new byte[]{1, 2, 3, (byte) 0xff});
+        LockFile.Entry snapshot = new LockFile.Entry(new Artifact("de.md5lukas.maven", "spigot", "1.1.0-SNAPSHOT", "sources", "jar"), "sonatype",
+                "https://oss.sonatype.org/content/groups/public/", "1.1.0-20201231.235959-7",
+                new URL("https://oss.sonatype.org/content/groups/public/de/md5lukas/maven/spigot/1.1.0-SNAPSHOT/spigot-1.1.0-20201231.235959-7-sources.jar"),
+                42, new byte[]{(byte) 0xab, (byte) 0xcd});
+
+        new LockFile("abc123", Arrays.asList(release, snapshot)).write(file);
+        LockFile read = LockFile.read(file);
+
+        assertNotNull(read);
+        assertEquals("abc123", read.getFingerprint());
+        assertEquals(2, read.getEntries().size());
+
+        LockFile.Entry readRelease = read.getEntries().get(0);
+        assertEquals(release.getArtifact(), readRelease.getArtifact());
+        assertEquals("central", readRelease.getRepositoryName());
+        assertEquals(release.getUrl(), readRelease.getUrl());
+        assertEquals(1234, readRelease.getSize());
+        assertArrayEquals(release.getChecksum(), readRelease.getChecksum());
+
+        LockFile.Entry readSnapshot = read.getEntries().get(1);
+        assertEquals(snapshot.getArtifact(), readSnapshot.getArtifact());
+        assertEquals("1.1.0-20201231.235959-7", readSnapshot.getVersion());
+        assertEquals(snapshot.getRepositoryUrl(), readSnapshot.getRepositoryUrl());
+    }
+
+    @Test
+    void missingFileIsNotAnError() throws Exception {
+        assertNull(LockFile.read(folder.resolve(LockFile.FILE_NAME).toFile()));
+    }
+
+    @Test
+    void malformedFileIsRejected() throws Exception {
+        Path file = folder.resolve(LockFile.FILE_NAME);
+        Files.write(file, "fingerprint\tabc\nnot an entry\n".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IOException.class, () -> LockFile.read(file.toFile()));
+    }
+}
@@ -0,0 +1,178 @@
+package de.md5lukas.maven.spigot;
+
+import com.google.common.io.BaseEncoding;
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.HttpServer;
+import de.md5lukas.maven.resolver.Artifact;
+import de.md5lukas.maven.resolver.ArtifactResolver;
+import de.md5lukas.maven.resolver.MavenChecksum;
+import de.md5lukas.maven.resolver.listener.ResolutionListener;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProcessLockTest {
+
+    private static final int PROCESSES = 4;
+    private static final String DOWNLOADED = "downloaded";
+    private static final String REUSED = "reused";
+    private static final String NO_CHECKSUM = "-";
+    private static final Artifact ARTIFACT = new Artifact("de.md5lukas.maven", "library", "1.0.0");
+
+    @TempDir
+    Path folder;
+
+    private byte[] content;
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private AtomicInteger requests;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        content = new byte[256 * 1024];
+        new Random(42).nextBytes(content);
+        requests = new AtomicInteger();
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            exchange.sendResponseHeaders(200, content.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                // Slow enough that the other processes start waiting for the lock while the download is in progress
+                for (int offset = 0; offset < content.length; offset += 16 * 1024) {
+                    out.write(content, offset, Math.min(16 * 1024, content.length - offset));
+                    out.flush();
+                    Thread.sleep(100);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void waitsForTheLockOfAnotherHolderInTheSameProcess() throws Exception {
+        File target = folder.resolve("library.jar").toFile();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        ProcessLock held = ProcessLock.acquire(target);
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            Future<?> waiting = executor.submit(() -> {
+                started.countDown();
+                try (ProcessLock lock = ProcessLock.acquire(target)) {
+                    return null;
+                }
+            });
+
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            Thread.sleep(200);
+            assertFalse(waiting.isDone());
+            held.close();
+            waiting.get(10, TimeUnit.SECONDS);
+        } finally {
+            held.close();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void onlyOneProcessDownloadsTheFile() throws Exception {
+        downloadInChildProcesses(BaseEncoding.base16().lowerCase().encode(MavenChecksum.SHA1.getMessageDigest().digest(content)));
+    }
+
+    @Test
+    void onlyOneProcessDownloadsTheFileWithoutChecksum() throws Exception {
+        downloadInChildProcesses(NO_CHECKSUM);
+    }
+
+    private void downloadInChildProcesses(String checksum) throws Exception {
+        File target = folder.resolve("library.jar").toFile();
+        URL url = new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/library.jar");
+
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        List<Process> processes = new ArrayList<>();
+        for (int i = 0; i < PROCESSES; i++) {
+            processes.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), Child.class.getName(),
+                    target.getAbsolutePath(), url.toString(), checksum)
+                    .redirectErrorStream(true)
+                    .start());
+        }
+
+        int downloaded = 0;
+        for (Process process : processes) {
+            assertTrue(process.waitFor(60, TimeUnit.SECONDS), "Child process did not finish in time");
+            String output = new String(ByteStreams.toByteArray(process.getInputStream()), StandardCharsets.UTF_8).trim();
+            assertEquals(0, process.exitValue(), output);
+            if (output.endsWith(DOWNLOADED)) {
+                downloaded++;
+            } else {
+                assertTrue(output.endsWith(REUSED), output);
+            }
+        }
+
+        assertEquals(1, downloaded);
+        assertEquals(1, requests.get());
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        assertFalse(Files.exists(folder.resolve("library.jar.part")));
+    }
+
+    /**
+     * Entry point of the forked processes, which download the file through the same downloader as the dependency loader
+     */
+    public static final class Child {
+
+        public static void main(String[] args) throws Exception {
+            File target = new File(args[0]);
+            URL url = new URL(args[1]);
+            byte[] expectedChecksum = NO_CHECKSUM.equals(args[2]) ? null : BaseEncoding.base16().lowerCase().decode(args[2]);
+
+            AtomicInteger downloads = new AtomicInteger();
+            ArtifactResolver resolver = new ArtifactResolver();
+            resolver.addListener(new ResolutionListener() {
+                @Override
+                public void onDownloadComplete(@NotNull Artifact artifact, @NotNull URL url, long bytes, long durationNanos) {
+                    downloads.incrementAndGet();
+                }
+            });
+
+            IntegrityIndex integrityIndex = new IntegrityIndex(new File(target.getParentFile(), IntegrityIndex.FILE_NAME));
+            ArtifactDownloader downloader = new ArtifactDownloader(Logger.getLogger(Child.class.getName()), resolver, integrityIndex,
+                    MavenChecksum.SHA1, 3);
+            downloader.download(ARTIFACT, target, url, null, expectedChecksum);
+
+            System.out.println(downloads.get() > 0 ? DOWNLOADED : REUSED);
+        }
+    }
+}
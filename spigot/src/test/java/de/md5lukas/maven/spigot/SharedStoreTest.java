@@ -0,0 +1,47 @@
+package de.md5lukas.maven.spigot;
+
+import de.md5lukas.maven.resolver.Artifact;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SharedStoreTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void usesTheLayoutOfAMavenRepository() {
+        SharedStore store = new SharedStore(folder.toFile());
+        Artifact release = new Artifact("org.example", "library", "1.0.0");
+        Artifact snapshot = new Artifact("org.example", "library", "1.1.0-SNAPSHOT");
+
+        assertEquals(folder.resolve("org/example/library/1.0.0/library-1.0.0.jar").toFile(), store.getFile(release, "1.0.0"));
+        assertEquals(folder.resolve("org/example/library/1.1.0-SNAPSHOT/library-1.1.0-20210101.120000-3.jar").toFile(),
+                store.getFile(snapshot, "1.1.0-20210101.120000-3"));
+    }
+
+    @Test
+    void linksTheFileIntoTheLibraryFolder() throws Exception {
+        SharedStore store = new SharedStore(folder.resolve("store").toFile());
+        File storeFile = store.getFile(new Artifact("org.example", "library", "1.0.0"), "1.0.0");
+        Files.createDirectories(storeFile.getParentFile().toPath());
+        Files.write(storeFile.toPath(), "library".getBytes(StandardCharsets.UTF_8));
+
+        Path libFolder = Files.createDirectories(folder.resolve("lib"));
+        File target = libFolder.resolve("library-1.0.0.jar").toFile();
+        Files.write(target.toPath(), "outdated".getBytes(StandardCharsets.UTF_8));
+
+        boolean linked = store.link(storeFile, target);
+
+        assertEquals("library", new String(Files.readAllBytes(target.toPath()), StandardCharsets.UTF_8));
+        assertEquals(linked, Files.isSameFile(storeFile.toPath(), target.toPath()));
+        assertFalse(Files.exists(libFolder.resolve("library-1.0.0.jar.link")));
+    }
+}